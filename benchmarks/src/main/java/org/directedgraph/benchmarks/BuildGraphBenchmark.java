@@ -0,0 +1,61 @@
+package org.directedgraph.benchmarks;
+
+import org.directedgraph.CompactGraph;
+import org.directedgraph.DirectedGraph;
+import org.directedgraph.ParallelGraphBuilder;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the word graph from an already tokenized corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BuildGraphBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000", "100000000"})
+    public long tokens;
+
+    private List<String> words;
+    private ParallelGraphBuilder parallelBuilder;
+
+    @Setup
+    public void setUp() throws IOException {
+        words = DirectedGraph.readWordsFromFile(ZipfCorpus.file(tokens, ZipfCorpus.DEFAULT_SEED).toString());
+        parallelBuilder = new ParallelGraphBuilder();
+    }
+
+    @Benchmark
+    public DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> buildGraph() {
+        return DirectedGraph.buildGraph(words);
+    }
+
+    @Benchmark
+    public DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> buildGraphParallel() {
+        return DirectedGraph.buildGraph(words, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public CompactGraph buildCompactGraph() {
+        return parallelBuilder.buildCompactGraph(words);
+    }
+}
@@ -0,0 +1,144 @@
+package org.directedgraph.benchmarks;
+
+import org.directedgraph.BridgeWordIndex;
+import org.directedgraph.CompactGraph;
+import org.directedgraph.DirectedGraph;
+import org.directedgraph.RandomWalkEngine;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the menu queries on a graph built from a corpus.
+ *
+ * <p>Query words are drawn from the same Zipf distribution as the corpus, so
+ * frequent (high-degree) words are asked about more often, and every thread
+ * cycles through the same fixed sequence of queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class QueryBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000", "1000000", "10000000", "100000000"})
+    public long tokens;
+
+    private DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph;
+    private CompactGraph compactGraph;
+    private BridgeWordIndex bridgeWordIndex;
+    private RandomWalkEngine randomWalkEngine;
+    private String[] sources;
+    private String[] targets;
+    private String[] sentences;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> words = DirectedGraph.readWordsFromFile(ZipfCorpus.file(tokens, ZipfCorpus.DEFAULT_SEED).toString());
+        graph = DirectedGraph.buildGraph(words);
+        compactGraph = CompactGraph.of(graph);
+        bridgeWordIndex = BridgeWordIndex.build(compactGraph);
+        randomWalkEngine = new RandomWalkEngine(compactGraph);
+
+        ZipfCorpus corpus = ZipfCorpus.forTokens(tokens);
+        SplittableRandom random = new SplittableRandom(ZipfCorpus.DEFAULT_SEED + 1);
+        sources = new String[QUERIES];
+        targets = new String[QUERIES];
+        sentences = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            sources[i] = corpus.word(corpus.sampleRank(random));
+            targets[i] = corpus.word(corpus.sampleRank(random));
+            StringBuilder sentence = new StringBuilder();
+            for (int w = 0; w < 20; w++) {
+                sentence.append(w == 0 ? "" : " ").append(corpus.word(corpus.sampleRank(random)));
+            }
+            sentences[i] = sentence.toString();
+        }
+    }
+
+    /**
+     * The position of one thread in the query sequence.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        private long seed = ZipfCorpus.DEFAULT_SEED;
+
+        int next() {
+            int i = next;
+            next = (next + 1) & (QUERIES - 1);
+            return i;
+        }
+
+        long nextSeed() {
+            return seed++;
+        }
+    }
+
+    @Benchmark
+    public List<String> findBridgeWords(Cursor cursor) {
+        int i = cursor.next();
+        return DirectedGraph.findBridgeWords(graph, sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public List<String> findBridgeWordsCompact(Cursor cursor) {
+        int i = cursor.next();
+        return compactGraph.findBridgeWords(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public List<String> findBridgeWordsIndexed(Cursor cursor) {
+        int i = cursor.next();
+        return bridgeWordIndex.findBridgeWords(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public String generateNewText(Cursor cursor) {
+        return DirectedGraph.generateNewText(graph, sentences[cursor.next()]);
+    }
+
+    @Benchmark
+    public String generateNewTextIndexed(Cursor cursor) {
+        return DirectedGraph.generateNewText(bridgeWordIndex, sentences[cursor.next()]);
+    }
+
+    @Benchmark
+    public String calcShortestPathBetween(Cursor cursor) {
+        int i = cursor.next();
+        return DirectedGraph.calcShortestPathBetween(compactGraph, sources[i], targets[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String calcAllShortestPathsFrom(Cursor cursor) {
+        return DirectedGraph.calcAllShortestPathsFrom(compactGraph, sources[cursor.next()]);
+    }
+
+    /**
+     * One random walk of at most 64 steps; divide by the mean walk length
+     * for the cost of a single step.
+     */
+    @Benchmark
+    public List<String> randomWalk(Cursor cursor) {
+        return DirectedGraph.randomWalk(randomWalkEngine, cursor.nextSeed(), 64);
+    }
+}
@@ -0,0 +1,45 @@
+package org.directedgraph.benchmarks;
+
+import org.directedgraph.DirectedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading and tokenizing a corpus file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReadWordsBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000", "100000000"})
+    public long tokens;
+
+    private String fileName;
+
+    @Setup
+    public void setUp() throws IOException {
+        fileName = ZipfCorpus.file(tokens, ZipfCorpus.DEFAULT_SEED).toString();
+    }
+
+    @Benchmark
+    public List<String> readWordsFromFile() {
+        return DirectedGraph.readWordsFromFile(fileName);
+    }
+}
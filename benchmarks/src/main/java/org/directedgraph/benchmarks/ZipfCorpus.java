@@ -0,0 +1,169 @@
+package org.directedgraph.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A seeded synthetic corpus whose word frequencies follow Zipf's law.
+ *
+ * <p>The word of rank {@code r} is drawn with probability proportional to
+ * {@code 1 / r^exponent}, and frequent words get the shortest spellings, as in
+ * natural text. The vocabulary grows with the square root of the corpus size
+ * (Heaps' law), so large corpora also have large graphs. Lines mix
+ * capitalization and punctuation so the tokenizer does real work.
+ */
+public final class ZipfCorpus {
+    /** The seed used by the benchmarks. */
+    public static final long DEFAULT_SEED = 20240501L;
+
+    private final String[] vocabulary;
+    private final double[] cumulative;
+
+    /**
+     * Creates a corpus model.
+     *
+     * @param vocabularySize The number of distinct words.
+     * @param exponent       The Zipf exponent, usually close to 1.
+     */
+    public ZipfCorpus(int vocabularySize, double exponent) {
+        vocabulary = new String[vocabularySize];
+        cumulative = new double[vocabularySize];
+        double sum = 0;
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            vocabulary[rank] = spell(rank);
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < vocabularySize; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    /**
+     * Creates the corpus model used for a corpus of the given size.
+     *
+     * @param tokens The number of tokens.
+     * @return The corpus model.
+     */
+    public static ZipfCorpus forTokens(long tokens) {
+        return new ZipfCorpus(vocabularySize(tokens), 1.0);
+    }
+
+    /**
+     * Returns the vocabulary size used for a corpus of the given size.
+     *
+     * @param tokens The number of tokens.
+     * @return The vocabulary size.
+     */
+    public static int vocabularySize(long tokens) {
+        return (int) Math.min(1_000_000, Math.max(1_000, 40 * Math.sqrt(tokens)));
+    }
+
+    /**
+     * Returns the corpus file of the given size, generating it on first use.
+     * Files are kept in the temporary directory and shared between forks.
+     *
+     * @param tokens The number of tokens.
+     * @param seed   The random seed.
+     * @return The path of the corpus file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static Path file(long tokens, long seed) throws IOException {
+        Path dir = Paths.get(System.getProperty("java.io.tmpdir"), "directedgraph-bench");
+        Path file = dir.resolve("zipf-" + tokens + "-" + seed + ".txt");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Files.createDirectories(dir);
+        Path partial = Files.createTempFile(dir, "zipf-", ".part");
+        try (Writer out = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+            forTokens(tokens).write(out, tokens, seed);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    /**
+     * Returns the word of the given frequency rank, starting at 0.
+     *
+     * @param rank The rank.
+     * @return The word, in lower case.
+     */
+    public String word(int rank) {
+        return vocabulary[rank];
+    }
+
+    public int vocabularySize() {
+        return vocabulary.length;
+    }
+
+    /**
+     * Draws a word rank.
+     *
+     * @param random The random source.
+     * @return The rank.
+     */
+    public int sampleRank(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, vocabulary.length - 1);
+    }
+
+    /**
+     * Writes a text of the given number of words.
+     *
+     * @param out    The destination; it is not closed.
+     * @param tokens The number of words.
+     * @param seed   The random seed.
+     * @throws IOException If writing fails.
+     */
+    public void write(Writer out, long tokens, long seed) throws IOException {
+        Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+        SplittableRandom random = new SplittableRandom(seed);
+        int lineLength = 0;
+        boolean sentenceStart = true;
+        for (long i = 0; i < tokens; i++) {
+            String word = vocabulary[sampleRank(random)];
+            if (sentenceStart) {
+                writer.write(Character.toUpperCase(word.charAt(0)));
+                writer.write(word, 1, word.length() - 1);
+            } else {
+                writer.write(word);
+            }
+            sentenceStart = false;
+            int r = random.nextInt(100);
+            if (r < 6) {
+                writer.write('.');
+                sentenceStart = true;
+            } else if (r < 12) {
+                writer.write(',');
+            }
+            if (++lineLength >= 12 + random.nextInt(8)) {
+                writer.write('\n');
+                lineLength = 0;
+            } else {
+                writer.write(' ');
+            }
+        }
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Spells a rank in bijective base 26, so low ranks get short words.
+     */
+    private static String spell(int rank) {
+        StringBuilder sb = new StringBuilder();
+        for (int n = rank + 1; n > 0; n = (n - 1) / 26) {
+            sb.append((char) ('a' + (n - 1) % 26));
+        }
+        return sb.toString();
+    }
+}
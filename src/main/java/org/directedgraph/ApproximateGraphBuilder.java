@@ -0,0 +1,304 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Builds a pruned word graph from text of any length in a fixed amount of
+ * memory for the bigram counts.
+ *
+ * <p>The exact builders keep one counter per distinct word pair, and on very
+ * large corpora the long tail of pairs seen once exhausts the heap. This
+ * builder streams the pairs into two fixed-size structures instead, splitting
+ * the budget between them: a {@link CountMinSketch} that bounds the count of
+ * any pair from above, and a {@link SpaceSaving} summary that remembers the
+ * most frequent pairs. Only pairs of the summary can become edges. An edge
+ * gets the smaller of the two upper bounds as its weight, and is kept if that
+ * weight reaches {@code minWeight}; if {@code topK} is positive, each word
+ * then keeps only its {@code topK} heaviest outgoing edges.
+ *
+ * <p>The error bounds are reported by {@link #report()}: a weight never
+ * undercounts, exceeds the true count by at most {@link #errorBound()} with
+ * probability {@code 1 - delta}, and is never more than the SpaceSaving error
+ * of its pair above the true count. Every pair seen more than
+ * {@link #guaranteedWeight()} times is monitored, so heavy edges are never
+ * lost. The vocabulary is kept exactly and is not part of the budget; every
+ * word stays a vertex even if all its edges are pruned.
+ *
+ * <p>The pruned graph is an ordinary {@link CompactGraph}, so bridge word,
+ * shortest path and random walk queries work on it unchanged.
+ */
+public final class ApproximateGraphBuilder {
+    /** The default number of sketch rows. */
+    public static final int DEFAULT_DEPTH = 4;
+
+    private final WordDictionary dictionary = new WordDictionary();
+    private final CountMinSketch sketch;
+    private final SpaceSaving heavyHitters;
+    private final long memoryBudget;
+    private final int minWeight;
+    private final int topK;
+    private int tail = -1;
+    private int keptEdges = -1;
+
+    /**
+     * Creates a builder.
+     *
+     * @param memoryBudget The heap bytes for the pair counts, split evenly
+     *                     between the sketch and the heavy hitters.
+     * @param minWeight    The smallest weight an edge must reach to be kept.
+     * @param topK         The maximum number of outgoing edges per word, or 0
+     *                     for no limit.
+     */
+    public ApproximateGraphBuilder(long memoryBudget, int minWeight, int topK) {
+        if (memoryBudget < 2L * (SpaceSaving.OVERHEAD_BYTES + SpaceSaving.ENTRY_BYTES)) {
+            throw new IllegalArgumentException("memoryBudget is too small: " + memoryBudget);
+        }
+        if (minWeight < 1) {
+            throw new IllegalArgumentException("minWeight must be positive: " + minWeight);
+        }
+        if (topK < 0) {
+            throw new IllegalArgumentException("topK must not be negative: " + topK);
+        }
+        this.memoryBudget = memoryBudget;
+        this.minWeight = minWeight;
+        this.topK = topK;
+        long half = memoryBudget / 2;
+        int width = (int) Math.min(1 << 26, Math.max(1, (half - 16) / (8L * DEFAULT_DEPTH)));
+        this.sketch = new CountMinSketch(width, DEFAULT_DEPTH);
+        this.heavyHitters = new SpaceSaving((int) Math.min(1 << 26, (half - SpaceSaving.OVERHEAD_BYTES) / SpaceSaving.ENTRY_BYTES));
+    }
+
+    /**
+     * Counts the pair formed by the previous word and this one.
+     *
+     * @param word The next word of the text.
+     */
+    public void accept(String word) {
+        int id = dictionary.add(word);
+        if (tail >= 0) {
+            long key = LongIntHashMap.pair(tail, id);
+            sketch.add(key);
+            heavyHitters.add(key);
+        }
+        tail = id;
+    }
+
+    /**
+     * Counts the pairs of a text stream, tokenized like
+     * {@link DirectedGraph#readWordsFromFile(String)}.
+     *
+     * @param text The text stream; it is not closed.
+     * @throws IOException If reading fails.
+     */
+    public void ingest(Reader text) throws IOException {
+        new WordTokenizer(this::accept).feed(text).finish();
+    }
+
+    /**
+     * Counts the pairs of a UTF-8 file.
+     *
+     * @param file The file.
+     * @throws IOException If the file cannot be read.
+     */
+    public void ingest(Path file) throws IOException {
+        WordTokenizer.tokenize(file, this::accept);
+    }
+
+    /**
+     * Materializes the pruned graph from the pairs counted so far.
+     *
+     * @return The graph.
+     */
+    public CompactGraph build() {
+        int candidates = heavyHitters.size();
+        int[] sources = new int[candidates];
+        int[] targets = new int[candidates];
+        double[] weights = new double[candidates];
+        int m = 0;
+        for (int entry = 0; entry < candidates; entry++) {
+            long key = heavyHitters.keyAt(entry);
+            long weight = upperBound(entry);
+            if (weight >= minWeight) {
+                sources[m] = LongIntHashMap.pairSource(key);
+                targets[m] = LongIntHashMap.pairTarget(key);
+                weights[m] = weight;
+                m++;
+            }
+        }
+        if (topK > 0) {
+            m = keepTopK(sources, targets, weights, m);
+        }
+        keptEdges = m;
+        return CompactGraph.fromEdges(dictionary.copy(), sources, targets, weights, m);
+    }
+
+    /**
+     * Returns an upper bound on how often a pair occurred.
+     *
+     * @param word1 The first word.
+     * @param word2 The second word.
+     * @return The bound; 0 if a word never occurred.
+     */
+    public long upperBound(String word1, String word2) {
+        int u = dictionary.idOf(word1);
+        int v = dictionary.idOf(word2);
+        if (u < 0 || v < 0) {
+            return 0;
+        }
+        long key = LongIntHashMap.pair(u, v);
+        int entry = heavyHitters.indexOf(key);
+        return entry >= 0 ? upperBound(entry) : Math.min(sketch.estimate(key), heavyHitters.minCount());
+    }
+
+    /**
+     * Returns a lower bound on how often a pair occurred.
+     *
+     * @param word1 The first word.
+     * @param word2 The second word.
+     * @return The bound; 0 if the pair is not monitored.
+     */
+    public long lowerBound(String word1, String word2) {
+        int u = dictionary.idOf(word1);
+        int v = dictionary.idOf(word2);
+        if (u < 0 || v < 0) {
+            return 0;
+        }
+        int entry = heavyHitters.indexOf(LongIntHashMap.pair(u, v));
+        return entry < 0 ? 0 : heavyHitters.countAt(entry) - heavyHitters.errorAt(entry);
+    }
+
+    /**
+     * Returns the number of word pairs counted.
+     *
+     * @return The number of pairs.
+     */
+    public long pairCount() {
+        return sketch.total();
+    }
+
+    /**
+     * Returns the number of distinct words.
+     *
+     * @return The vocabulary size.
+     */
+    public int vocabularySize() {
+        return dictionary.size();
+    }
+
+    /**
+     * Returns the bound on how far a weight exceeds its true count, which
+     * holds for each pair with probability {@code 1 - delta}.
+     *
+     * @return {@code ceil(epsilon * pairCount)}.
+     */
+    public long errorBound() {
+        return (long) Math.ceil(sketch.epsilon() * sketch.total());
+    }
+
+    /**
+     * Returns the relative error of the sketch, {@code e / width}.
+     *
+     * @return The relative error.
+     */
+    public double epsilon() {
+        return sketch.epsilon();
+    }
+
+    /**
+     * Returns the probability that a weight exceeds {@link #errorBound()}.
+     *
+     * @return The failure probability.
+     */
+    public double delta() {
+        return sketch.delta();
+    }
+
+    /**
+     * Returns the count above which a pair is certain to be monitored, and
+     * so to become an edge if its weight passes the thresholds.
+     *
+     * @return {@code pairCount / capacity}.
+     */
+    public long guaranteedWeight() {
+        return sketch.total() / heavyHitters.capacity();
+    }
+
+    /**
+     * Returns the estimated heap bytes of the pair counts, at most the budget.
+     *
+     * @return The estimated number of bytes.
+     */
+    public long estimateBytes() {
+        return sketch.estimateBytes() + heavyHitters.estimateBytes();
+    }
+
+    /**
+     * Describes the counts and their error bounds.
+     *
+     * @return The report.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "approximate graph: words=%d pairs=%d monitored=%d/%d",
+                dictionary.size(), sketch.total(), heavyHitters.size(), heavyHitters.capacity()));
+        if (keptEdges >= 0) {
+            sb.append(" edges=").append(keptEdges);
+        }
+        sb.append(String.format(Locale.ROOT, " memory=%d/%d bytes%n", estimateBytes(), memoryBudget));
+        sb.append(String.format(Locale.ROOT,
+                "weights never undercount; overcount <= %d (epsilon=%.3g) with probability %.4f; "
+                        + "pairs seen more than %d times are always kept%n",
+                errorBound(), epsilon(), 1 - delta(), guaranteedWeight()));
+        return sb.toString();
+    }
+
+    private long upperBound(int entry) {
+        return Math.min(heavyHitters.countAt(entry), sketch.estimate(heavyHitters.keyAt(entry)));
+    }
+
+    /**
+     * Keeps the {@code topK} heaviest outgoing edges of every source in place;
+     * equal weights keep the edge found first.
+     *
+     * @return The number of edges kept.
+     */
+    private int keepTopK(int[] sources, int[] targets, double[] weights, int m) {
+        int n = dictionary.size();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[sources[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        // 按源点分桶，桶内按权重降序，权重相同先出现的在前
+        long[] order = new long[m];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            long weight = (long) Math.min(weights[e], Integer.MAX_VALUE);
+            order[cursor[sources[e]]++] = (Integer.MAX_VALUE - weight) << 32 | e;
+        }
+        boolean[] keep = new boolean[m];
+        for (int v = 0; v < n; v++) {
+            Arrays.sort(order, offsets[v], offsets[v + 1]);
+            int end = Math.min(offsets[v + 1], offsets[v] + topK);
+            for (int i = offsets[v]; i < end; i++) {
+                keep[(int) order[i]] = true;
+            }
+        }
+        int kept = 0;
+        for (int e = 0; e < m; e++) {
+            if (keep[e]) {
+                sources[kept] = sources[e];
+                targets[kept] = targets[e];
+                weights[kept] = weights[e];
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
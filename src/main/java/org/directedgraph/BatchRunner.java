@@ -0,0 +1,165 @@
+package org.directedgraph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a script of {@link QueryCommands} against one snapshot without any
+ * interaction, for pipelines that used to drive the menu.
+ *
+ * <p>Every non-blank line of the script is one command; lines starting with
+ * {@code #} are comments. Besides the query commands a script may say
+ *
+ * <pre>
+ * render FILE [WORD...]
+ * </pre>
+ *
+ * which writes the graph to {@code FILE}, in the format given by its
+ * extension ({@code dot}, {@code svg} or {@code png}), with the path through
+ * the given words highlighted. Rendering can be switched off, in which case
+ * render commands fail.
+ *
+ * <p>Each command produces exactly one output line, {@code ok<TAB>result} or
+ * {@code error<TAB>message}, with backslashes and line breaks inside the text
+ * escaped as {@code \\} and {@code \n}. The lines appear in input order even
+ * when the commands run on several threads: the snapshot is immutable, so
+ * commands are independent, and finished results are written in order with
+ * at most a few commands per thread in flight. Renders share the layout of
+ * the snapshot and run one at a time.
+ */
+public final class BatchRunner {
+    private final GraphSnapshot snapshot;
+    private final int threads;
+    private final boolean renderEnabled;
+    private final Object renderLock = new Object();
+
+    /**
+     * Creates a runner.
+     *
+     * @param snapshot      The graph snapshot every command runs against.
+     * @param threads       The number of worker threads; 1 runs inline.
+     * @param renderEnabled Whether render commands may write files.
+     */
+    public BatchRunner(GraphSnapshot snapshot, int threads, boolean renderEnabled) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.snapshot = snapshot;
+        this.threads = threads;
+        this.renderEnabled = renderEnabled;
+    }
+
+    /**
+     * Runs every command of a script and writes one result line per command.
+     *
+     * @param commands The script; it is not closed.
+     * @param out      The receiver of the results; it is flushed but not closed.
+     * @return The number of commands run.
+     * @throws IOException If reading or writing fails.
+     */
+    public long run(Reader commands, Writer out) throws IOException {
+        BufferedReader reader = commands instanceof BufferedReader ? (BufferedReader) commands : new BufferedReader(commands);
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        int window = threads * 4;
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        long count = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String command = line.trim();
+                if (command.isEmpty() || command.startsWith("#")) {
+                    continue;
+                }
+                count++;
+                if (pool == null) {
+                    out.write(execute(command));
+                    continue;
+                }
+                inFlight.addLast(pool.submit(() -> execute(command)));
+                while (inFlight.size() > window) {
+                    out.write(await(inFlight.removeFirst()));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                out.write(await(inFlight.removeFirst()));
+            }
+            out.flush();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param command The command line.
+     * @return The result line, including its line break.
+     */
+    public String execute(String command) {
+        String result;
+        try {
+            result = "ok\t" + dispatch(command.trim());
+        } catch (IllegalArgumentException e) {
+            result = "error\t" + e.getMessage();
+        } catch (IOException | RuntimeException e) {
+            result = "error\t" + e;
+        }
+        return result.replace("\\", "\\\\").replace("\n", "\\n") + "\n";
+    }
+
+    private String dispatch(String command) throws IOException {
+        String[] args = command.split("\\s+");
+        if (!"render".equals(args[0])) {
+            return QueryCommands.execute(snapshot, command);
+        }
+        if (!renderEnabled) {
+            throw new IllegalArgumentException("Rendering is disabled");
+        }
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Wrong number of arguments for render: 0");
+        }
+        Path file = Paths.get(args[1]);
+        GraphRenderer.Format format = formatOf(file);
+        synchronized (renderLock) {
+            snapshot.highlightPath(Arrays.asList(args).subList(2, args.length), format, file);
+        }
+        return file.toAbsolutePath().toString();
+    }
+
+    private static GraphRenderer.Format formatOf(Path file) {
+        String name = file.getFileName().toString();
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        for (GraphRenderer.Format format : GraphRenderer.Format.values()) {
+            if (format.extension().equals(extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown render format: " + name);
+    }
+
+    private static String await(Future<String> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running commands", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to run a command", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Answers many shortest path queries at once.
+ *
+ * <p>The queries are grouped by source word, so every source costs one
+ * Dijkstra search however many of its targets are asked for; the search stops
+ * once all of them are settled. A source with a single target runs the
+ * bidirectional search instead. The groups are spread over a
+ * {@link ForkJoinPool}, and each result is stored at the index of its query,
+ * so results come back in input order. Only one search per worker thread is
+ * alive at a time.
+ *
+ * <p>Results can be printed as the messages of
+ * {@link DirectedGraph#calcShortestPath(WordGraph, String, String)} or in a
+ * compact numeric form, one line per query: the distance, a tab and the
+ * vertex ids of the path separated by spaces. Unreachable targets have the
+ * distance {@code Infinity} and queries naming an unknown word {@code NaN},
+ * both without ids.
+ */
+public final class BatchShortestPaths {
+    /**
+     * How {@link #write(Stream, Writer, Format)} prints results.
+     */
+    public enum Format {
+        /** The message of the interactive query. */
+        TEXT,
+        /** Distance and vertex ids. */
+        NUMERIC
+    }
+
+    /**
+     * One query: the shortest path from one word to another.
+     */
+    public static final class Pair {
+        private final String word1;
+        private final String word2;
+
+        private Pair(String word1, String word2) {
+            this.word1 = word1;
+            this.word2 = word2;
+        }
+
+        public static Pair of(String word1, String word2) {
+            return new Pair(word1, word2);
+        }
+
+        public String word1() {
+            return word1;
+        }
+
+        public String word2() {
+            return word2;
+        }
+    }
+
+    /**
+     * The answer to one query.
+     */
+    public static final class Result {
+        private final Pair pair;
+        private final boolean known;
+        private final ShortestPath path;
+
+        Result(Pair pair, boolean known, ShortestPath path) {
+            this.pair = pair;
+            this.known = known;
+            this.path = path;
+        }
+
+        public Pair pair() {
+            return pair;
+        }
+
+        /**
+         * Returns the shortest path.
+         *
+         * @return The path, or {@code null} if a word is unknown or the target
+         *         is not reachable.
+         */
+        public ShortestPath path() {
+            return path;
+        }
+
+        /**
+         * Returns the length of the shortest path.
+         *
+         * @return The distance, {@code Infinity} if the target is not
+         *         reachable, or {@code NaN} if a word is not in the graph.
+         */
+        public double distance() {
+            return !known ? Double.NaN : path == null ? Double.POSITIVE_INFINITY : path.length();
+        }
+    }
+
+    private final WordGraph graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a batch runner on the common fork-join pool.
+     *
+     * @param graph The graph to query.
+     */
+    public BatchShortestPaths(WordGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a batch runner.
+     *
+     * @param graph The graph to query.
+     * @param pool  The pool running the searches.
+     */
+    public BatchShortestPaths(WordGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Answers a batch of queries.
+     *
+     * @param pairs The queries.
+     * @return The results, in the order of the queries.
+     */
+    public List<Result> run(Stream<Pair> pairs) {
+        return run(pairs.collect(Collectors.toList()));
+    }
+
+    /**
+     * Answers a batch of queries.
+     *
+     * @param pairs The queries.
+     * @return The results, in the order of the queries.
+     */
+    public List<Result> run(Collection<Pair> pairs) {
+        Pair[] queries = pairs.toArray(new Pair[0]);
+        int count = queries.length;
+        int[] sources = new int[count];
+        int[] targets = new int[count];
+        Result[] results = new Result[count];
+
+        // 按起点分组：先给每个起点编号并计数，再按组把查询下标排好
+        LongIntHashMap groups = new LongIntHashMap();
+        int[] groupOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            sources[i] = graph.idOf(queries[i].word1());
+            targets[i] = graph.idOf(queries[i].word2());
+            if (sources[i] < 0 || targets[i] < 0) {
+                results[i] = new Result(queries[i], false, null);
+                groupOf[i] = -1;
+            } else {
+                groupOf[i] = groups.add(sources[i], 1);
+            }
+        }
+        int groupCount = groups.size();
+        int[] groupStart = new int[groupCount + 1];
+        for (int g = 0; g < groupCount; g++) {
+            groupStart[g + 1] = groupStart[g] + groups.valueAt(g);
+        }
+        int[] order = new int[groupStart[groupCount]];
+        int[] fill = groupStart.clone();
+        for (int i = 0; i < count; i++) {
+            if (groupOf[i] >= 0) {
+                order[fill[groupOf[i]]++] = i;
+            }
+        }
+
+        pool.invoke(new GroupTask(queries, sources, targets, results, order, groupStart, 0, groupCount));
+        List<Result> list = new ArrayList<>(count);
+        for (Result result : results) {
+            list.add(result);
+        }
+        return list;
+    }
+
+    /**
+     * Answers a batch of queries and writes one line per query, in input order.
+     *
+     * @param pairs  The queries.
+     * @param out    The receiver of the results; it is flushed but not closed.
+     * @param format How to print each result.
+     * @throws IOException If writing fails.
+     */
+    public void write(Stream<Pair> pairs, Writer out, Format format) throws IOException {
+        for (Result result : run(pairs)) {
+            out.write(format == Format.TEXT ? describe(result) : numeric(result));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Formats a result as the message of the interactive query.
+     *
+     * @param result The result.
+     * @return The message.
+     */
+    public String describe(Result result) {
+        return DirectedGraph.describeShortestPath(graph, result.pair().word1(), result.pair().word2(), result.path());
+    }
+
+    /**
+     * Formats a result as its distance and the vertex ids of its path.
+     *
+     * @param result The result.
+     * @return The numeric line, without a line separator.
+     */
+    public static String numeric(Result result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(result.distance()).append('\t');
+        if (result.path() != null) {
+            int[] vertices = result.path().vertices();
+            for (int i = 0; i < vertices.length; i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(vertices[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private void answerGroup(Pair[] queries, int[] sources, int[] targets, Result[] results,
+                             int[] order, int from, int to) {
+        int source = sources[order[from]];
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        if (to - from == 1) {
+            int i = order[from];
+            results[i] = new Result(queries[i], true, engine.shortestPath(source, targets[i]));
+            return;
+        }
+        int[] groupTargets = new int[to - from];
+        for (int k = from; k < to; k++) {
+            groupTargets[k - from] = targets[order[k]];
+        }
+        ShortestPathTree tree = engine.search(source, groupTargets);
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            results[i] = new Result(queries[i], true, tree.pathTo(targets[i]));
+        }
+    }
+
+    /**
+     * Answers the groups in a range, splitting it in halves down to single groups.
+     */
+    private final class GroupTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Pair[] queries;
+        private final int[] sources;
+        private final int[] targets;
+        private final Result[] results;
+        private final int[] order;
+        private final int[] groupStart;
+        private final int from;
+        private final int to;
+
+        GroupTask(Pair[] queries, int[] sources, int[] targets, Result[] results,
+                  int[] order, int[] groupStart, int from, int to) {
+            this.queries = queries;
+            this.sources = sources;
+            this.targets = targets;
+            this.results = results;
+            this.order = order;
+            this.groupStart = groupStart;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    answerGroup(queries, sources, targets, results, order, groupStart[from], groupStart[to]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GroupTask(queries, sources, targets, results, order, groupStart, from, middle),
+                    new GroupTask(queries, sources, targets, results, order, groupStart, middle, to));
+        }
+    }
+}
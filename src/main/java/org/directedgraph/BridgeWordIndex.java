@@ -0,0 +1,253 @@
+package org.directedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A precomputed two-hop index answering bridge word queries with one probe.
+ *
+ * <p>For a materialized source word {@code u} the index stores, for every word
+ * {@code w} reachable in two steps, the list of bridge words {@code v} with
+ * edges {@code u -> v -> w}, in the order of the outgoing edges of {@code u}.
+ * The number of stored bridge words is bounded by a budget. Sources are
+ * considered in decreasing out-degree and materialized while their lists fit
+ * in what is left of it, so on a large corpus the biggest hubs such as "the"
+ * are usually the ones that do not fit.
+ *
+ * <p>Queries for the other sources intersect the outgoing neighbors of
+ * {@code u} with the incoming neighbors of {@code w}. Both are kept sorted by
+ * id, and every word of the shorter list is looked up in the longer one by
+ * binary search, so a query costs O(min(out(u), in(w)) log max(out(u),
+ * in(w))) instead of a scan of all successors of the hub. The results always
+ * match {@link WordGraph#findBridgeWords(String, String)}.
+ */
+public final class BridgeWordIndex {
+    /** The default budget of stored bridge words, about 16 MB of ids. */
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 22;
+
+    private final WordGraph graph;
+    private final boolean[] materialized;
+    private final LongIntHashMap pairs;
+    private final int[] starts;
+    private final int[] bridges;
+    private final int[] sortedOutOffsets;
+    private final long[] sortedOut;
+    private final int[] sortedInOffsets;
+    private final int[] sortedIn;
+
+    private BridgeWordIndex(WordGraph graph, boolean[] materialized, LongIntHashMap pairs, int[] starts, int[] bridges) {
+        this.graph = graph;
+        this.materialized = materialized;
+        this.pairs = pairs;
+        this.starts = starts;
+        this.bridges = bridges;
+        int n = graph.vertexCount();
+        // 未物化的源点：出边按目标排序，低 32 位记下原来的边号以恢复出边顺序
+        sortedOutOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            sortedOutOffsets[u + 1] = sortedOutOffsets[u] + (materialized[u] ? 0 : graph.outDegree(u));
+        }
+        sortedOut = new long[sortedOutOffsets[n]];
+        for (int u = 0; u < n; u++) {
+            if (!materialized[u]) {
+                int i = sortedOutOffsets[u];
+                for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                    sortedOut[i++] = (long) graph.target(e) << 32 | e;
+                }
+                Arrays.sort(sortedOut, sortedOutOffsets[u], i);
+            }
+        }
+        sortedInOffsets = new int[n + 1];
+        sortedIn = new int[graph.edgeCount()];
+        for (int w = 0; w < n; w++) {
+            int i = sortedInOffsets[w];
+            for (int in = graph.inStart(w); in < graph.inEnd(w); in++) {
+                sortedIn[i++] = graph.source(in);
+            }
+            Arrays.sort(sortedIn, sortedInOffsets[w], i);
+            sortedInOffsets[w + 1] = i;
+        }
+    }
+
+    /**
+     * Builds the index with the default budget.
+     *
+     * @param graph The graph to index.
+     * @return The index.
+     */
+    public static BridgeWordIndex build(WordGraph graph) {
+        return build(graph, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @param graph      The graph to index.
+     * @param maxEntries The maximum number of bridge words to store.
+     * @return The index.
+     */
+    public static BridgeWordIndex build(WordGraph graph, int maxEntries) {
+        int n = graph.vertexCount();
+        Integer[] order = new Integer[n];
+        long[] twoHopCounts = new long[n];
+        for (int u = 0; u < n; u++) {
+            order[u] = u;
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                twoHopCounts[u] += graph.outDegree(graph.target(e));
+            }
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(graph.outDegree(b), graph.outDegree(a)));
+
+        boolean[] materialized = new boolean[n];
+        LongIntHashMap pairs = new LongIntHashMap();
+        IntList starts = new IntList();
+        IntList bridges = new IntList();
+        int[] counts = new int[n];
+        int[] offsets = new int[n];
+        int[] touched = new int[n];
+        long remaining = maxEntries;
+
+        for (int u : order) {
+            if (twoHopCounts[u] > remaining) {
+                continue;
+            }
+            remaining -= twoHopCounts[u];
+            materialized[u] = true;
+
+            // 第一遍：统计每个两跳目标的桥接词数量
+            int touchedCount = 0;
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                int v = graph.target(e);
+                for (int f = graph.outStart(v); f < graph.outEnd(v); f++) {
+                    int w = graph.target(f);
+                    if (counts[w]++ == 0) {
+                        touched[touchedCount++] = w;
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                int w = touched[i];
+                pairs.add(LongIntHashMap.pair(u, w), 0);
+                starts.add(bridges.size());
+                offsets[w] = bridges.size();
+                bridges.grow(counts[w]);
+                counts[w] = 0;
+            }
+            // 第二遍：按 u 的出边顺序填入桥接词
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                int v = graph.target(e);
+                for (int f = graph.outStart(v); f < graph.outEnd(v); f++) {
+                    bridges.set(offsets[graph.target(f)]++, v);
+                }
+            }
+        }
+        starts.add(bridges.size());
+        return new BridgeWordIndex(graph, materialized, pairs, starts.toArray(), bridges.toArray());
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Finds bridge words between two given words.
+     *
+     * @param word1 The first word.
+     * @param word2 The second word.
+     * @return A list of bridge words, equal to {@code graph().findBridgeWords(word1, word2)}.
+     */
+    public List<String> findBridgeWords(String word1, String word2) {
+        int u = graph.idOf(word1);
+        int w = graph.idOf(word2);
+        if (u < 0 || w < 0) {
+            return new ArrayList<>();
+        }
+        if (!materialized[u]) {
+            return intersect(u, w);
+        }
+        int entry = pairs.indexOf(LongIntHashMap.pair(u, w));
+        if (entry < 0) {
+            return new ArrayList<>();
+        }
+        List<String> bridgeWords = new ArrayList<>(starts[entry + 1] - starts[entry]);
+        for (int i = starts[entry]; i < starts[entry + 1]; i++) {
+            bridgeWords.add(graph.word(bridges[i]));
+        }
+        return bridgeWords;
+    }
+
+    /**
+     * Finds the bridge words of a source that is not materialized by
+     * intersecting its sorted successors with the sorted predecessors of the
+     * target.
+     */
+    private List<String> intersect(int u, int w) {
+        int outFrom = sortedOutOffsets[u];
+        int outTo = sortedOutOffsets[u + 1];
+        int inFrom = sortedInOffsets[w];
+        int inTo = sortedInOffsets[w + 1];
+        IntList edges = new IntList();
+        if (outTo - outFrom <= inTo - inFrom) {
+            for (int i = outFrom; i < outTo; i++) {
+                if (Arrays.binarySearch(sortedIn, inFrom, inTo, (int) (sortedOut[i] >>> 32)) >= 0) {
+                    edges.add((int) sortedOut[i]);
+                }
+            }
+        } else {
+            for (int i = inFrom; i < inTo; i++) {
+                // 第一个目标不小于 v 的位置
+                int position = Arrays.binarySearch(sortedOut, outFrom, outTo, (long) sortedIn[i] << 32);
+                position = position < 0 ? -position - 1 : position;
+                if (position < outTo && (int) (sortedOut[position] >>> 32) == sortedIn[i]) {
+                    edges.add((int) sortedOut[position]);
+                }
+            }
+        }
+        int[] found = edges.toArray();
+        Arrays.sort(found);
+        List<String> bridgeWords = new ArrayList<>(found.length);
+        for (int e : found) {
+            bridgeWords.add(graph.word(graph.target(e)));
+        }
+        return bridgeWords;
+    }
+
+    /**
+     * Returns whether bridge queries from the given word are answered from the index.
+     *
+     * @param word The first word of a query.
+     * @return {@code true} if the word is materialized.
+     */
+    public boolean isMaterialized(String word) {
+        int u = graph.idOf(word);
+        return u >= 0 && materialized[u];
+    }
+
+    /**
+     * Returns the number of stored bridge words.
+     *
+     * @return The number of entries.
+     */
+    public int entryCount() {
+        return bridges.length;
+    }
+
+    public long estimateBytes() {
+        return pairs.estimateBytes() + 16L + 4L * starts.length + 16L + 4L * bridges.length + 16L + materialized.length
+                + 16L + 4L * sortedOutOffsets.length + 16L + 8L * sortedOut.length
+                + 16L + 4L * sortedInOffsets.length + 16L + 4L * sortedIn.length;
+    }
+
+    @Override
+    public String toString() {
+        int sources = 0;
+        for (boolean m : materialized) {
+            if (m) {
+                sources++;
+            }
+        }
+        return "BridgeWordIndex[sources=" + sources + "/" + materialized.length + ", pairs=" + pairs.size()
+                + ", entries=" + bridges.length + "]";
+    }
+}
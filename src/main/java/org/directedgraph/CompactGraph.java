@@ -0,0 +1,266 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+import java.util.List;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+/**
+ * A frozen, read-optimized copy of the word graph.
+ *
+ * <p>Words are interned to int ids in the vertex order of the source graph and
+ * the adjacency is stored in compressed sparse row (CSR) arrays: the outgoing
+ * edges of vertex {@code v} are the indices {@code outStart(v)} to
+ * {@code outEnd(v) - 1} of the target and weight arrays. The incoming edges
+ * use the same layout and point back to their outgoing edge index. Each row
+ * keeps the edge order of the source graph, so queries return the same
+ * results in the same order as the jgrapht versions.
+ */
+public final class CompactGraph implements WordGraph {
+    private final WordDictionary dictionary;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final double[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inEdges;
+
+    private CompactGraph(WordDictionary dictionary, int[] outOffsets, int[] outTargets, double[] outWeights) {
+        this.dictionary = dictionary;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outWeights = outWeights;
+
+        // 通过计数排序构造反向邻接表
+        int n = dictionary.size();
+        int m = outTargets.length;
+        inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            inOffsets[outTargets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        inSources = new int[m];
+        inEdges = new int[m];
+        int[] cursor = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+                int slot = cursor[outTargets[e]]++;
+                inSources[slot] = u;
+                inEdges[slot] = e;
+            }
+        }
+    }
+
+    /**
+     * Freezes a jgrapht word graph into its compact form.
+     *
+     * @param graph The graph to copy.
+     * @return The compact graph.
+     */
+    public static CompactGraph of(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph) {
+        WordDictionary dictionary = new WordDictionary(graph.vertexSet().size());
+        for (String vertex : graph.vertexSet()) {
+            dictionary.add(vertex);
+        }
+        int n = dictionary.size();
+        int m = graph.edgeSet().size();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int e = 0;
+        for (int v = 0; v < n; v++) {
+            offsets[v] = e;
+            for (DefaultWeightedEdge edge : graph.outgoingEdgesOf(dictionary.word(v))) {
+                targets[e] = dictionary.idOf(graph.getEdgeTarget(edge));
+                weights[e] = graph.getEdgeWeight(edge);
+                e++;
+            }
+        }
+        offsets[n] = e;
+        return new CompactGraph(dictionary, offsets, targets, weights);
+    }
+
+    /**
+     * Builds a compact graph from an edge list. Edges of the same source keep
+     * their relative order.
+     *
+     * @param dictionary The vertex dictionary; it must not be modified afterwards.
+     * @param sources    The source id of each edge.
+     * @param targets    The target id of each edge.
+     * @param weights    The weight of each edge.
+     * @param edgeCount  The number of edges to read from the arrays.
+     * @return The compact graph.
+     */
+    static CompactGraph fromEdges(WordDictionary dictionary, int[] sources, int[] targets, double[] weights, int edgeCount) {
+        int n = dictionary.size();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[sources[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] outTargets = new int[edgeCount];
+        double[] outWeights = new double[edgeCount];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < edgeCount; e++) {
+            int slot = cursor[sources[e]]++;
+            outTargets[slot] = targets[e];
+            outWeights[slot] = weights[e];
+        }
+        return new CompactGraph(dictionary, offsets, outTargets, outWeights);
+    }
+
+    public int vertexCount() {
+        return dictionary.size();
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * Returns the id of a word.
+     *
+     * @param word The word.
+     * @return The vertex id, or -1 if the word is not in the graph.
+     */
+    public int idOf(String word) {
+        return dictionary.idOf(word);
+    }
+
+    public String word(int id) {
+        return dictionary.word(id);
+    }
+
+    public int outStart(int v) {
+        return outOffsets[v];
+    }
+
+    public int outEnd(int v) {
+        return outOffsets[v + 1];
+    }
+
+    public int outDegree(int v) {
+        return outOffsets[v + 1] - outOffsets[v];
+    }
+
+    public int target(int edge) {
+        return outTargets[edge];
+    }
+
+    public double weight(int edge) {
+        return outWeights[edge];
+    }
+
+    public int inStart(int v) {
+        return inOffsets[v];
+    }
+
+    public int inEnd(int v) {
+        return inOffsets[v + 1];
+    }
+
+    public int inDegree(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    public int source(int inEdge) {
+        return inSources[inEdge];
+    }
+
+    /**
+     * Returns the outgoing edge index that an incoming edge refers to.
+     *
+     * @param inEdge The incoming edge index.
+     * @return The outgoing edge index.
+     */
+    public int inEdge(int inEdge) {
+        return inEdges[inEdge];
+    }
+
+    public double inWeight(int inEdge) {
+        return outWeights[inEdges[inEdge]];
+    }
+
+    /**
+     * Returns the index of the edge from {@code u} to {@code v}, scanning the
+     * shorter of the two adjacency rows.
+     *
+     * @param u The source id.
+     * @param v The target id.
+     * @return The outgoing edge index, or -1 if there is no such edge.
+     */
+    public int edgeIndex(int u, int v) {
+        if (outDegree(u) <= inDegree(v)) {
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+                if (outTargets[e] == v) {
+                    return e;
+                }
+            }
+            return -1;
+        }
+        for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+            if (inSources[i] == u) {
+                return inEdges[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Estimates the heap bytes of this graph, excluding the word strings.
+     *
+     * @return The estimated number of bytes.
+     */
+    public long estimateBytes() {
+        return dictionary.estimateBytes()
+                + 2 * (16L + 4L * outOffsets.length)
+                + 3 * (16L + 4L * outTargets.length)
+                + 16L + 8L * outWeights.length;
+    }
+
+    /**
+     * Estimates the heap bytes of a jgrapht word graph, excluding the word
+     * strings, assuming a 64-bit JVM with compressed references. Each vertex
+     * costs a map entry and an edge container with two edge lists, each edge
+     * costs an edge object, a map entry and one slot in two edge lists.
+     *
+     * @param graph The graph to measure.
+     * @return The estimated number of bytes.
+     */
+    public static long estimateBytes(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph) {
+        long vertices = graph.vertexSet().size();
+        long edges = graph.edgeSet().size();
+        long perVertex = 40 + 4 + 16 + 2 * (24 + 16 + 16);
+        long perEdge = 32 + 40 + 4 + 2 * 4;
+        return vertices * perVertex + edges * perEdge;
+    }
+
+    /**
+     * Builds a human-readable report comparing the memory footprint of a
+     * jgrapht graph with its compact form.
+     *
+     * @param graph   The jgrapht graph.
+     * @param compact The compact form of the same graph.
+     * @return The report.
+     */
+    public static String footprintReport(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph, CompactGraph compact) {
+        long stringBytes = 0;
+        for (String vertex : graph.vertexSet()) {
+            stringBytes += 24 + 16 + vertex.length() * 2L;
+        }
+        long jgraphtBytes = estimateBytes(graph);
+        long compactBytes = compact.estimateBytes();
+        StringBuilder sb = new StringBuilder();
+        sb.append("vertices: ").append(compact.vertexCount())
+                .append(", edges: ").append(compact.edgeCount()).append("\n");
+        sb.append("jgrapht structure: ").append(jgraphtBytes).append(" bytes\n");
+        sb.append("compact structure: ").append(compactBytes).append(" bytes\n");
+        sb.append("word strings (shared): ").append(stringBytes).append(" bytes\n");
+        sb.append(String.format("ratio: %.2fx", compactBytes == 0 ? 0.0 : (double) jgraphtBytes / compactBytes));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package org.directedgraph;
+
+/**
+ * A count-min sketch over {@code long} keys with conservative update.
+ *
+ * <p>Each of {@code depth} rows hashes a key to one of {@code width} counters.
+ * An estimate is the smallest of its counters, so it never falls below the
+ * true count, and with probability at least {@code 1 - e^-depth} it exceeds
+ * it by at most {@code e / width} times the total count. Conservative update
+ * only raises the counters that hold the current minimum, which keeps the
+ * same guarantee with smaller errors.
+ */
+final class CountMinSketch {
+    private final int depth;
+    private final int mask;
+    private final long[] counters;
+    private long total;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param width The counters per row; rounded down to a power of two.
+     * @param depth The number of rows.
+     */
+    CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("width and depth must be positive: " + width + ", " + depth);
+        }
+        this.depth = depth;
+        int w = Integer.highestOneBit(width);
+        this.mask = w - 1;
+        this.counters = new long[w * depth];
+    }
+
+    int width() {
+        return mask + 1;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    long total() {
+        return total;
+    }
+
+    /**
+     * Counts one occurrence of a key.
+     *
+     * @return The new estimate of the key.
+     */
+    long add(long key) {
+        total++;
+        long estimate = estimate(key) + 1;
+        int width = mask + 1;
+        for (int row = 0; row < depth; row++) {
+            int slot = row * width + slot(key, row);
+            if (counters[slot] < estimate) {
+                counters[slot] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns an upper bound on the count of a key.
+     */
+    long estimate(long key) {
+        long min = Long.MAX_VALUE;
+        int width = mask + 1;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + slot(key, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * Returns {@code e / width}, the relative error bound of an estimate.
+     */
+    double epsilon() {
+        return Math.E / (mask + 1);
+    }
+
+    /**
+     * Returns {@code e^-depth}, the probability that an estimate exceeds the bound.
+     */
+    double delta() {
+        return Math.exp(-depth);
+    }
+
+    long estimateBytes() {
+        return 16L + 8L * counters.length;
+    }
+
+    private int slot(long key, int row) {
+        // 每行用不同的种子打散同一个键
+        return LongIntHashMap.mix(key + (row + 1) * 0x9E3779B97F4A7C15L) & mask;
+    }
+}
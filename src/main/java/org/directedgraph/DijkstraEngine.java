@@ -0,0 +1,246 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+
+/**
+ * Shortest path searches over a {@link WordGraph}.
+ *
+ * <p>All searches use an {@link IndexedMinHeap} that is filled lazily as
+ * vertices are reached, so each relaxation costs O(log V) instead of the
+ * O(V) {@code PriorityQueue.remove} of the original implementation.
+ * Point-to-point queries run a bidirectional search over the forward and
+ * reverse adjacency that stops as soon as the two frontiers can no longer
+ * improve the best meeting point, or, when the engine has a
+ * {@link LandmarkIndex}, an A* search guided by the landmark bounds. The
+ * engine holds no per-query state and can be shared between threads. Each
+ * search counts its settled vertices and scanned edges in locals and reports
+ * them to {@link GraphMetrics} once.
+ */
+public final class DijkstraEngine {
+    private final WordGraph graph;
+    private final LandmarkIndex landmarks;
+
+    public DijkstraEngine(WordGraph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Creates an engine whose point-to-point searches use landmark bounds.
+     *
+     * @param graph     The graph to search.
+     * @param landmarks The landmark index of the graph, or {@code null} for
+     *                  plain bidirectional searches.
+     */
+    public DijkstraEngine(WordGraph graph, LandmarkIndex landmarks) {
+        if (landmarks != null && landmarks.graph() != graph) {
+            throw new IllegalArgumentException("The landmark index belongs to another graph");
+        }
+        this.graph = graph;
+        this.landmarks = landmarks;
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Computes the shortest path tree of a source vertex.
+     *
+     * @param source The source vertex id.
+     * @return The tree holding the distances and parents of every vertex.
+     */
+    public ShortestPathTree shortestPathTree(int source) {
+        return search(source, -1);
+    }
+
+    /**
+     * Runs a forward search from a source vertex, stopping once the target is
+     * settled. Vertices not settled at that point may have non-final distances.
+     *
+     * @param source The source vertex id.
+     * @param target The target vertex id, or -1 to settle every reachable vertex.
+     * @return The (partial) shortest path tree.
+     */
+    public ShortestPathTree search(int source, int target) {
+        return search(source, target >= 0 ? new int[] {target} : null);
+    }
+
+    /**
+     * Runs a forward search from a source vertex, stopping once every target
+     * is settled. Vertices not settled at that point may have non-final
+     * distances.
+     *
+     * @param source  The source vertex id.
+     * @param targets The target vertex ids, or {@code null} to settle every
+     *                reachable vertex.
+     * @return The (partial) shortest path tree.
+     */
+    public ShortestPathTree search(int source, int[] targets) {
+        int n = graph.vertexCount();
+        double[] distances = new double[n];
+        int[] parents = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        distances[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+        long settled = 0;
+        long relaxed = 0;
+
+        // 还没确定距离的目标个数，减到 0 时提前结束
+        boolean[] pending = null;
+        int remaining = 0;
+        if (targets != null) {
+            pending = new boolean[n];
+            for (int target : targets) {
+                if (!pending[target]) {
+                    pending[target] = true;
+                    remaining++;
+                }
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled++;
+            if (pending != null && pending[current] && --remaining == 0) {
+                break;
+            }
+            double base = distances[current];
+            relaxed += graph.outDegree(current);
+            for (int e = graph.outStart(current); e < graph.outEnd(current); e++) {
+                int neighbor = graph.target(e);
+                double newDist = base + graph.weight(e);
+                if (newDist < distances[neighbor]) {
+                    distances[neighbor] = newDist;
+                    parents[neighbor] = current;
+                    heap.insertOrDecrease(neighbor, newDist);
+                }
+            }
+        }
+        GraphMetrics.dijkstraSearch(settled, relaxed);
+        return new ShortestPathTree(graph, source, distances, parents);
+    }
+
+    /**
+     * Finds every shortest path between two vertices, as a DAG of tight
+     * predecessors. The search stops once the target is settled.
+     *
+     * @param source The source vertex id.
+     * @param target The target vertex id.
+     * @return The DAG of shortest paths; empty if the target is not reachable.
+     */
+    public ShortestPathDag shortestPathDag(int source, int target) {
+        return ShortestPathDag.of(search(source, target), target);
+    }
+
+    /**
+     * Finds a shortest path between two vertices with bidirectional Dijkstra,
+     * or with landmark A* if the engine has a landmark index.
+     *
+     * @param source The source vertex id.
+     * @param target The target vertex id.
+     * @return The shortest path, or {@code null} if the target is not reachable.
+     */
+    public ShortestPath shortestPath(int source, int target) {
+        if (landmarks != null) {
+            return landmarks.shortestPath(source, target);
+        }
+        if (source == target) {
+            return new ShortestPath(new int[] {source}, 0.0);
+        }
+        int n = graph.vertexCount();
+        double[] forward = new double[n];
+        double[] backward = new double[n];
+        int[] forwardParents = new int[n];
+        int[] backwardParents = new int[n];
+        Arrays.fill(forward, Double.POSITIVE_INFINITY);
+        Arrays.fill(backward, Double.POSITIVE_INFINITY);
+        Arrays.fill(forwardParents, -1);
+        Arrays.fill(backwardParents, -1);
+        IndexedMinHeap forwardHeap = new IndexedMinHeap(n);
+        IndexedMinHeap backwardHeap = new IndexedMinHeap(n);
+        forward[source] = 0.0;
+        backward[target] = 0.0;
+        forwardHeap.insertOrDecrease(source, 0.0);
+        backwardHeap.insertOrDecrease(target, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        long settled = 0;
+        long relaxed = 0;
+        // 两个方向的堆顶之和不小于当前最优值时，最优路径已经确定
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()
+                && forwardHeap.minKey() + backwardHeap.minKey() < best) {
+            if (forwardHeap.size() <= backwardHeap.size()) {
+                int current = forwardHeap.poll();
+                settled++;
+                relaxed += graph.outDegree(current);
+                for (int e = graph.outStart(current); e < graph.outEnd(current); e++) {
+                    int neighbor = graph.target(e);
+                    double newDist = forward[current] + graph.weight(e);
+                    if (newDist < forward[neighbor]) {
+                        forward[neighbor] = newDist;
+                        forwardParents[neighbor] = current;
+                        forwardHeap.insertOrDecrease(neighbor, newDist);
+                        if (newDist + backward[neighbor] < best) {
+                            best = newDist + backward[neighbor];
+                            meeting = neighbor;
+                        }
+                    }
+                }
+            } else {
+                int current = backwardHeap.poll();
+                settled++;
+                relaxed += graph.inDegree(current);
+                for (int i = graph.inStart(current); i < graph.inEnd(current); i++) {
+                    int neighbor = graph.source(i);
+                    double newDist = backward[current] + graph.inWeight(i);
+                    if (newDist < backward[neighbor]) {
+                        backward[neighbor] = newDist;
+                        backwardParents[neighbor] = current;
+                        backwardHeap.insertOrDecrease(neighbor, newDist);
+                        if (forward[neighbor] + newDist < best) {
+                            best = forward[neighbor] + newDist;
+                            meeting = neighbor;
+                        }
+                    }
+                }
+            }
+        }
+        GraphMetrics.dijkstraSearch(settled, relaxed);
+
+        if (meeting < 0) {
+            return null;
+        }
+        int length = 1;
+        for (int at = meeting; at != source; at = forwardParents[at]) {
+            length++;
+        }
+        for (int at = meeting; at != target; at = backwardParents[at]) {
+            length++;
+        }
+        int[] vertices = new int[length];
+        int i = 0;
+        for (int at = meeting; ; at = forwardParents[at]) {
+            vertices[i++] = at;
+            if (at == source) {
+                break;
+            }
+        }
+        reverse(vertices, 0, i);
+        for (int at = meeting; at != target; ) {
+            at = backwardParents[at];
+            vertices[i++] = at;
+        }
+        return new ShortestPath(vertices, best);
+    }
+
+    private static void reverse(int[] values, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -7,27 +7,37 @@ import com.mxgraph.util.mxCellRenderer;
 import com.mxgraph.util.mxConstants;
 import com.mxgraph.view.mxStylesheet;
 import java.awt.Color;
+import java.awt.GraphicsEnvironment;
 import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import javax.imageio.ImageIO;
 import javax.swing.JFrame;
 import org.jgrapht.ext.JGraphXAdapter;
@@ -42,21 +52,127 @@ import org.jgrapht.graph.DefaultWeightedEdge;
  */
 public class DirectedGraph {
     private static DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> Graph;
+    private static volatile WordGraph compactGraph;
+    private static final ShortestPathCache shortestPathCache = new ShortestPathCache(64);
+    private static GraphRegistry registry = new GraphRegistry(Long.MAX_VALUE);
+    private static boolean bridgeWordIndexEnabled;
+    private static BridgeWordIndex bridgeWordIndex;
+    private static GraphRenderer graphRenderer;
+    private static RandomWalkEngine randomWalkEngine;
+    private static int landmarkCount;
+    private static volatile PathIndexes pathIndexes;
+    private static NextWordPredictor nextWordPredictor;
+    private static final Map<WordCentrality.Measure, WordCentrality.Ranking> rankings = new EnumMap<>(WordCentrality.Measure.class);
+    private static final SubgraphExtractor PATH_VIEW = new SubgraphExtractor(1, 0.0, 1, 200);
+    private static int renderVertexLimit = 500;
+    private static int renderHops = 2;
+    private static List<String> neighborhoodWords = Collections.emptyList();
+    private static boolean headless = GraphicsEnvironment.isHeadless();
+    private static boolean guiEnabled = true;
+    private static GraphRenderer.Format renderFormat = GraphRenderer.Format.SVG;
     private static final Scanner scanner = new Scanner(new
             InputStreamReader(System.in, StandardCharsets.UTF_8));
     private static final Random random = new Random();
 
     /**
      * The main method that drives the program. It presents a menu to the user
-     * to select different functionalities of the directed graph.
+     * to select different functionalities of the directed graph, or with
+     * {@code --batch} runs a command script without prompts instead, see
+     * {@link #runBatch(String, int)}.
      *
      * @param args Command line arguments.
      * @throws IOException If there is an error in reading the file or writing the output.
      */
     public static void main(String[] args) throws IOException {
         String fileName = "input.txt";
-        List<String> words = readWordsFromFile(fileName);
-        Graph = buildGraph(words);
+        String graphFileName = null;
+        boolean allShortestPaths = false;
+        Map<String, String> corpora = new LinkedHashMap<>();
+        String graphName = null;
+        long memoryBudget = Long.MAX_VALUE;
+        long approximateBudget = 0;
+        int minWeight = 2;
+        int topK = 0;
+        String batchFileName = null;
+        int parallelism = 1;
+        for (String arg : args) {
+            if (arg.startsWith("--graph-file=")) {
+                graphFileName = arg.substring("--graph-file=".length());
+            } else if ("--bridge-index".equals(arg)) {
+                setBridgeWordIndexEnabled(true);
+            } else if (arg.startsWith("--corpus=")) {
+                // --corpus=名字=文件
+                String spec = arg.substring("--corpus=".length());
+                int eq = spec.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected --corpus=NAME=FILE: " + arg);
+                }
+                corpora.put(spec.substring(0, eq), spec.substring(eq + 1));
+            } else if (arg.startsWith("--graph=")) {
+                graphName = arg.substring("--graph=".length());
+            } else if (arg.startsWith("--memory-budget=")) {
+                memoryBudget = Long.parseLong(arg.substring("--memory-budget=".length())) << 20;
+            } else if (arg.startsWith("--approximate=")) {
+                // 近似构图，参数是计数用的内存（MB）
+                approximateBudget = Long.parseLong(arg.substring("--approximate=".length())) << 20;
+            } else if (arg.startsWith("--min-weight=")) {
+                minWeight = Integer.parseInt(arg.substring("--min-weight=".length()));
+            } else if (arg.startsWith("--top-k=")) {
+                topK = Integer.parseInt(arg.substring("--top-k=".length()));
+            } else if (arg.startsWith("--landmarks=")) {
+                setLandmarkCount(Integer.parseInt(arg.substring("--landmarks=".length())));
+            } else if ("--all-shortest-paths".equals(arg)) {
+                allShortestPaths = true;
+            } else if ("--headless".equals(arg)) {
+                setHeadless(true);
+            } else if ("--batch".equals(arg)) {
+                // 从标准输入读命令
+                batchFileName = "-";
+            } else if (arg.startsWith("--batch=")) {
+                batchFileName = arg.substring("--batch=".length());
+            } else if (arg.startsWith("--parallel=")) {
+                parallelism = Integer.parseInt(arg.substring("--parallel=".length()));
+            } else if ("--no-gui".equals(arg)) {
+                setGuiEnabled(false);
+            } else if (arg.startsWith("--render-limit=")) {
+                setRenderVertexLimit(Integer.parseInt(arg.substring("--render-limit=".length())));
+            } else if (arg.startsWith("--render-hops=")) {
+                setRenderHops(Integer.parseInt(arg.substring("--render-hops=".length())));
+            } else if (arg.startsWith("--neighborhood=")) {
+                // 展示有向图时只画这些词的邻域，逗号分隔
+                neighborhoodWords = splitWords(arg.substring("--neighborhood=".length()).replace(',', ' '));
+            } else if (arg.startsWith("--render-format=")) {
+                setRenderFormat(GraphRenderer.Format.valueOf(arg.substring("--render-format=".length()).toUpperCase(Locale.ROOT)));
+            } else if ("--metrics".equals(arg)) {
+                GraphMetrics.setEnabled(true);
+                GraphMetrics.registerMBeans();
+            } else if (arg.startsWith("--metrics-report=")) {
+                // 每隔若干秒把指标写入 metrics.txt
+                GraphMetrics.setEnabled(true);
+                GraphMetrics.registerMBeans();
+                GraphMetrics.startReporter(Paths.get("metrics.txt"), Long.parseLong(arg.substring("--metrics-report=".length())), TimeUnit.SECONDS);
+            }
+        }
+        if (!corpora.isEmpty()) {
+            setRegistry(new GraphRegistry(memoryBudget));
+            for (Map.Entry<String, String> corpus : corpora.entrySet()) {
+                registry.registerCorpus(corpus.getKey(), Paths.get(corpus.getValue()));
+            }
+            useGraph(graphName != null ? graphName : corpora.keySet().iterator().next());
+        } else if (approximateBudget > 0) {
+            ApproximateGraphBuilder builder = new ApproximateGraphBuilder(approximateBudget, minWeight, topK);
+            setGraph(buildApproximateGraph(builder, fileName));
+            // 批处理模式的标准输出只留给命令结果
+            (batchFileName != null ? System.err : System.out).print(builder.report());
+        } else if (graphFileName == null) {
+            setGraph(buildGraphFromFile(fileName));
+        } else {
+            loadGraphFile(fileName, graphFileName);
+        }
+        if (batchFileName != null) {
+            runBatch(batchFileName, parallelism);
+            return;
+        }
 
         while (true) {
             System.out.println("请选择功能：");
@@ -65,26 +181,39 @@ public class DirectedGraph {
             System.out.println("3. 生成新文本");
             System.out.println("4. 计算最短路径");
             System.out.println("5. 随机游走");
-            System.out.println("6. 退出");
+            System.out.println("6. 单词排名");
+            System.out.println("7. 预测下一个词");
+            System.out.println("8. 退出");
 
             String choice = scanner.nextLine();
 
             switch (choice) {
                 case "1":
-                    showDirectedGraph(Graph);
+                    List<String> centerWords = neighborhoodWords;
+                    int vertexCount = compactGraph().vertexCount();
+                    if (centerWords.isEmpty() && vertexCount > renderVertexLimit && isGuiEnabled()) {
+                        System.out.println("图中有 " + vertexCount + " 个单词，超过绘制上限 " + renderVertexLimit
+                                + "。请输入要展示的中心单词（空格分隔，直接回车展示出边权重最大的单词）：");
+                        centerWords = splitWords(scanner.nextLine());
+                    }
+                    showGraph(centerWords);
                     break;
                 case "2":
                     System.out.println("请输入第一个单词：");
                     String word1 = scanner.nextLine();
                     System.out.println("请输入第二个单词：");
                     String word2 = scanner.nextLine();
-                    String bridgeWordsResult = queryBridgeWords(Graph, word1, word2);
+                    String bridgeWordsResult = bridgeWordIndexEnabled
+                            ? queryBridgeWords(bridgeWordIndex(), word1, word2)
+                            : Graph == null ? queryBridgeWords(compactGraph(), word1, word2) : queryBridgeWords(Graph, word1, word2);
                     System.out.println(bridgeWordsResult);
                     break;
                 case "3":
                     System.out.println("请输入文本：");
                     String inputText = scanner.nextLine();
-                    String newText = generateNewText(Graph, inputText);
+                    String newText = bridgeWordIndexEnabled
+                            ? generateNewText(bridgeWordIndex(), inputText)
+                            : Graph == null ? generateNewText(compactGraph(), inputText) : generateNewText(Graph, inputText);
                     System.out.println("New text with bridge words: " + newText);
                     break;
                 case "4":
@@ -92,14 +221,30 @@ public class DirectedGraph {
                     word1 = scanner.nextLine();
                     System.out.println("请输入目标单词：");
                     word2 = scanner.nextLine();
-                    String shortestPathResult = calcShortestPath(word1, word2);
+                    String shortestPathResult = allShortestPaths && !word1.isEmpty() && !word2.isEmpty()
+                            ? calcEqualShortestPaths(word1, word2, 20)
+                            : calcShortestPath(word1, word2);
                     System.out.println(shortestPathResult);
                     break;
                 case "5":
-                    String randomWalkResult = randomWalk(Graph);
+                    String randomWalkResult = randomWalk(randomWalkEngine());
                     System.out.println(randomWalkResult);
                     break;
                 case "6":
+                    System.out.println("请输入排名方式（pagerank/in/out，默认 pagerank）：");
+                    String measure = scanner.nextLine().trim();
+                    try {
+                        System.out.println(rankWords(measure.isEmpty() ? WordCentrality.Measure.PAGE_RANK : WordCentrality.Measure.parse(measure), 20));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("无效的排名方式：" + measure);
+                    }
+                    break;
+                case "7":
+                    System.out.println("请输入单词：");
+                    String previousWord = scanner.nextLine().trim();
+                    System.out.println(predictNextWords(previousWord, 10));
+                    break;
+                case "8":
                     System.out.println("退出程序。");
                     scanner.close();
                     System.exit(0);
@@ -109,6 +254,39 @@ public class DirectedGraph {
         }
     }
 
+    /**
+     * Runs a command script against the current graph and writes the results
+     * to standard output, see {@link BatchRunner}.
+     *
+     * @param fileName The script file, or {@code -} for standard input.
+     * @param threads  The number of worker threads.
+     * @throws IOException If the script cannot be read.
+     */
+    public static void runBatch(String fileName, int threads) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        if ("-".equals(fileName)) {
+            runBatch(new InputStreamReader(System.in, StandardCharsets.UTF_8), out, threads);
+        } else {
+            try (Reader commands = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+                runBatch(commands, out, threads);
+            }
+        }
+    }
+
+    /**
+     * Runs a command script against a snapshot of the current graph. Render
+     * commands are refused while the GUI is turned off.
+     *
+     * @param commands The script; it is not closed.
+     * @param out      The receiver of the results, one line per command.
+     * @param threads  The number of worker threads.
+     * @return The number of commands run.
+     * @throws IOException If reading or writing fails.
+     */
+    public static long runBatch(Reader commands, Writer out, int threads) throws IOException {
+        return new BatchRunner(new GraphSnapshot(0, compactGraph()), threads, isGuiEnabled()).run(commands, out);
+    }
+
     /**
      * Reads words from the specified file.
      *
@@ -117,18 +295,70 @@ public class DirectedGraph {
      */
     public static List<String> readWordsFromFile(String fileName) {
         List<String> words = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] tokens = line.replaceAll("[^a-zA-Z ]", " ").toLowerCase().split("\\s+");
-                words.addAll(Arrays.asList(tokens));
-            }
+        try {
+            WordTokenizer.tokenize(Paths.get(fileName), words::add);
         } catch (IOException e) {
             e.printStackTrace();
         }
         return words;
     }
 
+    /**
+     * Builds a directed weighted graph straight from a file, streaming each
+     * word pair into the graph without materializing the word list.
+     *
+     * @param fileName The name of the file to read words from.
+     * @return A directed weighted graph, identical to
+     *         {@code buildGraph(readWordsFromFile(fileName))}.
+     * @throws IOException If the file cannot be read.
+     */
+    public static DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> buildGraphFromFile(String fileName) throws IOException {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+            String[] previous = new String[1];
+            long[] count = new long[1];
+            WordTokenizer.tokenize(Paths.get(fileName), word -> {
+                if (count[0]++ > 0) {
+                    addBigram(graph, previous[0], word);
+                }
+                previous[0] = word;
+            });
+            if (count[0] == 1) {
+                graph.addVertex(previous[0]);
+            }
+            failed = false;
+            return graph;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.BUILD_GRAPH, start, failed);
+        }
+    }
+
+    /**
+     * Builds a pruned graph from a file whose bigram counts do not fit in
+     * memory, see {@link ApproximateGraphBuilder}.
+     *
+     * @param builder  The builder holding the memory budget and thresholds;
+     *                 its {@link ApproximateGraphBuilder#report()} describes
+     *                 the error bounds afterwards.
+     * @param fileName The name of the file to read words from.
+     * @return The pruned graph.
+     * @throws IOException If the file cannot be read.
+     */
+    public static CompactGraph buildApproximateGraph(ApproximateGraphBuilder builder, String fileName) throws IOException {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            builder.ingest(Paths.get(fileName));
+            CompactGraph graph = builder.build();
+            failed = false;
+            return graph;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.BUILD_GRAPH, start, failed);
+        }
+    }
+
     /**
      * Builds a directed weighted graph from a list of words.
      *
@@ -137,38 +367,83 @@ public class DirectedGraph {
      */
     // 构建加权有向图
     public static DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> buildGraph(List<String> words) {
-        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
-        for (int i = 0; i < words.size() - 1; i++) {
-            String currentWord = words.get(i);
-            String nextWord = words.get(i + 1);
-            if (!graph.containsVertex(currentWord)) {
-                graph.addVertex(currentWord);
-            }
-            if (!graph.containsVertex(nextWord)) {
-                graph.addVertex(nextWord);
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+            for (int i = 0; i < words.size() - 1; i++) {
+                addBigram(graph, words.get(i), words.get(i + 1));
             }
-            DefaultWeightedEdge edge = graph.getEdge(currentWord, nextWord);
-            if (edge == null) {
-                edge = graph.addEdge(currentWord, nextWord);
-                graph.setEdgeWeight(edge, 1.0);  // 初始权重设为1
-            } else {
-                double currentWeight = graph.getEdgeWeight(edge);
-                graph.setEdgeWeight(edge, currentWeight + 1.0);  // 权重加1
+            if(words.size() == 1) {
+                graph.addVertex(words.get(0));
             }
+            failed = false;
+            return graph;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.BUILD_GRAPH, start, failed);
+        }
+    }
+
+    /**
+     * Builds a directed weighted graph from a list of words using several threads.
+     *
+     * @param words   The list of words to build the graph from.
+     * @param threads The number of worker threads.
+     * @return A directed weighted graph, identical to {@code buildGraph(words)}.
+     */
+    public static DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> buildGraph(List<String> words, int threads) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> result = new ParallelGraphBuilder(threads).buildGraph(words);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.BUILD_GRAPH, start, failed);
+        }
+    }
+
+    /**
+     * Adds one occurrence of the word pair to the graph.
+     *
+     * @param graph       The graph to update.
+     * @param currentWord The source word.
+     * @param nextWord    The target word.
+     */
+    static void addBigram(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph, String currentWord, String nextWord) {
+        if (!graph.containsVertex(currentWord)) {
+            graph.addVertex(currentWord);
         }
-        if(words.size() == 1) {
-            graph.addVertex(words.get(0));
+        if (!graph.containsVertex(nextWord)) {
+            graph.addVertex(nextWord);
+        }
+        DefaultWeightedEdge edge = graph.getEdge(currentWord, nextWord);
+        if (edge == null) {
+            edge = graph.addEdge(currentWord, nextWord);
+            graph.setEdgeWeight(edge, 1.0);  // 初始权重设为1
+        } else {
+            double currentWeight = graph.getEdgeWeight(edge);
+            graph.setEdgeWeight(edge, currentWeight + 1.0);  // 权重加1
         }
-        return graph;
     }
 
     /**
      * Displays the directed graph using JGraphX and saves it as an image file.
+     * In headless mode the graph is only written to a file, in the background.
      *
      * @param graph The directed graph to display.
      * @throws IOException If there is an error in saving the image file.
      */
     public static void showDirectedGraph(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph) throws IOException {
+        if (!isGuiEnabled()) {
+            System.out.println("图形界面已关闭。");
+            return;
+        }
+        if (isHeadless()) {
+            GraphRenderer renderer = graph == Graph ? renderer() : new GraphRenderer(CompactGraph.of(graph));
+            renderInBackground(renderer, Collections.<List<String>>emptyList(), "graph");
+            return;
+        }
         JGraphXAdapter<String, DefaultWeightedEdge> graphAdapter = new JGraphXAdapter<>(graph);
 
         // 为每条边设置标签为边的权重
@@ -237,16 +512,73 @@ public class DirectedGraph {
      * @return A message describing the bridge words between the two given words.
      */
     public static String queryBridgeWords(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph, String word1, String word2) {
-        if (!graph.containsVertex(word1) && !graph.containsVertex(word2)) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String missing = describeMissingWords(word1, graph.containsVertex(word1), word2, graph.containsVertex(word2));
+            String result = missing != null ? missing : describeBridgeWords(word1, word2, findBridgeWords(graph, word1, word2));
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.QUERY_BRIDGE_WORDS, start, failed);
+        }
+    }
+
+    /**
+     * Queries and returns bridge words between two given words of a compact graph.
+     *
+     * @param graph The compact graph.
+     * @param word1 The first word.
+     * @param word2 The second word.
+     * @return A message describing the bridge words between the two given words.
+     */
+    public static String queryBridgeWords(WordGraph graph, String word1, String word2) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String missing = describeMissingWords(word1, graph.containsWord(word1), word2, graph.containsWord(word2));
+            String result = missing != null ? missing : describeBridgeWords(word1, word2, graph.findBridgeWords(word1, word2));
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.QUERY_BRIDGE_WORDS, start, failed);
+        }
+    }
+
+    /**
+     * Queries and returns bridge words between two given words using a bridge word index.
+     *
+     * @param index The bridge word index.
+     * @param word1 The first word.
+     * @param word2 The second word.
+     * @return A message describing the bridge words between the two given words.
+     */
+    public static String queryBridgeWords(BridgeWordIndex index, String word1, String word2) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            WordGraph graph = index.graph();
+            String missing = describeMissingWords(word1, graph.containsWord(word1), word2, graph.containsWord(word2));
+            String result = missing != null ? missing : describeBridgeWords(word1, word2, index.findBridgeWords(word1, word2));
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.QUERY_BRIDGE_WORDS, start, failed);
+        }
+    }
+
+    private static String describeMissingWords(String word1, boolean hasWord1, String word2, boolean hasWord2) {
+        if (!hasWord1 && !hasWord2) {
             return "No \"" + word1 + "\" and \"" + word2 + "\" in the graph!";
-        } else if (!graph.containsVertex(word1)) {
+        } else if (!hasWord1) {
             return "No \"" + word1 + "\" in the graph!";
-        } else if (!graph.containsVertex(word2)) {
+        } else if (!hasWord2) {
             return "No \"" + word2 + "\" in the graph!";
         }
+        return null;
+    }
 
-        List<String> bridgeWords = findBridgeWords(graph, word1, word2);
-
+    private static String describeBridgeWords(String word1, String word2, List<String> bridgeWords) {
         if (bridgeWords.isEmpty()) {
             return "No bridge words from \"" + word1 + "\" to \"" + word2 + "\"!";
         } else {
@@ -263,8 +595,7 @@ public class DirectedGraph {
                         sb.append(", ");
                     }
                 }
-                System.out.println(sb.toString());
-                return sb.toString();
+                return sb.append(bridgeWords.get(size - 1)).append(".").toString();
             }
         }
     }
@@ -276,6 +607,44 @@ public class DirectedGraph {
      * @return The new text with bridge words inserted.
      */
     public static String generateNewText(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph, String inputText) {
+        return generateNewText((word1, word2) -> findBridgeWords(graph, word1, word2), inputText);
+    }
+
+    /**
+     * Generates a new text by inserting bridge words of a compact graph between pairs of words from the input text.
+     *
+     * @param graph     The compact graph.
+     * @param inputText The input text.
+     * @return The new text with bridge words inserted.
+     */
+    public static String generateNewText(WordGraph graph, String inputText) {
+        return generateNewText(graph::findBridgeWords, inputText);
+    }
+
+    /**
+     * Generates a new text by inserting bridge words found through a bridge word index.
+     *
+     * @param index     The bridge word index.
+     * @param inputText The input text.
+     * @return The new text with bridge words inserted.
+     */
+    public static String generateNewText(BridgeWordIndex index, String inputText) {
+        return generateNewText(index::findBridgeWords, inputText);
+    }
+
+    private static String generateNewText(BiFunction<String, String, List<String>> bridgeWordFinder, String inputText) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = insertBridgeWords(bridgeWordFinder, inputText);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.GENERATE_NEW_TEXT, start, failed);
+        }
+    }
+
+    private static String insertBridgeWords(BiFunction<String, String, List<String>> bridgeWordFinder, String inputText) {
         String[] words = inputText.replaceAll("[^a-zA-Z ]", " ").toLowerCase().split("\\s+");
         StringBuilder newTextWithBridges = new StringBuilder();
 
@@ -285,7 +654,7 @@ public class DirectedGraph {
 
             newTextWithBridges.append(word1).append(" ");
 
-            List<String> bridgeWords = findBridgeWords(graph, word1, word2);
+            List<String> bridgeWords = bridgeWordFinder.apply(word1, word2);
 
             if (!bridgeWords.isEmpty()) {
                 String bridgeWord = bridgeWords.get(random.nextInt(bridgeWords.size()));
@@ -309,10 +678,23 @@ public class DirectedGraph {
      * @return A message describing the shortest path between the two given words.
      */
     public static String calcShortestPath(String word1, String word2) throws IOException {
-        if (word1 != null && !word1.isEmpty() && !Graph.containsVertex(word1)) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = shortestPathQuery(word1, word2);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.CALC_SHORTEST_PATH, start, failed);
+        }
+    }
+
+    private static String shortestPathQuery(String word1, String word2) throws IOException {
+        WordGraph graph = compactGraph();
+        if (word1 != null && !word1.isEmpty() && !graph.containsWord(word1)) {
             return "No \"" + word1 + "\" in the graph!";
         }
-        if (word2 != null && !word2.isEmpty() && !Graph.containsVertex(word2)) {
+        if (word2 != null && !word2.isEmpty() && !graph.containsWord(word2)) {
             return "No \"" + word2 + "\" in the graph!";
         }
 
@@ -341,191 +723,1006 @@ public class DirectedGraph {
             return "两个单词相同，无需计算路径。";
         }
 
-        // 使用自定义的Dijkstra算法计算最短路径
-        Map<String, Double> distances = new HashMap<>();
-        Map<String, String> previousNodes = new HashMap<>();
-        PriorityQueue<String> priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-
-        for (String vertex : Graph.vertexSet()) {
-            if (vertex.equals(word1)) {
-                distances.put(vertex, 0.0);
-            } else {
-                distances.put(vertex, Double.MAX_VALUE);
-            }
-            priorityQueue.add(vertex);
+        WordGraph graph = compactGraph();
+        ShortestPath shortestPath = findShortestPath(graph, word1, word2, shortestPathCache, pathIndexes(graph));
+        if (shortestPath == null) {
+            return "No path from \"" + word1 + "\" to \"" + word2 + "\"!";
         }
+        List<String> path = shortestPath.words(graph);
+        String result = describePath(word1, word2, path, shortestPath.length());
 
-        while (!priorityQueue.isEmpty()) {
-            String current = priorityQueue.poll();
-
-            if (current.equals(word2)) {
-                break;
-            }
+        highlightPath(path);
 
-            for (DefaultWeightedEdge edge : Graph.outgoingEdgesOf(current)) {
-                String neighbor = Graph.getEdgeTarget(edge);
-                double newDist = distances.get(current) + Graph.getEdgeWeight(edge);
+        return result;
+    }
 
-                if (newDist < distances.get(neighbor)) {
-                    distances.put(neighbor, newDist);
-                    previousNodes.put(neighbor, current);
-                    priorityQueue.remove(neighbor);
-                    priorityQueue.add(neighbor);
-                }
+    /**
+     * Lists the shortest paths between two words when there are several of
+     * equal length, and highlights all of them in one image. The paths are
+     * enumerated lazily, so only {@code limit} of them are ever built; the
+     * total is counted without enumerating them.
+     *
+     * @param word1 The starting word.
+     * @param word2 The target word.
+     * @param limit The maximum number of paths to list.
+     * @return A message with the number of shortest paths and the first {@code limit} of them.
+     * @throws IOException If an I/O error occurs while saving the image.
+     */
+    public static String calcEqualShortestPaths(String word1, String word2, int limit) throws IOException {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            WordGraph graph = compactGraph();
+            ShortestPathDag dag = shortestPathDag(graph, word1, word2);
+            String result = describeShortestPaths(graph, word1, word2, dag, limit);
+            if (dag != null && dag.isReachable()) {
+                highlightPaths(dag.edgeWords());
             }
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.CALC_SHORTEST_PATH, start, failed);
         }
+    }
 
-        if (!previousNodes.containsKey(word2)) {
-            return "No path from \"" + word1 + "\" to \"" + word2 + "\"!";
-        } else {
-            List<String> path = new ArrayList<>();
-            for (String at = word2; at != null; at = previousNodes.get(at)) {
-                path.add(at);
-            }
-            Collections.reverse(path);
-
-            StringBuilder result = new StringBuilder("Shortest path from \"" + word1 + "\" to \"" + word2 + "\" is: ");
-            for (int i = 0; i < path.size(); i++) {
-                result.append(path.get(i));
-                if (i < path.size() - 1) {
-                    result.append(" -> ");
-                }
-            }
-            result.append(", the length is ").append(distances.get(word2));
+    /**
+     * Lists the shortest paths between two words of a compact graph when there
+     * are several of equal length. Unlike
+     * {@link #calcEqualShortestPaths(String, String, int)} nothing is rendered.
+     *
+     * @param graph The compact graph.
+     * @param word1 The starting word.
+     * @param word2 The target word.
+     * @param limit The maximum number of paths to list.
+     * @return A message with the number of shortest paths and the first {@code limit} of them.
+     */
+    public static String calcEqualShortestPaths(WordGraph graph, String word1, String word2, int limit) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = describeShortestPaths(graph, word1, word2, shortestPathDag(graph, word1, word2), limit);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.CALC_SHORTEST_PATH, start, failed);
+        }
+    }
 
-            highlightPath(path);
+    private static ShortestPathDag shortestPathDag(WordGraph graph, String word1, String word2) {
+        int source = graph.idOf(word1);
+        int target = graph.idOf(word2);
+        if (source < 0 || target < 0 || source == target) {
+            return null;
+        }
+        return new DijkstraEngine(graph).shortestPathDag(source, target);
+    }
 
-            return result.toString();
+    private static String describeShortestPaths(WordGraph graph, String word1, String word2, ShortestPathDag dag, int limit) {
+        if (dag == null || !dag.isReachable()) {
+            return describeShortestPath(graph, word1, word2, null);
+        }
+        BigInteger count = dag.countPaths();
+        StringBuilder result = new StringBuilder();
+        result.append("There are ").append(count).append(" shortest paths from \"").append(word1).append("\" to \"")
+                .append(word2).append("\", the length is ").append(dag.length()).append(":");
+        Iterator<ShortestPath> paths = dag.paths();
+        for (int i = 0; i < limit && paths.hasNext(); i++) {
+            result.append("\n").append(String.join(" -> ", paths.next().words(graph)));
+        }
+        if (paths.hasNext()) {
+            result.append("\n...");
         }
+        return result.toString();
     }
 
     /**
-     * Calculates all shortest paths from a given word to all other words in the graph.
+     * Formats the answer to a query between two non-empty words, as
+     * {@link #calcShortestPathBetween(WordGraph, String, String)} does.
      *
-     * @param word The starting word.
-     * @return A message describing the shortest paths from the given word to all other words.
+     * @param graph The graph.
+     * @param word1 The starting word.
+     * @param word2 The target word.
+     * @param path  The shortest path, or {@code null} if there is none.
+     * @return A message describing the shortest path between the two given words.
      */
-    @SuppressWarnings("checkstyle:Indentation")
-    public static String calcAllShortestPathsFrom(String word) {
-        // 使用自定义的Dijkstra算法计算从word到所有其他单词的最短路径
-        Map<String, Double> distances = new HashMap<>();
-        Map<String, String> previousNodes = new HashMap<>();
-        PriorityQueue<String> priorityQueue = new PriorityQueue<>(Comparator.comparingDouble(distances::get));
-
-        for (String vertex : Graph.vertexSet()) {
-            if (vertex.equals(word)) {
-                distances.put(vertex, 0.0);
-            } else {
-                distances.put(vertex, Double.MAX_VALUE);
-            }
-            priorityQueue.add(vertex);
+    static String describeShortestPath(WordGraph graph, String word1, String word2, ShortestPath path) {
+        if (!graph.containsWord(word1)) {
+            return "No \"" + word1 + "\" in the graph!";
         }
-        while (!priorityQueue.isEmpty()) {
-            String current = priorityQueue.poll();
-
-            for (DefaultWeightedEdge edge : Graph.outgoingEdgesOf(current)) {
-                String neighbor = Graph.getEdgeTarget(edge);
-                double newDist = distances.get(current) + Graph.getEdgeWeight(edge);
+        if (!graph.containsWord(word2)) {
+            return "No \"" + word2 + "\" in the graph!";
+        }
+        if (word1.equals(word2)) {
+            return "两个单词相同，无需计算路径。";
+        }
+        if (path == null) {
+            return "No path from \"" + word1 + "\" to \"" + word2 + "\"!";
+        }
+        return describePath(word1, word2, path.words(graph), path.length());
+    }
 
-                if (newDist < distances.get(neighbor)) {
-                    distances.put(neighbor, newDist);
-                    previousNodes.put(neighbor, current);
-                    priorityQueue.remove(neighbor);
-                    priorityQueue.add(neighbor);
-                }
+    private static String describePath(String word1, String word2, List<String> path, double length) {
+        StringBuilder result = new StringBuilder("Shortest path from \"" + word1 + "\" to \"" + word2 + "\" is: ");
+        for (int i = 0; i < path.size(); i++) {
+            result.append(path.get(i));
+            if (i < path.size() - 1) {
+                result.append(" -> ");
             }
         }
+        result.append(", the length is ").append(length);
+        return result.toString();
+    }
 
-        // 构建并返回所有路径
-        StringBuilder result = new StringBuilder();
-        for (String target : Graph.vertexSet()) {
-            if (!target.equals(word)) {
-                List<String> path = new ArrayList<>();
-                for (String at = target; at != null; at = previousNodes.get(at)) {
-                    path.add(0, at);
-                }
-                if (path.size() > 1) {
-                    result.append("从 ").append(word).append(" 到 ").append(target).append(" 的最短路径：").append(String.join("->", path)).append("\n");
-                    //highlightPath(path); // 突出显示每条路径
-                }
-            }
+    /**
+     * Lists the most important words of the current graph. Rankings are
+     * computed on all cores the first time they are asked for and kept until
+     * the graph changes.
+     *
+     * @param measure What to rank by.
+     * @param k       The maximum number of words to list.
+     * @return A message with the top words and their scores.
+     */
+    public static String rankWords(WordCentrality.Measure measure, int k) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = describeRanking(ranking(measure), measure, k);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.RANK_WORDS, start, failed);
         }
+    }
 
-        if (result.length() == 0) {
-            return "No path from " + word + " to other words!";
+    /**
+     * Lists the most important words of a compact graph, computing the
+     * ranking from scratch.
+     *
+     * @param graph   The compact graph.
+     * @param measure What to rank by.
+     * @param k       The maximum number of words to list.
+     * @return A message with the top words and their scores.
+     */
+    public static String rankWords(WordGraph graph, WordCentrality.Measure measure, int k) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = describeRanking(new WordCentrality(graph).rank(measure), measure, k);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.RANK_WORDS, start, failed);
         }
+    }
 
+    /**
+     * Formats the top words of a ranking, one per line with its score.
+     *
+     * @param ranking The ranking.
+     * @param measure What the ranking measures.
+     * @param k       The maximum number of words to list.
+     * @return The message.
+     */
+    static String describeRanking(WordCentrality.Ranking ranking, WordCentrality.Measure measure, int k) {
+        int[] top = ranking.top(k);
+        if (top.length == 0) {
+            return "No words in the graph!";
+        }
+        StringBuilder result = new StringBuilder("Top " + top.length + " words by " + measure.displayName() + ":");
+        for (int i = 0; i < top.length; i++) {
+            result.append("\n").append(i + 1).append(". ").append(ranking.graph().word(top[i]))
+                    .append(String.format(Locale.ROOT, " %.6f", ranking.score(top[i])));
+        }
         return result.toString();
     }
 
     /**
-     * Highlights the given path in the graph and saves the highlighted graph as an image.
+     * Lists the most likely words to follow a word in the current graph, with
+     * their probabilities. The successor lists are sorted the first time they
+     * are asked for and kept until the graph changes.
      *
-     * @param path The list of words representing the path to be highlighted.
-     * @throws IOException If an I/O error occurs while saving the image.
+     * @param word The previous word.
+     * @param k    The maximum number of words to list.
+     * @return A message with the next words and their probabilities.
      */
-    public static void highlightPath(List<String> path) throws IOException {
-        JGraphXAdapter<String, DefaultWeightedEdge> graphAdapter = new JGraphXAdapter<>(Graph);
-
-        // 设置边的样式，显示边的值
-        for (DefaultWeightedEdge edge : Graph.edgeSet()) {
-            double weight = Graph.getEdgeWeight(edge);
-            graphAdapter.getEdgeToCellMap().get(edge).setValue(weight);
+    public static String predictNextWords(String word, int k) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = describePredictions(nextWordPredictor(), word, k);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.PREDICT_NEXT_WORDS, start, failed);
         }
+    }
 
-        mxStylesheet stylesheet = new mxStylesheet();
-        Map<String, Object> edgeStyle = stylesheet.getDefaultEdgeStyle();
-        edgeStyle.put(mxConstants.STYLE_LABEL_POSITION, mxConstants.ALIGN_CENTER);
-        edgeStyle.put(mxConstants.STYLE_VERTICAL_LABEL_POSITION, mxConstants.ALIGN_MIDDLE);
-        graphAdapter.setStylesheet(stylesheet);
-
-        mxIGraphLayout layout = new mxHierarchicalLayout(graphAdapter);
-        layout.execute(graphAdapter.getDefaultParent());
-
-        // 高亮显示最短路径
-        for (int i = 0; i < path.size() - 1; i++) {
-            DefaultWeightedEdge edge = Graph.getEdge(path.get(i), path.get(i + 1));
-            if (edge != null) {
-                Object cell = graphAdapter.getEdgeToCellMap().get(edge);
-                graphAdapter.getModel().setStyle(cell, "strokeColor=red;strokeWidth=3");
-            }
+    /**
+     * Lists the most likely words to follow a word in a compact graph,
+     * sorting the successor lists from scratch.
+     *
+     * @param graph The compact graph.
+     * @param word  The previous word.
+     * @param k     The maximum number of words to list.
+     * @return A message with the next words and their probabilities.
+     */
+    public static String predictNextWords(WordGraph graph, String word, int k) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = describePredictions(NextWordPredictor.of(graph), word, k);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.PREDICT_NEXT_WORDS, start, failed);
         }
-
-        BufferedImage image = mxCellRenderer.createBufferedImage(graphAdapter, null, 2, Color.WHITE, true, null);
-        File imgFile = new File("shortest_path.png");
-        ImageIO.write(image, "PNG", imgFile);
-        System.out.println("最短路径图像已保存到：" + imgFile.getAbsolutePath());
-
-        JFrame frame = new JFrame();
-        mxGraphComponent graphComponent = new mxGraphComponent(graphAdapter);
-        frame.getContentPane().add(graphComponent);
-        frame.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setVisible(true);
     }
 
     /**
-     * Performs a random walk starting from a randomly chosen vertex in the graph.
+     * Formats the most likely next words, one per line with its probability.
      *
-     * @return A message describing the path taken during the random walk.
+     * @param predictor The predictor.
+     * @param word      The previous word.
+     * @param k         The maximum number of words to list.
+     * @return The message.
      */
-    public static String randomWalk(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph) {
-        if (graph.vertexSet().isEmpty()) {
-            return "图中没有节点。";
+    static String describePredictions(NextWordPredictor predictor, String word, int k) {
+        if (!predictor.containsWord(word)) {
+            return "No \"" + word + "\" in the graph!";
         }
+        List<NextWordPredictor.Prediction> predictions = predictor.predict(word, k);
+        if (predictions.isEmpty()) {
+            return "No words follow \"" + word + "\"!";
+        }
+        StringBuilder result = new StringBuilder("Top " + predictions.size() + " next words after \"" + word + "\":");
+        for (int i = 0; i < predictions.size(); i++) {
+            result.append("\n").append(i + 1).append(". ").append(predictions.get(i));
+        }
+        return result.toString();
+    }
 
-        List<String> vertices = new ArrayList<>(graph.vertexSet());
-        String startNode = vertices.get(random.nextInt(vertices.size()));
-        List<String> path = new ArrayList<>();
-        Set<DefaultWeightedEdge> visitedEdges = new HashSet<>();
-        path.add(startNode);
-
-        String currentNode = startNode;
-        boolean userInterrupted = false;
+    /**
+     * Calculates all shortest paths from a given word to all other words in the graph.
+     *
+     * @param word The starting word.
+     * @return A message describing the shortest paths from the given word to all other words.
+     */
+    public static String calcAllShortestPathsFrom(String word) {
+        return calcAllShortestPathsFrom(compactGraph(), word, shortestPathCache);
+    }
 
-        while (true) {
-            Set<DefaultWeightedEdge> outgoingEdges = graph.outgoingEdgesOf(currentNode);
+    /**
+     * Calculates the shortest path between two given words of a compact graph.
+     * Unlike {@link #calcShortestPath(String, String)} the path is not rendered.
+     *
+     * @param graph The compact graph.
+     * @param word1 The starting word.
+     * @param word2 The target word.
+     * @return A message describing the shortest path between the two given words.
+     */
+    public static String calcShortestPath(WordGraph graph, String word1, String word2) {
+        return calcShortestPath(graph, null, word1, word2);
+    }
+
+    /**
+     * Calculates the shortest path between two given words of a compact graph,
+     * reusing cached shortest path trees.
+     *
+     * @param graph The compact graph.
+     * @param cache The cache of shortest path trees of this graph, or {@code null}.
+     * @param word1 The starting word.
+     * @param word2 The target word.
+     * @return A message describing the shortest path between the two given words.
+     */
+    public static String calcShortestPath(WordGraph graph, ShortestPathCache cache, String word1, String word2) {
+        return calcShortestPath(graph, cache, pathIndexes(graph), word1, word2);
+    }
+
+    /**
+     * Calculates the shortest path between two given words of a compact graph,
+     * rejecting unreachable pairs from a reachability index before searching.
+     *
+     * @param graph   The compact graph.
+     * @param cache   The cache of shortest path trees of this graph, or {@code null}.
+     * @param indexes The path indexes of this graph, or {@code null}.
+     * @param word1   The starting word.
+     * @param word2   The target word.
+     * @return A message describing the shortest path between the two given words.
+     */
+    static String calcShortestPath(WordGraph graph, ShortestPathCache cache, PathIndexes indexes, String word1, String word2) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = shortestPathQuery(graph, cache, indexes, word1, word2);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.CALC_SHORTEST_PATH, start, failed);
+        }
+    }
+
+    private static String shortestPathQuery(WordGraph graph, ShortestPathCache cache, PathIndexes indexes, String word1, String word2) {
+        if (word1 != null && !word1.isEmpty() && !graph.containsWord(word1)) {
+            return "No \"" + word1 + "\" in the graph!";
+        }
+        if (word2 != null && !word2.isEmpty() && !graph.containsWord(word2)) {
+            return "No \"" + word2 + "\" in the graph!";
+        }
+
+        if (word1 != null && !word1.isEmpty() && (word2 == null || word2.isEmpty())) {
+            return calcAllShortestPathsFrom(graph, word1, cache);
+        } else if (word2 != null && !word2.isEmpty() && (word1 == null || word1.isEmpty())) {
+            return calcAllShortestPathsFrom(graph, word2, cache);
+        } else {
+            return calcShortestPathBetween(graph, cache, indexes, word1, word2);
+        }
+    }
+
+    /**
+     * Calculates the shortest path between two specific words of a compact graph.
+     *
+     * @param graph The compact graph.
+     * @param word1 The starting word.
+     * @param word2 The target word.
+     * @return A message describing the shortest path between the two given words.
+     */
+    public static String calcShortestPathBetween(WordGraph graph, String word1, String word2) {
+        return calcShortestPathBetween(graph, null, pathIndexes(graph), word1, word2);
+    }
+
+    private static String calcShortestPathBetween(WordGraph graph, ShortestPathCache cache, PathIndexes indexes,
+                                                  String word1, String word2) {
+        if ((word1 == null || word1.isEmpty()) && (word2 == null || word2.isEmpty())) {
+            return "输入为空";
+        }
+        if (word1.equals(word2)) {
+            return "两个单词相同，无需计算路径。";
+        }
+
+        ShortestPath shortestPath = findShortestPath(graph, word1, word2, cache, indexes);
+        if (shortestPath == null) {
+            return "No path from \"" + word1 + "\" to \"" + word2 + "\"!";
+        }
+        return describePath(word1, word2, shortestPath.words(graph), shortestPath.length());
+    }
+
+    private static ShortestPath findShortestPath(WordGraph graph, String word1, String word2, ShortestPathCache cache,
+                                                 PathIndexes indexes) {
+        int source = graph.idOf(word1);
+        int target = graph.idOf(word2);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        if (indexes != null && !indexes.reachability().canReach(source, target)) {
+            // 不可达的词对在搜索之前直接拒绝
+            return null;
+        }
+        DijkstraEngine engine = new DijkstraEngine(graph, indexes == null ? null : indexes.landmarks());
+        return cache == null ? engine.shortestPath(source, target) : cache.path(engine, source, target);
+    }
+
+    /**
+     * Calculates all shortest paths from a given word to all other words of a compact graph.
+     *
+     * @param graph The compact graph.
+     * @param word  The starting word.
+     * @return A message describing the shortest paths from the given word to all other words.
+     */
+    public static String calcAllShortestPathsFrom(WordGraph graph, String word) {
+        return calcAllShortestPathsFrom(graph, word, null);
+    }
+
+    private static String calcAllShortestPathsFrom(WordGraph graph, String word, ShortestPathCache cache) {
+        StringWriter out = new StringWriter();
+        try {
+            calcAllShortestPathsFrom(graph, word, cache, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Streams all shortest paths from a given word to all other words of the
+     * current graph, in the format of {@link #calcAllShortestPathsFrom(String)},
+     * without building the whole text in memory.
+     *
+     * @param word The starting word.
+     * @param out  The destination, e.g. a buffered file writer; it is not closed.
+     * @throws IOException If writing fails.
+     */
+    public static void calcAllShortestPathsFrom(String word, Writer out) throws IOException {
+        calcAllShortestPathsFrom(compactGraph(), word, shortestPathCache, out);
+    }
+
+    private static void calcAllShortestPathsFrom(WordGraph graph, String word, ShortestPathCache cache, Writer out) throws IOException {
+        ShortestPathTree tree = shortestPathTree(graph, word, cache);
+        if (tree == null || tree.writePaths(out) == 0) {
+            out.write("No path from " + word + " to other words!");
+        }
+    }
+
+    /**
+     * Returns the shortest path tree of a word of the current graph. Paths to
+     * single targets can then be rebuilt with {@link ShortestPathTree#pathTo(int)}
+     * or all of them streamed with {@link ShortestPathTree#writePaths(Writer)}.
+     *
+     * @param word The starting word.
+     * @return The tree, or {@code null} if the word is not in the graph.
+     */
+    public static ShortestPathTree shortestPathTree(String word) {
+        return shortestPathTree(compactGraph(), word, shortestPathCache);
+    }
+
+    private static ShortestPathTree shortestPathTree(WordGraph graph, String word, ShortestPathCache cache) {
+        int source = graph.idOf(word);
+        if (source < 0) {
+            return null;
+        }
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        return cache == null ? engine.shortestPathTree(source) : cache.tree(engine, source);
+    }
+
+    /**
+     * Returns the current graph. A graph set as a {@link WordGraph} is copied
+     * into a jgrapht graph on the first call.
+     *
+     * @return The graph used by the menu operations.
+     */
+    public static synchronized DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> getGraph() {
+        if (Graph == null && compactGraph != null) {
+            Graph = compactGraph.toGraph();
+        }
+        return Graph;
+    }
+
+    /**
+     * Replaces the graph used by the menu operations.
+     *
+     * @param graph The new graph.
+     */
+    public static synchronized void setGraph(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph) {
+        Graph = graph;
+        graphModified();
+    }
+
+    /**
+     * Replaces the graph used by the menu operations with a frozen graph, e.g.
+     * a {@link MappedGraph}. Queries run on it directly; a jgrapht copy is only
+     * made if an operation needs one.
+     *
+     * @param graph The new graph.
+     */
+    public static synchronized void setGraph(WordGraph graph) {
+        Graph = null;
+        graphModified();
+        compactGraph = graph;
+        GraphMetrics.graphSize(graph);
+    }
+
+    /**
+     * Returns the registry of named graphs. Programs serving several corpora
+     * query its snapshots directly; {@link #useGraph(String)} makes one of
+     * them the current graph of the menu operations.
+     *
+     * @return The registry.
+     */
+    public static synchronized GraphRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Replaces the registry of named graphs, e.g. to set a memory budget.
+     *
+     * @param graphs The new registry.
+     */
+    public static synchronized void setRegistry(GraphRegistry graphs) {
+        registry = graphs;
+    }
+
+    /**
+     * Makes a graph of the registry the current graph, loading it if needed.
+     * Queries already running keep the graph they started with.
+     *
+     * @param name The name of the graph.
+     * @throws IOException If the graph cannot be loaded.
+     */
+    public static void useGraph(String name) throws IOException {
+        setGraph(registry().get(name).graph());
+    }
+
+    /**
+     * Makes the graph of a binary graph file the current graph. If the graph
+     * file is missing, or the text file has been modified since the graph
+     * file was written, the graph is rebuilt from the text file and saved
+     * again first.
+     *
+     * @param fileName      The text file the graph is built from.
+     * @param graphFileName The binary graph file.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void loadGraphFile(String fileName, String graphFileName) throws IOException {
+        Path graphFile = Paths.get(graphFileName);
+        Path textFile = Paths.get(fileName);
+        // 修改时间相同时也重建，避免时间精度不够时漏掉修改
+        if (Files.exists(graphFile) && (!Files.exists(textFile)
+                || Files.getLastModifiedTime(textFile).compareTo(Files.getLastModifiedTime(graphFile)) < 0)) {
+            setGraph(MappedGraph.open(graphFile));
+        } else {
+            setGraph(buildGraphFromFile(fileName));
+            saveGraph(graphFileName);
+        }
+    }
+
+    /**
+     * Saves the current graph to a binary graph file, which
+     * {@link MappedGraph#open(java.nio.file.Path)} loads in constant time.
+     *
+     * @param fileName The output file.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void saveGraph(String fileName) throws IOException {
+        GraphFile.write(compactGraph(), Paths.get(fileName));
+    }
+
+    /**
+     * Drops everything derived from the current graph. Call this after
+     * modifying the graph returned by {@link #getGraph()} in place.
+     */
+    public static synchronized void graphModified() {
+        if (Graph != null) {
+            compactGraph = null;
+            DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = Graph;
+            GraphMetrics.graphSize(graph.vertexSet().size(), graph.edgeSet().size(), () -> {
+                int maxOutDegree = 0;
+                for (String vertex : graph.vertexSet()) {
+                    maxOutDegree = Math.max(maxOutDegree, graph.outDegreeOf(vertex));
+                }
+                return maxOutDegree;
+            });
+        }
+        bridgeWordIndex = null;
+        graphRenderer = null;
+        randomWalkEngine = null;
+        pathIndexes = null;
+        nextWordPredictor = null;
+        rankings.clear();
+        shortestPathCache.invalidate();
+    }
+
+    /**
+     * Turns the bridge word index for the menu operations on or off. The index
+     * is built once per graph, on the first bridge query after enabling it.
+     *
+     * @param enabled Whether to answer bridge queries from the index.
+     */
+    public static synchronized void setBridgeWordIndexEnabled(boolean enabled) {
+        bridgeWordIndexEnabled = enabled;
+        if (!enabled) {
+            bridgeWordIndex = null;
+        }
+    }
+
+    /**
+     * Turns landmark A* for point-to-point shortest paths on or off. The
+     * landmark distances are computed once per graph, on the first query
+     * after enabling them.
+     *
+     * @param count The number of landmarks, or 0 for plain bidirectional searches.
+     */
+    public static synchronized void setLandmarkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        landmarkCount = count;
+        pathIndexes = null;
+    }
+
+    /**
+     * Returns the path indexes of a graph if it is the current graph. Graphs
+     * that are not current are told apart without taking the class lock, and
+     * the indexes themselves are built outside it, see {@link PathIndexes}.
+     *
+     * @param graph The graph.
+     * @return The path indexes, or {@code null} if the graph is not the current graph.
+     */
+    static PathIndexes pathIndexes(WordGraph graph) {
+        PathIndexes indexes = pathIndexes;
+        if (indexes != null && indexes.graph() == graph) {
+            return indexes;
+        }
+        if (graph == null || graph != compactGraph) {
+            return null;
+        }
+        synchronized (DirectedGraph.class) {
+            if (graph != compactGraph) {
+                return null;
+            }
+            if (pathIndexes == null || pathIndexes.graph() != graph) {
+                pathIndexes = new PathIndexes(graph, landmarkCount);
+            }
+            return pathIndexes;
+        }
+    }
+
+    /**
+     * Describes the strongly connected component of a word in the current
+     * graph: the words that can all reach each other.
+     *
+     * @param word The word.
+     * @return A message listing the component of the word.
+     */
+    public static String describeComponent(String word) {
+        WordGraph graph = compactGraph();
+        PathIndexes indexes = pathIndexes(graph);
+        return describeComponent(indexes != null ? indexes.reachability() : ReachabilityIndex.build(graph), word, 20);
+    }
+
+    /**
+     * Formats the strongly connected component of a word.
+     *
+     * @param index The reachability index.
+     * @param word  The word.
+     * @param limit The maximum number of words to list.
+     * @return The message.
+     */
+    static String describeComponent(ReachabilityIndex index, String word, int limit) {
+        int v = index.graph().idOf(word);
+        if (v < 0) {
+            return "No \"" + word + "\" in the graph!";
+        }
+        int component = index.component(v);
+        List<String> words = index.memberWords(component);
+        StringBuilder result = new StringBuilder();
+        result.append("\"").append(word).append("\" is in a strongly connected component of ").append(words.size())
+                .append(words.size() == 1 ? " word" : " words").append(" (").append(index.componentCount())
+                .append(" components in the graph): ");
+        result.append(String.join(", ", words.subList(0, Math.min(limit, words.size()))));
+        if (words.size() > limit) {
+            result.append(", ...");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the bridge word index of the current graph, building it on first use.
+     */
+    static synchronized BridgeWordIndex bridgeWordIndex() {
+        if (bridgeWordIndex == null) {
+            bridgeWordIndex = BridgeWordIndex.build(compactGraph());
+        }
+        return bridgeWordIndex;
+    }
+
+    /**
+     * Returns the cache of shortest path trees used by {@link #calcShortestPath(String, String)}.
+     *
+     * @return The cache, e.g. to read its hit and miss counters.
+     */
+    public static ShortestPathCache shortestPathCache() {
+        return shortestPathCache;
+    }
+
+    /**
+     * Returns whether graphs are rendered to files in the background instead of
+     * being shown in a window.
+     *
+     * @return {@code true} in headless mode.
+     */
+    public static boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Returns whether graphs are drawn at all, in a window or to a file.
+     *
+     * @return {@code false} after {@code --no-gui}.
+     */
+    public static boolean isGuiEnabled() {
+        return guiEnabled;
+    }
+
+    /**
+     * Turns all drawing on or off. While it is off, showing the graph and
+     * highlighting paths do nothing and batch render commands are refused.
+     *
+     * @param enabled Whether to draw graphs.
+     */
+    public static void setGuiEnabled(boolean enabled) {
+        guiEnabled = enabled;
+    }
+
+    /**
+     * Switches headless rendering on or off. It is on by default when the JVM
+     * has no display.
+     *
+     * @param enabled Whether to render without a window.
+     */
+    public static void setHeadless(boolean enabled) {
+        headless = enabled;
+    }
+
+    /**
+     * Sets the file format written in headless mode.
+     *
+     * @param format The format; SVG by default.
+     */
+    public static void setRenderFormat(GraphRenderer.Format format) {
+        renderFormat = format;
+    }
+
+    /**
+     * Sets the largest graph that is drawn whole. Larger graphs are only drawn
+     * as the neighborhood of a path or of chosen words.
+     *
+     * @param limit The maximum number of vertices; 500 by default.
+     */
+    public static void setRenderVertexLimit(int limit) {
+        renderVertexLimit = limit;
+    }
+
+    /**
+     * Sets the radius of the neighborhood drawn instead of a graph that is too
+     * large to draw whole.
+     *
+     * @param hops The number of hops around the center words; 2 by default.
+     */
+    public static void setRenderHops(int hops) {
+        renderHops = hops;
+    }
+
+    /**
+     * Shows the current graph. If center words are given, or the graph has
+     * more vertices than the render limit, only the neighborhood of the
+     * center words is shown, at most the render limit in size; without center
+     * words a large graph is centered on the word with the heaviest outgoing
+     * edges.
+     *
+     * @param centerWords The words to center the view on, or an empty list.
+     * @throws IOException If there is an error in saving the image file.
+     */
+    public static void showGraph(Collection<String> centerWords) throws IOException {
+        if (centerWords.isEmpty() && compactGraph().vertexCount() <= renderVertexLimit) {
+            showDirectedGraph(getGraph());
+            return;
+        }
+        showNeighborhood(viewCenter(centerWords), neighborhoodExtractor());
+    }
+
+    /**
+     * Returns the words a bounded view of the current graph is centered on.
+     */
+    static Collection<String> viewCenter(Collection<String> centerWords) {
+        return centerWords.isEmpty() ? ranking(WordCentrality.Measure.OUT_STRENGTH).topWords(1) : centerWords;
+    }
+
+    /**
+     * Returns the extractor for bounded views of the current graph.
+     */
+    static SubgraphExtractor neighborhoodExtractor() {
+        return new SubgraphExtractor(renderHops, 0.0, 1, renderVertexLimit);
+    }
+
+    private static List<String> splitWords(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Shows the neighborhood of some words of the current graph, so that large
+     * graphs can be inspected without laying out all of them.
+     *
+     * @param words     The words to center the view on.
+     * @param extractor Decides the radius, pruning and size of the view.
+     * @throws IOException If there is an error in saving the image file.
+     */
+    public static void showNeighborhood(Collection<String> words, SubgraphExtractor extractor) throws IOException {
+        showDirectedGraph(extractor.around(compactGraph(), words).toGraph());
+    }
+
+    /**
+     * Performs many weighted random walks on the current graph without asking
+     * the user, and streams them to a file, one walk per line. Each walk stops
+     * after following an edge twice or after {@code maxSteps} steps.
+     *
+     * @param fileName The output file.
+     * @param walks    The number of walks.
+     * @param seed     The seed; the same seed gives the same walks.
+     * @param maxSteps The maximum number of steps per walk; 0 for no limit.
+     * @param threads  The number of worker threads.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void randomWalks(String fileName, long walks, long seed, int maxSteps, int threads) throws IOException {
+        randomWalkEngine().walk(Paths.get(fileName), walks, seed, maxSteps, true, threads);
+    }
+
+    /**
+     * Returns the random walk engine of the current graph, building its alias tables on first use.
+     */
+    static synchronized RandomWalkEngine randomWalkEngine() {
+        if (randomWalkEngine == null) {
+            randomWalkEngine = new RandomWalkEngine(compactGraph());
+        }
+        return randomWalkEngine;
+    }
+
+    /**
+     * Returns a ranking of the current graph, computing it on first use.
+     */
+    static synchronized WordCentrality.Ranking ranking(WordCentrality.Measure measure) {
+        WordCentrality.Ranking ranking = rankings.get(measure);
+        if (ranking == null) {
+            ranking = new WordCentrality(compactGraph()).rank(measure);
+            rankings.put(measure, ranking);
+        }
+        return ranking;
+    }
+
+    /**
+     * Returns the next word predictor of the current graph, sorting the successor lists on first use.
+     */
+    static synchronized NextWordPredictor nextWordPredictor() {
+        if (nextWordPredictor == null) {
+            nextWordPredictor = NextWordPredictor.of(compactGraph());
+        }
+        return nextWordPredictor;
+    }
+
+    /**
+     * Returns the renderer of the current graph, which caches its layout.
+     */
+    static synchronized GraphRenderer renderer() {
+        if (graphRenderer == null) {
+            graphRenderer = new GraphRenderer(compactGraph());
+        }
+        return graphRenderer;
+    }
+
+    private static void renderInBackground(GraphRenderer renderer, Collection<? extends List<String>> paths, String baseName) {
+        Path file = Paths.get(baseName + "." + renderFormat.extension());
+        renderer.renderPathsAsync(paths, renderFormat, file).whenComplete((written, error) -> {
+            if (error != null) {
+                System.out.println("图像保存失败：" + error.getMessage());
+            }
+        });
+        System.out.println("图像将保存到：" + file.toAbsolutePath());
+    }
+
+    /**
+     * Returns the compact form of the current graph, freezing it on first use.
+     */
+    static synchronized WordGraph compactGraph() {
+        if (compactGraph == null) {
+            compactGraph = CompactGraph.of(Graph);
+        }
+        return compactGraph;
+    }
+
+    /**
+     * Highlights the given path in the graph and saves the highlighted graph as an image.
+     * In headless mode this restyles the cached layout and writes the file in the background.
+     * Graphs above the render limit are cut down to the neighborhood of the path first.
+     *
+     * @param path The list of words representing the path to be highlighted.
+     * @throws IOException If an I/O error occurs while saving the image.
+     */
+    public static void highlightPath(List<String> path) throws IOException {
+        highlightPaths(Collections.singletonList(path));
+    }
+
+    /**
+     * Highlights the union of several paths in one image, e.g. all shortest
+     * paths between two words. Otherwise works like {@link #highlightPath(List)}.
+     *
+     * @param paths The paths to highlight, each as a list of words.
+     * @throws IOException If an I/O error occurs while saving the image.
+     */
+    public static void highlightPaths(Collection<? extends List<String>> paths) throws IOException {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            drawPaths(paths);
+            failed = false;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.HIGHLIGHT_PATH, start, failed);
+        }
+    }
+
+    private static void drawPaths(Collection<? extends List<String>> paths) throws IOException {
+        if (!isGuiEnabled()) {
+            return;
+        }
+        WordGraph view = compactGraph();
+        boolean large = view.vertexCount() > renderVertexLimit;
+        if (large) {
+            // 图太大时只画路径附近的子图
+            view = PATH_VIEW.aroundPaths(view, paths);
+        }
+        if (isHeadless()) {
+            renderInBackground(large ? new GraphRenderer(view) : renderer(), paths, "shortest_path");
+            return;
+        }
+        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = large ? view.toGraph() : getGraph();
+        JGraphXAdapter<String, DefaultWeightedEdge> graphAdapter = new JGraphXAdapter<>(graph);
+
+        // 设置边的样式，显示边的值
+        for (DefaultWeightedEdge edge : graph.edgeSet()) {
+            double weight = graph.getEdgeWeight(edge);
+            graphAdapter.getEdgeToCellMap().get(edge).setValue(weight);
+        }
+
+        mxStylesheet stylesheet = new mxStylesheet();
+        Map<String, Object> edgeStyle = stylesheet.getDefaultEdgeStyle();
+        edgeStyle.put(mxConstants.STYLE_LABEL_POSITION, mxConstants.ALIGN_CENTER);
+        edgeStyle.put(mxConstants.STYLE_VERTICAL_LABEL_POSITION, mxConstants.ALIGN_MIDDLE);
+        graphAdapter.setStylesheet(stylesheet);
+
+        mxIGraphLayout layout = new mxHierarchicalLayout(graphAdapter);
+        layout.execute(graphAdapter.getDefaultParent());
+
+        // 高亮显示最短路径
+        for (List<String> path : paths) {
+            for (int i = 0; i < path.size() - 1; i++) {
+                DefaultWeightedEdge edge = graph.getEdge(path.get(i), path.get(i + 1));
+                if (edge != null) {
+                    Object cell = graphAdapter.getEdgeToCellMap().get(edge);
+                    graphAdapter.getModel().setStyle(cell, "strokeColor=red;strokeWidth=3");
+                }
+            }
+        }
+
+        BufferedImage image = mxCellRenderer.createBufferedImage(graphAdapter, null, 2, Color.WHITE, true, null);
+        File imgFile = new File("shortest_path.png");
+        ImageIO.write(image, "PNG", imgFile);
+        System.out.println("最短路径图像已保存到：" + imgFile.getAbsolutePath());
+
+        JFrame frame = new JFrame();
+        mxGraphComponent graphComponent = new mxGraphComponent(graphAdapter);
+        frame.getContentPane().add(graphComponent);
+        frame.setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    /**
+     * Performs a random walk starting from a randomly chosen vertex in the graph.
+     *
+     * @return A message describing the path taken during the random walk.
+     */
+    public static String randomWalk(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = walk(graph);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.RANDOM_WALK, start, failed);
+        }
+    }
+
+    private static String walk(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph) {
+        if (graph.vertexSet().isEmpty()) {
+            return "图中没有节点。";
+        }
+
+        List<String> vertices = new ArrayList<>(graph.vertexSet());
+        String startNode = vertices.get(random.nextInt(vertices.size()));
+        List<String> path = new ArrayList<>();
+        Set<DefaultWeightedEdge> visitedEdges = new HashSet<>();
+        path.add(startNode);
+
+        String currentNode = startNode;
+        boolean userInterrupted = false;
+
+        while (true) {
+            Set<DefaultWeightedEdge> outgoingEdges = graph.outgoingEdgesOf(currentNode);
             if (outgoingEdges.isEmpty()) {
                 break;
             }
@@ -551,6 +1748,10 @@ public class DirectedGraph {
             path.add(currentNode);
         }
 
+        return finishRandomWalk(path, userInterrupted);
+    }
+
+    private static String finishRandomWalk(List<String> path, boolean userInterrupted) {
         String result = String.join(" ", path);
         try {
             Files.write(Paths.get("random_walk.txt"), result.getBytes(StandardCharsets.UTF_8));
@@ -565,4 +1766,97 @@ public class DirectedGraph {
             return "遍历完成，遍历结果：" + result;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Performs a random walk over a compact graph, starting from a randomly chosen vertex.
+     *
+     * @param graph The compact graph.
+     * @return A message describing the path taken during the random walk.
+     */
+    public static String randomWalk(WordGraph graph) {
+        return randomWalk(new RandomWalkEngine(graph));
+    }
+
+    /**
+     * Performs a random walk with an engine, starting from a randomly chosen
+     * vertex. The next word is drawn in proportion to the edge weights.
+     *
+     * @param engine The random walk engine of the graph.
+     * @return A message describing the path taken during the random walk.
+     */
+    public static String randomWalk(RandomWalkEngine engine) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            String result = walk(engine);
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.RANDOM_WALK, start, failed);
+        }
+    }
+
+    private static String walk(RandomWalkEngine engine) {
+        WordGraph graph = engine.graph();
+        if (graph.vertexCount() == 0) {
+            return "图中没有节点。";
+        }
+
+        SplittableRandom walkRandom = new SplittableRandom(random.nextLong());
+        int currentNode = walkRandom.nextInt(graph.vertexCount());
+        List<String> path = new ArrayList<>();
+        boolean[] visitedEdges = new boolean[graph.edgeCount()];
+        path.add(graph.word(currentNode));
+        boolean userInterrupted = false;
+
+        while (graph.outDegree(currentNode) > 0) {
+            int selectedEdge = engine.nextEdge(currentNode, walkRandom);
+
+            if (visitedEdges[selectedEdge]) {
+                currentNode = graph.target(selectedEdge);
+                path.add(graph.word(currentNode));
+                break;
+            }
+
+            System.out.println("当前节点: " + graph.word(currentNode) + "。输入'q'停止遍历，或按Enter键继续...");
+            String userInput = scanner.nextLine();
+            if (userInput.equalsIgnoreCase("q")) {
+                userInterrupted = true;
+                break;
+            }
+
+            visitedEdges[selectedEdge] = true;
+            currentNode = graph.target(selectedEdge);
+            path.add(graph.word(currentNode));
+        }
+
+        return finishRandomWalk(path, userInterrupted);
+    }
+
+    /**
+     * Performs a weighted random walk without asking the user. Like
+     * {@link #randomWalk(RandomWalkEngine)}, the walk stops at a word without
+     * outgoing edges or right after following an edge for the second time.
+     * The same seed always gives the same walk.
+     *
+     * @param engine   The random walk engine of the graph.
+     * @param seed     The seed.
+     * @param maxSteps The maximum number of edges to follow, or 0 for no limit.
+     * @return The words visited, starting with the start word.
+     */
+    public static List<String> randomWalk(RandomWalkEngine engine, long seed, int maxSteps) {
+        long start = GraphMetrics.start();
+        boolean failed = true;
+        try {
+            int[] vertices = engine.walk(-1, maxSteps, true, new SplittableRandom(seed));
+            List<String> result = new ArrayList<>(vertices.length);
+            for (int vertex : vertices) {
+                result.add(engine.graph().word(vertex));
+            }
+            failed = false;
+            return result;
+        } finally {
+            GraphMetrics.stop(GraphMetrics.Operation.RANDOM_WALK, start, failed);
+        }
+    }
+}
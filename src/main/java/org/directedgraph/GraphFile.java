@@ -0,0 +1,212 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes a word graph in the binary format read by {@link MappedGraph}.
+ *
+ * <p>The file is little-endian. A fixed header holds a magic number, the
+ * format version, the vertex and edge counts and a table of sections; each
+ * section is one flat array, starting on an 8-byte boundary:
+ *
+ * <pre>
+ * WORD_OFFSETS  int[n + 1]    byte offset of each word in WORD_BYTES
+ * WORD_BYTES    byte[]        the words, UTF-8, back to back
+ * WORD_TABLE    int[2^k]      open-addressing word lookup table, -1 = empty
+ * OUT_OFFSETS   int[n + 1]    forward CSR rows
+ * OUT_TARGETS   int[m]
+ * OUT_WEIGHTS   double[m]
+ * IN_OFFSETS    int[n + 1]    reverse CSR rows
+ * IN_SOURCES    int[m]
+ * IN_EDGES      int[m]        the outgoing edge index of each incoming edge
+ * </pre>
+ *
+ * Readers skip sections they do not know, so optional indexes can be added
+ * later without a new format version. The file is written to a temporary
+ * name and moved into place, so a reader never maps a half-written file.
+ */
+public final class GraphFile {
+    static final int MAGIC = 0x46524744; // "DGRF"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int SECTION_ENTRY_BYTES = 24;
+
+    static final int WORD_OFFSETS = 1;
+    static final int WORD_BYTES = 2;
+    static final int WORD_TABLE = 3;
+    static final int OUT_OFFSETS = 4;
+    static final int OUT_TARGETS = 5;
+    static final int OUT_WEIGHTS = 6;
+    static final int IN_OFFSETS = 7;
+    static final int IN_SOURCES = 8;
+    static final int IN_EDGES = 9;
+    private static final int SECTION_COUNT = 9;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private final long[] sectionOffsets = new long[SECTION_COUNT + 1];
+    private final long[] sectionLengths = new long[SECTION_COUNT + 1];
+    private long position;
+
+    private GraphFile(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes a graph to a file, replacing it if it exists.
+     *
+     * @param graph The graph.
+     * @param file  The output file.
+     * @throws IOException If writing fails.
+     */
+    public static void write(WordGraph graph, Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path partial = Files.createTempFile(dir, file.getFileName().toString(), ".part");
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                new GraphFile(channel).writeGraph(graph);
+                channel.force(true);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private void writeGraph(WordGraph graph) throws IOException {
+        int n = graph.vertexCount();
+        int m = graph.edgeCount();
+        position = HEADER_BYTES + (long) SECTION_COUNT * SECTION_ENTRY_BYTES;
+        channel.position(position);
+
+        // 单词按 UTF-8 编码一次，偏移量和字节两个段都要用
+        byte[][] encoded = new byte[n][];
+        for (int v = 0; v < n; v++) {
+            encoded[v] = graph.word(v).getBytes(StandardCharsets.UTF_8);
+        }
+        begin(WORD_OFFSETS);
+        int offset = 0;
+        for (int v = 0; v < n; v++) {
+            putInt(offset);
+            offset += encoded[v].length;
+        }
+        putInt(offset);
+        end(WORD_OFFSETS);
+
+        begin(WORD_BYTES);
+        for (byte[] word : encoded) {
+            for (byte b : word) {
+                ensure(1);
+                buffer.put(b);
+            }
+        }
+        end(WORD_BYTES);
+
+        int[] table = new int[Integer.highestOneBit(Math.max(2, n) * 2 - 1) << 1];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+        for (int v = 0; v < n; v++) {
+            int slot = WordTokenizer.mix(graph.word(v).hashCode()) & mask;
+            while (table[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = v;
+        }
+        begin(WORD_TABLE);
+        for (int slot : table) {
+            putInt(slot);
+        }
+        end(WORD_TABLE);
+
+        begin(OUT_OFFSETS);
+        for (int v = 0; v < n; v++) {
+            putInt(graph.outStart(v));
+        }
+        putInt(m);
+        end(OUT_OFFSETS);
+        begin(OUT_TARGETS);
+        for (int e = 0; e < m; e++) {
+            putInt(graph.target(e));
+        }
+        end(OUT_TARGETS);
+        begin(OUT_WEIGHTS);
+        for (int e = 0; e < m; e++) {
+            ensure(8);
+            buffer.putDouble(graph.weight(e));
+        }
+        end(OUT_WEIGHTS);
+
+        begin(IN_OFFSETS);
+        for (int v = 0; v < n; v++) {
+            putInt(graph.inStart(v));
+        }
+        putInt(m);
+        end(IN_OFFSETS);
+        begin(IN_SOURCES);
+        for (int i = 0; i < m; i++) {
+            putInt(graph.source(i));
+        }
+        end(IN_SOURCES);
+        begin(IN_EDGES);
+        for (int i = 0; i < m; i++) {
+            putInt(graph.inEdge(i));
+        }
+        end(IN_EDGES);
+        flush();
+
+        buffer.clear();
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(n).putInt(m).putInt(SECTION_COUNT).putInt(0);
+        for (int id = 1; id <= SECTION_COUNT; id++) {
+            buffer.putInt(id).putInt(0).putLong(sectionOffsets[id]).putLong(sectionLengths[id]);
+        }
+        buffer.flip();
+        long at = 0;
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+
+    private void begin(int section) throws IOException {
+        while ((position & 7) != 0) {
+            ensure(1);
+            buffer.put((byte) 0);
+        }
+        sectionOffsets[section] = position;
+    }
+
+    private void end(int section) {
+        sectionLengths[section] = position - sectionOffsets[section];
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Makes room for the next value and counts it in the file position.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+        position += bytes;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,164 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Grows the word graph incrementally as new text arrives.
+ *
+ * <p>The ingestor keeps the bigram counts in primitive maps and remembers the
+ * last word seen, so each new segment only costs its own tokenization plus the
+ * edge that joins the previous tail word to the new head word. Readers never
+ * see the mutable state: {@link #publish()} freezes it into a new
+ * {@link GraphSnapshot} with the next version number, and in-flight queries
+ * keep using whatever snapshot they started with. Publishing copies the counts
+ * into CSR arrays, which is linear in the graph size but independent of the
+ * amount of text ingested so far.
+ *
+ * <p>Ingesting the words of a text in several segments yields exactly the
+ * graph of {@code buildGraph} over the concatenated word list.
+ *
+ * <p>The ingestor also keeps a {@link NextWordPredictor} that is updated with
+ * every word rather than on publishing, so next word predictions follow the
+ * text as it arrives.
+ */
+public final class GraphIngestor {
+    private final WordDictionary dictionary = new WordDictionary();
+    private final LongIntHashMap pairs = new LongIntHashMap();
+    private final AtomicReference<GraphSnapshot> snapshot = new AtomicReference<>();
+    private final NextWordPredictor predictor;
+    private int tail = -1;
+    private long version;
+
+    /**
+     * Creates an ingestor with an empty graph.
+     */
+    public GraphIngestor() {
+        predictor = new NextWordPredictor();
+        snapshot.set(freeze());
+    }
+
+    /**
+     * Creates an ingestor that continues an existing graph.
+     *
+     * @param graph    The graph built so far; its weights must be bigram counts.
+     * @param tailWord The last word of the text the graph was built from, or
+     *                 {@code null} if the next segment starts a new text.
+     */
+    public GraphIngestor(WordGraph graph, String tailWord) {
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            dictionary.add(graph.word(v));
+        }
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                pairs.add(LongIntHashMap.pair(u, graph.target(e)), (int) graph.weight(e));
+            }
+        }
+        tail = tailWord == null ? -1 : dictionary.add(tailWord);
+        predictor = NextWordPredictor.of(graph);
+        if (tailWord != null) {
+            predictor.addWord(tailWord);
+        }
+        snapshot.set(freeze());
+    }
+
+    /**
+     * Ingests a text segment without publishing it.
+     *
+     * @param text The text segment.
+     */
+    public void ingest(String text) {
+        try {
+            ingest(new StringReader(text));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Ingests a text stream without publishing it. The stream is tokenized
+     * like {@link DirectedGraph#readWordsFromFile(String)}.
+     *
+     * @param text The text stream; it is not closed.
+     * @throws IOException If reading fails.
+     */
+    public synchronized void ingest(Reader text) throws IOException {
+        new WordTokenizer(this::accept).feed(text).finish();
+    }
+
+    /**
+     * Ingests a single word, joining it to the previous one.
+     *
+     * @param word The word.
+     */
+    public synchronized void accept(String word) {
+        int id = dictionary.add(word);
+        if (tail >= 0) {
+            pairs.add(LongIntHashMap.pair(tail, id), 1);
+            predictor.addWeight(dictionary.word(tail), word, 1);
+        } else {
+            predictor.addWord(word);
+        }
+        tail = id;
+    }
+
+    /**
+     * Publishes everything ingested so far as a new snapshot.
+     *
+     * @return The new snapshot.
+     */
+    public synchronized GraphSnapshot publish() {
+        GraphSnapshot published = freeze();
+        snapshot.set(published);
+        return published;
+    }
+
+    /**
+     * Ingests a text segment and publishes the result.
+     *
+     * @param text The text segment.
+     * @return The new snapshot.
+     */
+    public GraphSnapshot append(String text) {
+        synchronized (this) {
+            ingest(text);
+            return publish();
+        }
+    }
+
+    /**
+     * Returns the next word predictor, which already includes words that are
+     * ingested but not yet published.
+     *
+     * @return The live predictor.
+     */
+    public NextWordPredictor predictor() {
+        return predictor;
+    }
+
+    /**
+     * Returns the latest published snapshot. Never blocks on ingestion.
+     *
+     * @return The snapshot.
+     */
+    public GraphSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    private GraphSnapshot freeze() {
+        int m = pairs.size();
+        int[] sources = new int[m];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        for (int e = 0; e < m; e++) {
+            long key = pairs.keyAt(e);
+            sources[e] = LongIntHashMap.pairSource(key);
+            targets[e] = LongIntHashMap.pairTarget(key);
+            weights[e] = pairs.valueAt(e);
+        }
+        WordGraph graph = CompactGraph.fromEdges(dictionary.copy(), sources, targets, weights, m);
+        return new GraphSnapshot(version++, graph);
+    }
+}
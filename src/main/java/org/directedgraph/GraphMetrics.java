@@ -0,0 +1,601 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Counters, latency histograms and gauges for the menu operations.
+ *
+ * <p>Each {@link Operation} counts its calls and failures and keeps a
+ * histogram of its latencies with four buckets per power of two of
+ * nanoseconds, so a percentile is reported as the upper bound of its bucket,
+ * at most 25% above the true value. The Dijkstra searches add up the vertices
+ * they settle and the edges they relax, the landmark A* searches of
+ * {@link LandmarkIndex} do the same in counters of their own, and the graph
+ * gauges hold the size of the current graph.
+ *
+ * <p>Metrics are off by default. While they are off, {@link #start()} does not
+ * read the clock and the recording methods return after one volatile read, so
+ * the query path allocates nothing and does no extra work. Recording itself
+ * only updates atomic counters and never allocates either.
+ *
+ * <p>The metrics can be read through JMX once {@link #registerMBeans()} has
+ * been called, or written out as text by {@link #report()} and
+ * {@link #startReporter(Path, long, TimeUnit)}.
+ */
+public final class GraphMetrics {
+    /**
+     * The instrumented operations.
+     */
+    public enum Operation {
+        BUILD_GRAPH("buildGraph"),
+        QUERY_BRIDGE_WORDS("queryBridgeWords"),
+        GENERATE_NEW_TEXT("generateNewText"),
+        CALC_SHORTEST_PATH("calcShortestPath"),
+        HIGHLIGHT_PATH("highlightPath"),
+        RANDOM_WALK("randomWalk"),
+        RANK_WORDS("rankWords"),
+        PREDICT_NEXT_WORDS("predictNextWords");
+
+        private final String displayName;
+
+        Operation(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String displayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * The JMX view of the graph gauges and the search counters.
+     */
+    public interface GraphMXBean {
+        boolean isEnabled();
+
+        void setEnabled(boolean enabled);
+
+        int getVertices();
+
+        int getEdges();
+
+        int getMaxOutDegree();
+
+        long getDijkstraSearches();
+
+        long getNodesSettled();
+
+        long getEdgesRelaxed();
+
+        long getLandmarkSearches();
+
+        long getLandmarkNodesSettled();
+
+        long getLandmarkEdgesRelaxed();
+
+        String getReport();
+
+        void reset();
+    }
+
+    /**
+     * The JMX view of one operation. Latencies are in microseconds.
+     */
+    public interface OperationMXBean {
+        long getCalls();
+
+        long getErrors();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP90Micros();
+
+        double getP99Micros();
+
+        double getMaxMicros();
+    }
+
+    /** The JMX domain of the registered beans. */
+    public static final String JMX_DOMAIN = "org.directedgraph";
+
+    /** Returned by {@link #start()} while metrics are off. */
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+    /** Bucket i < 4 holds exactly i ns; above that, 4 buckets per power of two. */
+    private static final int BUCKETS = 252;
+
+    private static volatile boolean enabled;
+    private static final OperationStats[] operations = new OperationStats[Operation.values().length];
+    private static final AtomicLong searches = new AtomicLong();
+    private static final AtomicLong nodesSettled = new AtomicLong();
+    private static final AtomicLong edgesRelaxed = new AtomicLong();
+    private static final AtomicLong landmarkSearches = new AtomicLong();
+    private static final AtomicLong landmarkNodesSettled = new AtomicLong();
+    private static final AtomicLong landmarkEdgesRelaxed = new AtomicLong();
+    private static volatile int vertices;
+    private static volatile int edges;
+    private static IntSupplier maxOutDegreeScan = () -> 0;
+    /** The cached result of {@link #maxOutDegreeScan}, or -1 before it runs. */
+    private static volatile int maxOutDegree;
+    private static ScheduledExecutorService reporter;
+
+    static {
+        for (Operation operation : Operation.values()) {
+            operations[operation.ordinal()] = new OperationStats();
+        }
+    }
+
+    private GraphMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off. Counts recorded so far are kept.
+     *
+     * @param on Whether to record.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return The start time, to be passed to {@link #stop(Operation, long, boolean)}.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records one call of an operation. Calls started while metrics were off
+     * are not recorded.
+     *
+     * @param operation The operation.
+     * @param start     The value returned by {@link #start()}.
+     * @param failed    Whether the call threw.
+     */
+    public static void stop(Operation operation, long start, boolean failed) {
+        if (start == NOT_TIMED || !enabled) {
+            return;
+        }
+        operations[operation.ordinal()].record(System.nanoTime() - start, failed);
+    }
+
+    /**
+     * Adds the work of one Dijkstra search.
+     *
+     * @param settled The number of vertices taken from the heap.
+     * @param relaxed The number of edges scanned from them.
+     */
+    public static void dijkstraSearch(long settled, long relaxed) {
+        if (!enabled) {
+            return;
+        }
+        searches.incrementAndGet();
+        nodesSettled.addAndGet(settled);
+        edgesRelaxed.addAndGet(relaxed);
+    }
+
+    /**
+     * Adds the work of one landmark A* search, counted apart from the plain
+     * Dijkstra searches so the two can be compared.
+     *
+     * @param settled The number of vertices taken from the heap.
+     * @param relaxed The number of edges scanned from them.
+     */
+    public static void landmarkSearch(long settled, long relaxed) {
+        if (!enabled) {
+            return;
+        }
+        landmarkSearches.incrementAndGet();
+        landmarkNodesSettled.addAndGet(settled);
+        landmarkEdgesRelaxed.addAndGet(relaxed);
+    }
+
+    /**
+     * Sets the graph gauges. This is called whenever the current graph is
+     * replaced, whether or not metrics are on.
+     *
+     * @param vertexCount  The number of vertices.
+     * @param edgeCount    The number of edges.
+     * @param maxOutDegree The largest out-degree of any vertex.
+     */
+    public static void graphSize(int vertexCount, int edgeCount, int maxOutDegree) {
+        graphSize(vertexCount, edgeCount, () -> maxOutDegree);
+    }
+
+    /**
+     * Sets the graph gauges, deferring the largest out-degree. Finding it
+     * takes a pass over all vertices, which on a memory-mapped graph would
+     * page in the offsets at startup, so the scan only runs when the gauge is
+     * first read.
+     *
+     * @param vertexCount      The number of vertices.
+     * @param edgeCount        The number of edges.
+     * @param maxOutDegreeScan Computes the largest out-degree of any vertex.
+     */
+    public static synchronized void graphSize(int vertexCount, int edgeCount, IntSupplier maxOutDegreeScan) {
+        vertices = vertexCount;
+        edges = edgeCount;
+        GraphMetrics.maxOutDegreeScan = maxOutDegreeScan;
+        maxOutDegree = -1;
+    }
+
+    /**
+     * Sets the graph gauges from a word graph.
+     *
+     * @param graph The current graph.
+     */
+    public static void graphSize(WordGraph graph) {
+        graphSize(graph.vertexCount(), graph.edgeCount(), () -> {
+            int max = 0;
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                max = Math.max(max, graph.outDegree(v));
+            }
+            return max;
+        });
+    }
+
+    /**
+     * Returns the largest out-degree of the current graph, scanning it on
+     * the first call after the graph changed.
+     *
+     * @return The largest out-degree.
+     */
+    public static int maxOutDegree() {
+        int max = maxOutDegree;
+        if (max >= 0) {
+            return max;
+        }
+        synchronized (GraphMetrics.class) {
+            if (maxOutDegree < 0) {
+                maxOutDegree = maxOutDegreeScan.getAsInt();
+            }
+            return maxOutDegree;
+        }
+    }
+
+    public static long calls(Operation operation) {
+        return operations[operation.ordinal()].calls.get();
+    }
+
+    public static long errors(Operation operation) {
+        return operations[operation.ordinal()].errors.get();
+    }
+
+    /**
+     * Returns a latency percentile of an operation.
+     *
+     * @param operation The operation.
+     * @param quantile  The quantile, between 0 and 1.
+     * @return The upper bound of the bucket holding the percentile in
+     *         nanoseconds, or 0 if the operation has no calls.
+     */
+    public static long percentileNanos(Operation operation, double quantile) {
+        return operations[operation.ordinal()].percentile(quantile);
+    }
+
+    public static long dijkstraSearches() {
+        return searches.get();
+    }
+
+    public static long nodesSettled() {
+        return nodesSettled.get();
+    }
+
+    public static long edgesRelaxed() {
+        return edgesRelaxed.get();
+    }
+
+    public static long landmarkSearches() {
+        return landmarkSearches.get();
+    }
+
+    public static long landmarkNodesSettled() {
+        return landmarkNodesSettled.get();
+    }
+
+    public static long landmarkEdgesRelaxed() {
+        return landmarkEdgesRelaxed.get();
+    }
+
+    /**
+     * Clears all counters and histograms. The graph gauges are kept.
+     */
+    public static void reset() {
+        for (OperationStats stats : operations) {
+            stats.reset();
+        }
+        searches.set(0);
+        nodesSettled.set(0);
+        edgesRelaxed.set(0);
+        landmarkSearches.set(0);
+        landmarkNodesSettled.set(0);
+        landmarkEdgesRelaxed.set(0);
+    }
+
+    /**
+     * Formats all metrics as a plain text table.
+     *
+     * @return The report.
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("graph: vertices=").append(vertices).append(" edges=").append(edges)
+                .append(" maxOutDegree=").append(maxOutDegree()).append('\n');
+        sb.append("dijkstra: searches=").append(searches.get()).append(" nodesSettled=").append(nodesSettled.get())
+                .append(" edgesRelaxed=").append(edgesRelaxed.get()).append('\n');
+        sb.append("landmarks: searches=").append(landmarkSearches.get()).append(" nodesSettled=").append(landmarkNodesSettled.get())
+                .append(" edgesRelaxed=").append(landmarkEdgesRelaxed.get()).append('\n');
+        sb.append(String.format("%-18s %10s %8s %12s %12s %12s %12s %12s%n",
+                "operation", "calls", "errors", "mean(us)", "p50(us)", "p90(us)", "p99(us)", "max(us)"));
+        for (Operation operation : Operation.values()) {
+            OperationStats stats = operations[operation.ordinal()];
+            sb.append(String.format("%-18s %10d %8d %12.1f %12.1f %12.1f %12.1f %12.1f%n",
+                    operation.displayName(), stats.calls.get(), stats.errors.get(), stats.meanMicros(),
+                    stats.percentile(0.50) / 1000.0, stats.percentile(0.90) / 1000.0,
+                    stats.percentile(0.99) / 1000.0, stats.max.get() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, as
+     * {@code org.directedgraph:type=GraphMetrics} and one
+     * {@code org.directedgraph:type=Operation,name=...} per operation.
+     * Registering again does nothing.
+     */
+    public static synchronized void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName graphName = new ObjectName(JMX_DOMAIN + ":type=GraphMetrics");
+            if (server.isRegistered(graphName)) {
+                return;
+            }
+            server.registerMBean(new StandardMBean(new GraphBean(), GraphMXBean.class, true), graphName);
+            for (Operation operation : Operation.values()) {
+                ObjectName name = new ObjectName(JMX_DOMAIN + ":type=Operation,name=" + operation.displayName());
+                server.registerMBean(new StandardMBean(operations[operation.ordinal()], OperationMXBean.class, true), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register the metrics MBeans", e);
+        }
+    }
+
+    /**
+     * Writes {@link #report()} to a file at a fixed rate from a daemon thread,
+     * replacing the previous report each time. Starting a reporter stops the
+     * previous one.
+     *
+     * @param file   The report file.
+     * @param period The time between two reports.
+     * @param unit   The unit of the period.
+     * @return The scheduled task; cancel it to stop reporting.
+     */
+    public static synchronized ScheduledFuture<?> startReporter(Path file, long period, TimeUnit unit) {
+        stopReporter();
+        reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "graph-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return reporter.scheduleAtFixedRate(() -> {
+            try {
+                Path partial = file.resolveSibling(file.getFileName() + ".part");
+                Files.write(partial, report().getBytes(StandardCharsets.UTF_8));
+                Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                System.out.println("指标写入失败：" + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops the reporter started by {@link #startReporter(Path, long, TimeUnit)}, if any.
+     */
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < 4) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        return (exponent - 1) * 4 + (int) ((nanos >>> (exponent - 2)) & 3);
+    }
+
+    static long bucketUpperBound(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int shift = bucket / 4 - 1;
+        long next = (long) (4 + bucket % 4 + 1) << shift;
+        // 最后一个桶的上界超出 long 的范围
+        return next <= 0 ? Long.MAX_VALUE : next - 1;
+    }
+
+    /**
+     * The counters of one operation.
+     */
+    private static final class OperationStats implements OperationMXBean {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong max = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos, boolean failed) {
+            calls.incrementAndGet();
+            if (failed) {
+                errors.incrementAndGet();
+            }
+            totalNanos.addAndGet(nanos);
+            histogram.incrementAndGet(bucket(nanos));
+            long current;
+            while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+                // 其他线程同时更新了最大值，重新比较
+            }
+        }
+
+        long percentile(double quantile) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += histogram.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        void reset() {
+            calls.set(0);
+            errors.set(0);
+            totalNanos.set(0);
+            max.set(0);
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram.set(i, 0);
+            }
+        }
+
+        double meanMicros() {
+            long count = calls.get();
+            return count == 0 ? 0.0 : totalNanos.get() / 1000.0 / count;
+        }
+
+        @Override
+        public long getCalls() {
+            return calls.get();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.get();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return meanMicros();
+        }
+
+        @Override
+        public double getP50Micros() {
+            return percentile(0.50) / 1000.0;
+        }
+
+        @Override
+        public double getP90Micros() {
+            return percentile(0.90) / 1000.0;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return percentile(0.99) / 1000.0;
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return max.get() / 1000.0;
+        }
+    }
+
+    private static final class GraphBean implements GraphMXBean {
+        @Override
+        public boolean isEnabled() {
+            return GraphMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            GraphMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public int getVertices() {
+            return vertices;
+        }
+
+        @Override
+        public int getEdges() {
+            return edges;
+        }
+
+        @Override
+        public int getMaxOutDegree() {
+            return maxOutDegree();
+        }
+
+        @Override
+        public long getDijkstraSearches() {
+            return dijkstraSearches();
+        }
+
+        @Override
+        public long getNodesSettled() {
+            return nodesSettled();
+        }
+
+        @Override
+        public long getEdgesRelaxed() {
+            return edgesRelaxed();
+        }
+
+        @Override
+        public long getLandmarkSearches() {
+            return landmarkSearches();
+        }
+
+        @Override
+        public long getLandmarkNodesSettled() {
+            return landmarkNodesSettled();
+        }
+
+        @Override
+        public long getLandmarkEdgesRelaxed() {
+            return landmarkEdgesRelaxed();
+        }
+
+        @Override
+        public String getReport() {
+            return report();
+        }
+
+        @Override
+        public void reset() {
+            GraphMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package org.directedgraph;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A local HTTP endpoint serving the graph queries to many concurrent callers.
+ *
+ * <p>Every request runs on its own thread (a virtual thread when the JDK has
+ * them) and reads one immutable {@link GraphSnapshot}, taken from the supplier
+ * when the request starts. At most {@code maxConcurrent} requests run at once
+ * and at most {@code queueCapacity} more may wait for a slot; anything beyond
+ * that is rejected with 503 so overload does not pile up threads.
+ *
+ * <pre>
+ * GET  /bridge?word1=A&amp;word2=B
+ * GET  /path?word1=A[&amp;word2=B]
+ * GET  /walk[?seed=N&amp;maxSteps=N]
+ * POST /generate[?seed=N]      body: the text
+ * POST /batch                  body: one command per line, see {@link QueryCommands}
+ * GET  /words[?limit=N]        a sample of words, one per line
+ * </pre>
+ *
+ * A batch answers every line against the same snapshot and returns one result
+ * per line in input order, formatted by {@link BatchRunner}; render commands
+ * are refused. A server over a {@link GraphRegistry} takes the graph from the
+ * {@code graph} parameter of each request, falling back to a default name.
+ */
+public final class GraphQueryServer {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SnapshotSource snapshots;
+    private final Semaphore running;
+    private final int queueCapacity;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * Creates a server; call {@link #start()} to accept requests.
+     *
+     * @param port          The port to bind on localhost, or 0 for any free port.
+     * @param snapshots     Supplies the snapshot each request runs against.
+     * @param maxConcurrent The maximum number of requests running at once.
+     * @param queueCapacity The maximum number of requests waiting for a slot.
+     * @throws IOException If the port cannot be bound.
+     */
+    public GraphQueryServer(int port, Supplier<GraphSnapshot> snapshots, int maxConcurrent, int queueCapacity) throws IOException {
+        this(port, name -> snapshots.get(), maxConcurrent, queueCapacity);
+    }
+
+    /**
+     * Creates a server over several named graphs; call {@link #start()} to
+     * accept requests. Graphs are loaded by the registry when first asked for.
+     *
+     * @param port          The port to bind on localhost, or 0 for any free port.
+     * @param registry      The graphs.
+     * @param defaultGraph  The graph of requests without a {@code graph} parameter.
+     * @param maxConcurrent The maximum number of requests running at once.
+     * @param queueCapacity The maximum number of requests waiting for a slot.
+     * @throws IOException If the port cannot be bound.
+     */
+    public GraphQueryServer(int port, GraphRegistry registry, String defaultGraph, int maxConcurrent, int queueCapacity) throws IOException {
+        this(port, name -> registry.get(name != null ? name : defaultGraph), maxConcurrent, queueCapacity);
+    }
+
+    private GraphQueryServer(int port, SnapshotSource snapshots, int maxConcurrent, int queueCapacity) throws IOException {
+        this.snapshots = snapshots;
+        this.running = new Semaphore(maxConcurrent);
+        this.queueCapacity = queueCapacity;
+        this.executor = newThreadPerRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/bridge", guarded(this::bridge));
+        server.createContext("/path", guarded(this::path));
+        server.createContext("/walk", guarded(this::walk));
+        server.createContext("/generate", guarded(this::generate));
+        server.createContext("/batch", guarded(this::batch));
+        server.createContext("/words", guarded(this::words));
+    }
+
+    /**
+     * Starts a server on the graph of a text file.
+     * Usage: {@code GraphQueryServer [file] [port] [maxConcurrent] [queueCapacity]}.
+     *
+     * @param args Command line arguments.
+     * @throws IOException If the file cannot be read or the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        String fileName = args.length > 0 ? args[0] : "input.txt";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int maxConcurrent = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors() * 4;
+        int queueCapacity = args.length > 3 ? Integer.parseInt(args[3]) : 1024;
+        GraphSnapshot snapshot = new GraphSnapshot(0, CompactGraph.of(DirectedGraph.buildGraphFromFile(fileName)));
+        GraphQueryServer server = new GraphQueryServer(port, () -> snapshot, maxConcurrent, queueCapacity);
+        server.start();
+        System.out.println("Serving " + snapshot + " on http://127.0.0.1:" + server.port() + "/");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given delay for running ones.
+     *
+     * @param delaySeconds The maximum time to wait, in seconds.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns a thread-per-task executor, using virtual threads when available.
+     */
+    static ExecutorService newThreadPerRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private String bridge(HttpExchange exchange, GraphSnapshot snapshot) {
+        Map<String, String> query = query(exchange);
+        return QueryCommands.bridge(snapshot, require(query, "word1"), require(query, "word2"));
+    }
+
+    private String path(HttpExchange exchange, GraphSnapshot snapshot) {
+        Map<String, String> query = query(exchange);
+        return QueryCommands.path(snapshot, require(query, "word1"), query.getOrDefault("word2", ""));
+    }
+
+    private String walk(HttpExchange exchange, GraphSnapshot snapshot) {
+        Map<String, String> query = query(exchange);
+        long seed = query.containsKey("seed") ? Long.parseLong(query.get("seed")) : System.nanoTime();
+        int maxSteps = query.containsKey("maxSteps") ? Integer.parseInt(query.get("maxSteps")) : 0;
+        return QueryCommands.walk(snapshot, seed, maxSteps);
+    }
+
+    private String generate(HttpExchange exchange, GraphSnapshot snapshot) throws IOException {
+        Map<String, String> query = query(exchange);
+        long seed = query.containsKey("seed") ? Long.parseLong(query.get("seed")) : System.nanoTime();
+        return QueryCommands.generate(snapshot, body(exchange), seed);
+    }
+
+    private String batch(HttpExchange exchange, GraphSnapshot snapshot) throws IOException {
+        StringWriter out = new StringWriter();
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            // 服务端不允许写文件，render 命令会返回错误
+            new BatchRunner(snapshot, 1, false).run(reader, out);
+        }
+        return out.toString();
+    }
+
+    private String words(HttpExchange exchange, GraphSnapshot snapshot) {
+        Map<String, String> query = query(exchange);
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : 100;
+        WordGraph graph = snapshot.graph();
+        StringBuilder sb = new StringBuilder();
+        for (int v = 0; v < Math.min(limit, graph.vertexCount()); v++) {
+            sb.append(graph.word(v)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private HttpHandler guarded(Operation operation) {
+        return exchange -> {
+            try {
+                if (!admit()) {
+                    respond(exchange, 503, "Server busy, try again later.");
+                    return;
+                }
+                try {
+                    GraphSnapshot snapshot = snapshots.get(query(exchange).get("graph"));
+                    respond(exchange, 200, operation.run(exchange, snapshot));
+                } catch (IllegalArgumentException e) {
+                    respond(exchange, 400, e.getMessage());
+                } catch (RuntimeException | IOException e) {
+                    respond(exchange, 500, String.valueOf(e));
+                } finally {
+                    running.release();
+                }
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    /**
+     * Takes a running slot, waiting in the bounded queue if necessary.
+     */
+    private boolean admit() {
+        if (running.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > queueCapacity) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            running.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String body(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            try {
+                String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+                params.put(key, value);
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return params;
+    }
+
+    private static String require(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private interface Operation {
+        String run(HttpExchange exchange, GraphSnapshot snapshot) throws IOException;
+    }
+
+    private interface SnapshotSource {
+        GraphSnapshot get(String name) throws IOException;
+    }
+}
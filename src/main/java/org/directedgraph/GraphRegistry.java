@@ -0,0 +1,270 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named word graphs, loaded on demand and evicted when they no longer fit in
+ * a memory budget.
+ *
+ * <p>Every query goes through a handle: {@link #get(String)} returns the
+ * current {@link GraphSnapshot} of a graph, which never changes, so a query
+ * keeps a consistent graph while the entry is replaced, reloaded or evicted.
+ * Graphs registered with a loader are loaded on first use, and when the
+ * estimated heap size of the loaded graphs exceeds the budget, the least
+ * recently used ones are dropped until it fits again; they are loaded again
+ * the next time they are asked for. Graphs added with
+ * {@link #put(String, WordGraph)} cannot be reloaded and are never evicted.
+ *
+ * <p>Corpora read through the registry intern their words in one shared
+ * {@link WordInterner}, so vocabularies that overlap are stored once. Each
+ * load interns only its distinct words, so parallel loads contend for the
+ * interner once per word of the vocabulary, not once per token. The
+ * size estimate of a graph covers its own arrays but not these shared strings;
+ * memory-mapped graphs live outside the heap and count as zero.
+ *
+ * <p>Different graphs load in parallel; concurrent requests for the same
+ * graph wait for a single load.
+ */
+public final class GraphRegistry {
+    /**
+     * Loads a graph. Word strings should be taken from the interner.
+     */
+    public interface Loader {
+        WordGraph load(WordInterner interner) throws IOException;
+    }
+
+    private final long memoryBudget;
+    private final WordInterner interner = new WordInterner();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param memoryBudget The estimated heap bytes the loaded graphs may use together.
+     */
+    public GraphRegistry(long memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("memoryBudget must not be negative: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    public WordInterner interner() {
+        return interner;
+    }
+
+    public long memoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Registers a graph to be loaded on first use, replacing any graph of
+     * that name. Queries already running on the old graph are not affected.
+     *
+     * @param name   The name of the graph.
+     * @param loader Loads the graph.
+     */
+    public synchronized void register(String name, Loader loader) {
+        drop(entries.put(name, new Entry(loader)));
+    }
+
+    /**
+     * Registers a text corpus; the graph is built from it on first use.
+     *
+     * @param name The name of the graph.
+     * @param file The text file.
+     */
+    public void registerCorpus(String name, Path file) {
+        register(name, interner -> {
+            List<String> words = new ArrayList<>();
+            // 先在本次加载内去重，共享的 interner 每个不同的词只加锁一次
+            Map<String, String> distinct = new HashMap<>();
+            WordTokenizer.tokenize(file, word -> words.add(distinct.computeIfAbsent(word, interner::intern)));
+            return new ParallelGraphBuilder().buildCompactGraph(words);
+        });
+    }
+
+    /**
+     * Registers a binary graph file written by {@link GraphFile}; it is
+     * mapped on first use.
+     *
+     * @param name The name of the graph.
+     * @param file The graph file.
+     */
+    public void registerGraphFile(String name, Path file) {
+        register(name, interner -> MappedGraph.open(file));
+    }
+
+    /**
+     * Adds a graph that is already built. It stays loaded until it is
+     * replaced or removed.
+     *
+     * @param name  The name of the graph.
+     * @param graph The graph.
+     * @return The snapshot of the graph.
+     */
+    public synchronized GraphSnapshot put(String name, WordGraph graph) {
+        Entry entry = new Entry(null);
+        drop(entries.put(name, entry));
+        publish(entry, graph);
+        return entry.snapshot;
+    }
+
+    /**
+     * Removes a graph.
+     *
+     * @param name The name of the graph.
+     * @return Whether a graph of that name was registered.
+     */
+    public synchronized boolean remove(String name) {
+        Entry entry = entries.remove(name);
+        drop(entry);
+        return entry != null;
+    }
+
+    /**
+     * Returns the current snapshot of a graph, loading the graph if needed.
+     *
+     * @param name The name of the graph.
+     * @return The snapshot.
+     * @throws IOException If the graph has to be loaded and loading fails.
+     * @throws IllegalArgumentException If no graph has that name.
+     */
+    public GraphSnapshot get(String name) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(name);
+        }
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown graph: " + name);
+        }
+        GraphSnapshot snapshot = entry.snapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (entry) {
+            snapshot = entry.snapshot;
+            if (snapshot == null) {
+                WordGraph graph = entry.loader.load(interner);
+                synchronized (this) {
+                    // 加载期间这个名字可能已被替换或删除，那样结果只给本次调用用
+                    if (entries.get(name) != entry) {
+                        return new GraphSnapshot(0, graph);
+                    }
+                    publish(entry, graph);
+                    snapshot = entry.snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the loaded graph of an entry, so that the next query loads it
+     * again, e.g. after its corpus file changed.
+     *
+     * @param name The name of the graph.
+     */
+    public synchronized void invalidate(String name) {
+        Entry entry = entries.get(name);
+        if (entry != null && entry.loader != null) {
+            unload(entry);
+        }
+    }
+
+    public synchronized boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    public synchronized boolean isLoaded(String name) {
+        Entry entry = entries.get(name);
+        return entry != null && entry.snapshot != null;
+    }
+
+    /**
+     * Returns the names of the graphs, least recently used first.
+     *
+     * @return The names.
+     */
+    public synchronized List<String> names() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Returns the estimated heap bytes of the loaded graphs.
+     *
+     * @return The estimated number of bytes.
+     */
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Estimates the heap bytes of a graph, excluding the word strings.
+     *
+     * @param graph The graph.
+     * @return The estimated number of bytes; 0 for graphs that are not on the heap.
+     */
+    public static long estimateBytes(WordGraph graph) {
+        return graph instanceof CompactGraph ? ((CompactGraph) graph).estimateBytes() : 0;
+    }
+
+    private void publish(Entry entry, WordGraph graph) {
+        entry.snapshot = new GraphSnapshot(++entry.version, graph);
+        entry.bytes = estimateBytes(graph);
+        usedBytes += entry.bytes;
+        evict(entry);
+    }
+
+    /**
+     * Unloads least recently used graphs until the budget is met, keeping the
+     * one just loaded and those that cannot be reloaded.
+     */
+    private void evict(Entry keep) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > memoryBudget && it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry != keep && entry.loader != null && entry.snapshot != null) {
+                unload(entry);
+            }
+        }
+    }
+
+    private void drop(Entry entry) {
+        if (entry != null && entry.snapshot != null) {
+            unload(entry);
+        }
+    }
+
+    private void unload(Entry entry) {
+        if (entry.snapshot != null) {
+            usedBytes -= entry.bytes;
+            entry.snapshot = null;
+            entry.bytes = 0;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "GraphRegistry[graphs=" + entries.size() + ", usedBytes=" + usedBytes + ", budget=" + memoryBudget + "]";
+    }
+
+    private static final class Entry {
+        final Loader loader;
+        volatile GraphSnapshot snapshot;
+        long bytes;
+        long version;
+
+        Entry(Loader loader) {
+            this.loader = loader;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package org.directedgraph;
+
+import com.mxgraph.layout.hierarchical.mxHierarchicalLayout;
+import com.mxgraph.util.mxPoint;
+import com.mxgraph.view.mxCellState;
+import com.mxgraph.view.mxGraph;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+
+/**
+ * Renders a frozen word graph without a display.
+ *
+ * <p>The hierarchical layout is the expensive part of drawing the graph, so it
+ * is computed once per graph and kept: a renderer is bound to one
+ * {@link WordGraph}, and since a frozen graph never changes, a new graph
+ * version simply gets a new renderer. Highlighting a path only changes the
+ * stroke of a few edges when the cached layout is drawn. DOT output needs no
+ * layout at all, and DOT and SVG are streamed to a writer instead of being
+ * rasterized.
+ *
+ * <p>{@link #renderAsync} runs the layout and the drawing on a single
+ * background thread shared by all renderers, so queries never wait for it.
+ */
+public final class GraphRenderer {
+    private static final ExecutorService RENDER_THREAD = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "graph-renderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int MARGIN = 10;
+    private static final int VERTEX_HEIGHT = 30;
+    private static final String FILL = "#C3D9FF";
+    private static final String STROKE = "#6482B9";
+    private static final String HIGHLIGHT = "#FF0000";
+
+    /**
+     * The output formats.
+     */
+    public enum Format {
+        DOT("dot"),
+        SVG("svg"),
+        PNG("png");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final WordGraph graph;
+    private volatile Layout layout;
+
+    /**
+     * Creates a renderer for a graph. The layout is computed on first use.
+     *
+     * @param graph The graph.
+     */
+    public GraphRenderer(WordGraph graph) {
+        this.graph = graph;
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns whether the layout has been computed yet.
+     *
+     * @return {@code true} if drawing no longer needs a layout pass.
+     */
+    public boolean isLaidOut() {
+        return layout != null;
+    }
+
+    /**
+     * Renders the graph to a file on the background render thread.
+     *
+     * @param path   The words of the path to highlight, or an empty list.
+     * @param format The output format.
+     * @param file   The output file.
+     * @return A future completed with the file once it is written.
+     */
+    public CompletableFuture<Path> renderAsync(List<String> path, Format format, Path file) {
+        return renderPathsAsync(path == null ? Collections.<List<String>>emptyList() : Collections.singletonList(path), format, file);
+    }
+
+    /**
+     * Renders the graph to a file on the background render thread,
+     * highlighting the edges of several paths, e.g. of all shortest paths.
+     *
+     * @param paths  The paths to highlight, each as a list of words.
+     * @param format The output format.
+     * @param file   The output file.
+     * @return A future completed with the file once it is written.
+     */
+    public CompletableFuture<Path> renderPathsAsync(Collection<? extends List<String>> paths, Format format, Path file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                renderPaths(paths, format, file);
+                return file;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot write " + file, e);
+            }
+        }, RENDER_THREAD);
+    }
+
+    /**
+     * Renders the graph to a file on the calling thread.
+     *
+     * @param path   The words of the path to highlight, or an empty list.
+     * @param format The output format.
+     * @param file   The output file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void render(List<String> path, Format format, Path file) throws IOException {
+        renderPaths(path == null ? Collections.<List<String>>emptyList() : Collections.singletonList(path), format, file);
+    }
+
+    /**
+     * Renders the graph to a file on the calling thread, highlighting the
+     * edges of several paths.
+     *
+     * @param paths  The paths to highlight, each as a list of words.
+     * @param format The output format.
+     * @param file   The output file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void renderPaths(Collection<? extends List<String>> paths, Format format, Path file) throws IOException {
+        BitSet highlighted = highlightedEdges(paths);
+        if (format == Format.PNG) {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                ImageIO.write(renderImage(highlighted), "PNG", out);
+            }
+            return;
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (format == Format.DOT) {
+                writeDot(out, highlighted);
+            } else {
+                writeSvg(out, highlighted);
+            }
+        }
+    }
+
+    /**
+     * Streams the graph in Graphviz DOT format. Highlighted edges are red.
+     *
+     * @param out  The destination; it is flushed but not closed.
+     * @param path The words of the path to highlight, or an empty list.
+     * @throws IOException If writing fails.
+     */
+    public void writeDot(Writer out, List<String> path) throws IOException {
+        writeDot(out, highlightedEdges(path));
+    }
+
+    private void writeDot(Writer out, BitSet highlighted) throws IOException {
+        Writer writer = buffered(out);
+        writer.write("digraph G {\n");
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            writer.write("  " + dotId(graph.word(v)) + ";\n");
+        }
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                writer.write("  " + dotId(graph.word(u)) + " -> " + dotId(graph.word(graph.target(e)))
+                        + " [label=\"" + graph.weight(e) + "\""
+                        + (highlighted.get(e) ? ", color=red, penwidth=3" : "") + "];\n");
+            }
+        }
+        writer.write("}\n");
+        writer.flush();
+    }
+
+    /**
+     * Streams the laid-out graph as SVG. Highlighted edges are red and thick.
+     *
+     * @param out  The destination; it is flushed but not closed.
+     * @param path The words of the path to highlight, or an empty list.
+     * @throws IOException If writing fails.
+     */
+    public void writeSvg(Writer out, List<String> path) throws IOException {
+        writeSvg(out, highlightedEdges(path));
+    }
+
+    private void writeSvg(Writer out, BitSet highlighted) throws IOException {
+        Layout layout = layout();
+        Writer writer = buffered(out);
+        writer.write(String.format(Locale.ROOT,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%.0f\" height=\"%.0f\" font-family=\"sans-serif\" font-size=\"11\">\n",
+                layout.width, layout.height));
+        writer.write("<defs>"
+                + "<marker id=\"a\" markerWidth=\"8\" markerHeight=\"8\" refX=\"7\" refY=\"4\" orient=\"auto\"><path d=\"M0,0 L8,4 L0,8 z\" fill=\"" + STROKE + "\"/></marker>"
+                + "<marker id=\"h\" markerWidth=\"8\" markerHeight=\"8\" refX=\"7\" refY=\"4\" orient=\"auto\"><path d=\"M0,0 L8,4 L0,8 z\" fill=\"" + HIGHLIGHT + "\"/></marker>"
+                + "</defs>\n");
+        writer.write("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            double[] points = layout.edgePoints[e];
+            boolean hot = highlighted.get(e);
+            StringBuilder sb = new StringBuilder("<polyline fill=\"none\" points=\"");
+            for (int i = 0; i < points.length; i += 2) {
+                sb.append(i == 0 ? "" : " ").append(coordinate(points[i])).append(',').append(coordinate(points[i + 1]));
+            }
+            sb.append("\" stroke=\"").append(hot ? HIGHLIGHT : STROKE)
+                    .append("\" stroke-width=\"").append(hot ? 3 : 1)
+                    .append("\" marker-end=\"url(#").append(hot ? 'h' : 'a').append(")\"/>\n");
+            double[] label = labelPosition(points);
+            sb.append("<text x=\"").append(coordinate(label[0])).append("\" y=\"").append(coordinate(label[1]))
+                    .append("\" text-anchor=\"middle\">").append(graph.weight(e)).append("</text>\n");
+            writer.write(sb.toString());
+        }
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            double x = layout.vertexX[v];
+            double y = layout.vertexY[v];
+            double w = layout.vertexWidth[v];
+            writer.write("<rect x=\"" + coordinate(x) + "\" y=\"" + coordinate(y) + "\" width=\"" + coordinate(w)
+                    + "\" height=\"" + VERTEX_HEIGHT + "\" rx=\"5\" fill=\"" + FILL + "\" stroke=\"" + STROKE + "\"/>\n");
+            writer.write("<text x=\"" + coordinate(x + w / 2) + "\" y=\"" + coordinate(y + VERTEX_HEIGHT / 2.0 + 4)
+                    + "\" text-anchor=\"middle\">" + escapeXml(graph.word(v)) + "</text>\n");
+        }
+        writer.write("</svg>\n");
+        writer.flush();
+    }
+
+    /**
+     * Rasterizes the laid-out graph at twice its natural size.
+     *
+     * @param path The words of the path to highlight, or an empty list.
+     * @return The image.
+     */
+    public BufferedImage renderImage(List<String> path) {
+        return renderImage(highlightedEdges(path));
+    }
+
+    private BufferedImage renderImage(BitSet highlighted) {
+        Layout layout = layout();
+        int scale = 2;
+        BufferedImage image = new BufferedImage((int) Math.ceil(layout.width * scale), (int) Math.ceil(layout.height * scale),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.scale(scale, scale);
+            g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
+            FontMetrics metrics = g.getFontMetrics();
+            Color stroke = Color.decode(STROKE);
+            Color highlight = Color.decode(HIGHLIGHT);
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                double[] points = layout.edgePoints[e];
+                boolean hot = highlighted.get(e);
+                g.setColor(hot ? highlight : stroke);
+                g.setStroke(new BasicStroke(hot ? 3f : 1f));
+                Path2D line = new Path2D.Double();
+                line.moveTo(points[0], points[1]);
+                for (int i = 2; i < points.length; i += 2) {
+                    line.lineTo(points[i], points[i + 1]);
+                }
+                g.draw(line);
+                drawArrowHead(g, points);
+                g.setColor(Color.BLACK);
+                double[] label = labelPosition(points);
+                String text = String.valueOf(graph.weight(e));
+                g.drawString(text, (float) (label[0] - metrics.stringWidth(text) / 2.0), (float) label[1]);
+            }
+            g.setStroke(new BasicStroke(1f));
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                RoundRectangle2D box = new RoundRectangle2D.Double(layout.vertexX[v], layout.vertexY[v],
+                        layout.vertexWidth[v], VERTEX_HEIGHT, 10, 10);
+                g.setColor(Color.decode(FILL));
+                g.fill(box);
+                g.setColor(stroke);
+                g.draw(box);
+                g.setColor(Color.BLACK);
+                String word = graph.word(v);
+                g.drawString(word, (float) (layout.vertexX[v] + (layout.vertexWidth[v] - metrics.stringWidth(word)) / 2),
+                        (float) (layout.vertexY[v] + VERTEX_HEIGHT / 2.0 + 4));
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Returns the layout, computing it on first use.
+     */
+    Layout layout() {
+        Layout current = layout;
+        if (current == null) {
+            synchronized (this) {
+                current = layout;
+                if (current == null) {
+                    current = Layout.compute(graph);
+                    layout = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private BitSet highlightedEdges(List<String> path) {
+        return highlightedEdges(path == null ? Collections.<List<String>>emptyList() : Collections.singletonList(path));
+    }
+
+    private BitSet highlightedEdges(Collection<? extends List<String>> paths) {
+        BitSet edges = new BitSet(graph.edgeCount());
+        for (List<String> path : paths) {
+            for (int i = 0; i + 1 < path.size(); i++) {
+                int u = graph.idOf(path.get(i));
+                int v = graph.idOf(path.get(i + 1));
+                int e = u < 0 || v < 0 ? -1 : graph.edgeIndex(u, v);
+                if (e >= 0) {
+                    edges.set(e);
+                }
+            }
+        }
+        return edges;
+    }
+
+    private static void drawArrowHead(Graphics2D g, double[] points) {
+        int n = points.length;
+        double x = points[n - 2];
+        double y = points[n - 1];
+        double angle = Math.atan2(y - points[n - 3], x - points[n - 4]);
+        Path2D head = new Path2D.Double();
+        head.moveTo(x, y);
+        head.lineTo(x - 8 * Math.cos(angle - 0.4), y - 8 * Math.sin(angle - 0.4));
+        head.lineTo(x - 8 * Math.cos(angle + 0.4), y - 8 * Math.sin(angle + 0.4));
+        head.closePath();
+        g.fill(head);
+    }
+
+    /**
+     * Places an edge label at the middle of the edge's middle segment.
+     */
+    private static double[] labelPosition(double[] points) {
+        int segment = (points.length / 2 - 1) / 2;
+        int i = segment * 2;
+        return new double[]{(points[i] + points[i + 2]) / 2, (points[i + 1] + points[i + 3]) / 2};
+    }
+
+    private static Writer buffered(Writer out) {
+        return out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+    }
+
+    private static String coordinate(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String dotId(String word) {
+        return "\"" + word.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String escapeXml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * The computed positions of one graph: a box per vertex and a polyline per
+     * edge, shifted so the drawing starts at the margin.
+     */
+    static final class Layout {
+        final double[] vertexX;
+        final double[] vertexY;
+        final double[] vertexWidth;
+        final double[][] edgePoints;
+        final double width;
+        final double height;
+
+        private Layout(double[] vertexX, double[] vertexY, double[] vertexWidth, double[][] edgePoints, double width, double height) {
+            this.vertexX = vertexX;
+            this.vertexY = vertexY;
+            this.vertexWidth = vertexWidth;
+            this.edgePoints = edgePoints;
+            this.width = width;
+            this.height = height;
+        }
+
+        static Layout compute(WordGraph graph) {
+            int n = graph.vertexCount();
+            mxGraph mx = new mxGraph();
+            Object parent = mx.getDefaultParent();
+            Object[] vertices = new Object[n];
+            Object[] edges = new Object[graph.edgeCount()];
+            mx.getModel().beginUpdate();
+            try {
+                for (int v = 0; v < n; v++) {
+                    vertices[v] = mx.insertVertex(parent, null, graph.word(v), 0, 0,
+                            Math.max(40, 7 * graph.word(v).length() + 16), VERTEX_HEIGHT);
+                }
+                for (int u = 0; u < n; u++) {
+                    for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                        edges[e] = mx.insertEdge(parent, null, graph.weight(e), vertices[u], vertices[graph.target(e)]);
+                    }
+                }
+            } finally {
+                mx.getModel().endUpdate();
+            }
+            new mxHierarchicalLayout(mx).execute(parent);
+
+            double[] x = new double[n];
+            double[] y = new double[n];
+            double[] w = new double[n];
+            double minX = Double.MAX_VALUE;
+            double minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxY = -Double.MAX_VALUE;
+            for (int v = 0; v < n; v++) {
+                mxCellState state = mx.getView().getState(vertices[v]);
+                x[v] = state.getX();
+                y[v] = state.getY();
+                w[v] = state.getWidth();
+                minX = Math.min(minX, x[v]);
+                minY = Math.min(minY, y[v]);
+                maxX = Math.max(maxX, x[v] + w[v]);
+                maxY = Math.max(maxY, y[v] + VERTEX_HEIGHT);
+            }
+            double[][] points = new double[edges.length][];
+            for (int e = 0; e < edges.length; e++) {
+                List<mxPoint> absolute = mx.getView().getState(edges[e]).getAbsolutePoints();
+                if (absolute == null || absolute.size() < 2) {
+                    // 自环没有布局点时，画在节点上方
+                    mxCellState box = mx.getView().getState(vertices[graph.target(e)]);
+                    absolute = Arrays.asList(new mxPoint(box.getCenterX() - 10, box.getY()),
+                            new mxPoint(box.getCenterX(), box.getY() - 20), new mxPoint(box.getCenterX() + 10, box.getY()));
+                }
+                points[e] = new double[absolute.size() * 2];
+                for (int i = 0; i < absolute.size(); i++) {
+                    points[e][2 * i] = absolute.get(i).getX();
+                    points[e][2 * i + 1] = absolute.get(i).getY();
+                    minX = Math.min(minX, points[e][2 * i]);
+                    minY = Math.min(minY, points[e][2 * i + 1]);
+                    maxX = Math.max(maxX, points[e][2 * i]);
+                    maxY = Math.max(maxY, points[e][2 * i + 1]);
+                }
+            }
+            if (n == 0) {
+                minX = minY = maxX = maxY = 0;
+            }
+
+            double dx = MARGIN - minX;
+            double dy = MARGIN - minY;
+            for (int v = 0; v < n; v++) {
+                x[v] += dx;
+                y[v] += dy;
+            }
+            for (double[] edge : points) {
+                for (int i = 0; i < edge.length; i += 2) {
+                    edge[i] += dx;
+                    edge[i + 1] += dy;
+                }
+            }
+            return new Layout(x, y, w, points, maxX - minX + 2 * MARGIN, maxY - minY + 2 * MARGIN);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable version of the word graph together with the structures derived
+ * from it. The derived structures are built lazily, at most once per
+ * snapshot, so every query against one snapshot sees the same graph no matter
+ * what is ingested meanwhile.
+ */
+public final class GraphSnapshot {
+    private final long version;
+    private final WordGraph graph;
+    private final DijkstraEngine engine;
+    private final ShortestPathCache shortestPathCache = new ShortestPathCache(64);
+    private volatile BridgeWordIndex bridgeWordIndex;
+    private volatile GraphRenderer renderer;
+    private volatile WordCentrality centrality;
+    private final PathIndexes pathIndexes;
+    private volatile NextWordPredictor predictor;
+    private volatile RandomWalkEngine randomWalkEngine;
+    private final Map<WordCentrality.Measure, WordCentrality.Ranking> rankings = new EnumMap<>(WordCentrality.Measure.class);
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param version The version number, increasing with every published snapshot.
+     * @param graph   The graph.
+     */
+    public GraphSnapshot(long version, WordGraph graph) {
+        this.version = version;
+        this.graph = graph;
+        this.engine = new DijkstraEngine(graph);
+        this.pathIndexes = new PathIndexes(graph, 0);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    public DijkstraEngine engine() {
+        return engine;
+    }
+
+    public ShortestPathCache shortestPathCache() {
+        return shortestPathCache;
+    }
+
+    /**
+     * Returns the bridge word index of this snapshot, building it on first use.
+     *
+     * @return The bridge word index.
+     */
+    public BridgeWordIndex bridgeWordIndex() {
+        BridgeWordIndex index = bridgeWordIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = bridgeWordIndex;
+                if (index == null) {
+                    index = BridgeWordIndex.build(graph);
+                    bridgeWordIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Queries bridge words, see {@link DirectedGraph#queryBridgeWords(BridgeWordIndex, String, String)}.
+     *
+     * @param word1 The first word.
+     * @param word2 The second word.
+     * @return A message describing the bridge words between the two given words.
+     */
+    public String queryBridgeWords(String word1, String word2) {
+        return DirectedGraph.queryBridgeWords(bridgeWordIndex(), word1, word2);
+    }
+
+    /**
+     * Calculates shortest paths, see {@link DirectedGraph#calcShortestPath(WordGraph, ShortestPathCache, String, String)}.
+     *
+     * @param word1 The starting word.
+     * @param word2 The target word.
+     * @return A message describing the shortest path between the two given words.
+     */
+    public String calcShortestPath(String word1, String word2) {
+        return DirectedGraph.calcShortestPath(graph, shortestPathCache, pathIndexes, word1, word2);
+    }
+
+    /**
+     * Returns the reachability index of this snapshot, building it on first use.
+     *
+     * @return The reachability index.
+     */
+    public ReachabilityIndex reachability() {
+        return pathIndexes.reachability();
+    }
+
+    /**
+     * Describes the strongly connected component of a word, see {@link DirectedGraph#describeComponent(String)}.
+     *
+     * @param word The word.
+     * @return A message listing the component of the word.
+     */
+    public String describeComponent(String word) {
+        return DirectedGraph.describeComponent(reachability(), word, 20);
+    }
+
+    /**
+     * Generates a new text, see {@link DirectedGraph#generateNewText(BridgeWordIndex, String)}.
+     *
+     * @param inputText The input text.
+     * @return The new text with bridge words inserted.
+     */
+    public String generateNewText(String inputText) {
+        return DirectedGraph.generateNewText(bridgeWordIndex(), inputText);
+    }
+
+    /**
+     * Returns the random walk engine of this snapshot, building its alias tables on first use.
+     *
+     * @return The random walk engine.
+     */
+    public RandomWalkEngine randomWalkEngine() {
+        RandomWalkEngine walker = randomWalkEngine;
+        if (walker == null) {
+            synchronized (this) {
+                walker = randomWalkEngine;
+                if (walker == null) {
+                    walker = new RandomWalkEngine(graph);
+                    randomWalkEngine = walker;
+                }
+            }
+        }
+        return walker;
+    }
+
+    /**
+     * Performs a weighted random walk, see {@link DirectedGraph#randomWalk(RandomWalkEngine, long, int)}.
+     *
+     * @param seed     The seed; the same seed gives the same walk.
+     * @param maxSteps The maximum number of edges to follow, or 0 for no limit.
+     * @return The words visited, starting with the start word.
+     */
+    public List<String> randomWalk(long seed, int maxSteps) {
+        return DirectedGraph.randomWalk(randomWalkEngine(), seed, maxSteps);
+    }
+
+    /**
+     * Returns a ranking of the words of this snapshot, computing it on first use.
+     *
+     * @param measure What to rank by.
+     * @return The ranking.
+     */
+    public WordCentrality.Ranking ranking(WordCentrality.Measure measure) {
+        synchronized (rankings) {
+            WordCentrality.Ranking ranking = rankings.get(measure);
+            if (ranking == null) {
+                ranking = centrality().rank(measure);
+                rankings.put(measure, ranking);
+            }
+            return ranking;
+        }
+    }
+
+    /**
+     * Lists the most important words, see {@link DirectedGraph#rankWords(WordCentrality.Measure, int)}.
+     *
+     * @param measure What to rank by.
+     * @param k       The maximum number of words to list.
+     * @return A message with the top words and their scores.
+     */
+    public String rankWords(WordCentrality.Measure measure, int k) {
+        return DirectedGraph.describeRanking(ranking(measure), measure, k);
+    }
+
+    /**
+     * Returns the next word predictor of this snapshot, building it on first use.
+     *
+     * @return The predictor.
+     */
+    public NextWordPredictor predictor() {
+        NextWordPredictor current = predictor;
+        if (current == null) {
+            synchronized (this) {
+                current = predictor;
+                if (current == null) {
+                    current = NextWordPredictor.of(graph);
+                    predictor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Lists the most likely next words, see {@link DirectedGraph#predictNextWords(String, int)}.
+     *
+     * @param word The previous word.
+     * @param k    The maximum number of words to list.
+     * @return A message with the next words and their probabilities.
+     */
+    public String predictNextWords(String word, int k) {
+        return DirectedGraph.describePredictions(predictor(), word, k);
+    }
+
+    private WordCentrality centrality() {
+        WordCentrality current = centrality;
+        if (current == null) {
+            synchronized (this) {
+                current = centrality;
+                if (current == null) {
+                    current = new WordCentrality(graph);
+                    centrality = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the renderer of this snapshot, which caches its layout.
+     *
+     * @return The renderer.
+     */
+    public GraphRenderer renderer() {
+        GraphRenderer current = renderer;
+        if (current == null) {
+            synchronized (this) {
+                current = renderer;
+                if (current == null) {
+                    current = new GraphRenderer(graph);
+                    renderer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Renders this graph with a path highlighted, on the calling thread.
+     *
+     * @param path   The words of the path to highlight.
+     * @param format The output format.
+     * @param file   The output file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void highlightPath(List<String> path, GraphRenderer.Format format, Path file) throws IOException {
+        renderer().render(path, format, file);
+    }
+
+    @Override
+    public String toString() {
+        return "GraphSnapshot[version=" + version + ", vertices=" + graph.vertexCount()
+                + ", edges=" + graph.edgeCount() + "]";
+    }
+}
@@ -0,0 +1,116 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap over vertex ids {@code 0..capacity-1} keyed by a double,
+ * with O(log n) decrease-key. Vertices enter the heap only when they are
+ * first reached, so a search touches just the part of the graph it explores.
+ */
+final class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] positions;
+    private final double[] keys;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int vertex) {
+        return positions[vertex] >= 0;
+    }
+
+    /**
+     * Returns the smallest key, which must exist.
+     */
+    double minKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Inserts the vertex, or lowers its key if it is already queued with a larger one.
+     *
+     * @return {@code true} if the heap changed.
+     */
+    boolean insertOrDecrease(int vertex, double key) {
+        int position = positions[vertex];
+        if (position < 0) {
+            keys[vertex] = key;
+            heap[size] = vertex;
+            positions[vertex] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (key < keys[vertex]) {
+            keys[vertex] = key;
+            siftUp(position);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes and returns the vertex with the smallest key.
+     */
+    int poll() {
+        int min = heap[0];
+        positions[min] = -1;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int position) {
+        int vertex = heap[position];
+        double key = keys[vertex];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+
+    private void siftDown(int position) {
+        int vertex = heap[position];
+        double key = keys[vertex];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[child]] = position;
+            position = child;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+}
@@ -0,0 +1,58 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+
+/**
+ * A growable int array.
+ */
+final class IntList {
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(16);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        grow(1);
+        values[size - 1] = value;
+    }
+
+    /**
+     * Appends {@code count} zero slots to be filled with {@link #set(int, int)}.
+     */
+    void grow(int count) {
+        if (size + count > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, size + count));
+        }
+        size += count;
+    }
+
+    int removeLast() {
+        return values[--size];
+    }
+
+    void set(int index, int value) {
+        values[index] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,395 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Landmark distances for goal-directed point-to-point searches (ALT: A*,
+ * landmarks and the triangle inequality).
+ *
+ * <p>A few landmark vertices are picked and the distances from every
+ * landmark to every vertex and from every vertex to every landmark are
+ * computed once; the 2 &times; landmarks searches run in parallel. For any
+ * landmark {@code l}, {@code d(l, t) - d(l, v)} and {@code d(v, l) - d(t, l)}
+ * are lower bounds on {@code d(v, t)}, and their maximum over all landmarks
+ * is a consistent A* heuristic, so a query settles mostly the vertices
+ * towards the target instead of a ball around the source. The bounds also
+ * prove some targets unreachable before searching at all.
+ *
+ * <p>Landmarks are picked greedily, each as far as possible (in hops,
+ * ignoring edge direction) from those already picked, which puts them on
+ * the periphery of the graph where the bounds are tightest. The distances
+ * take {@code 16 * landmarks} bytes per vertex.
+ *
+ * <p>Results are exact: a vertex whose distance still improves after it was
+ * settled, which rounding in the bounds can cause, is queued again. The
+ * index belongs to one frozen graph and can be shared between threads.
+ */
+public final class LandmarkIndex {
+    /** The default number of landmarks. */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    /**
+     * The outcome of one point-to-point search with the work it took.
+     */
+    public static final class Search {
+        private final ShortestPath path;
+        private final long settled;
+        private final long relaxed;
+
+        Search(ShortestPath path, long settled, long relaxed) {
+            this.path = path;
+            this.settled = settled;
+            this.relaxed = relaxed;
+        }
+
+        /**
+         * Returns the shortest path.
+         *
+         * @return The path, or {@code null} if the target is not reachable.
+         */
+        public ShortestPath path() {
+            return path;
+        }
+
+        /**
+         * Returns the number of vertices taken from the heap.
+         *
+         * @return The number of settled vertices.
+         */
+        public long settled() {
+            return settled;
+        }
+
+        /**
+         * Returns the number of edges scanned from settled vertices.
+         *
+         * @return The number of relaxed edges.
+         */
+        public long relaxed() {
+            return relaxed;
+        }
+    }
+
+    private final WordGraph graph;
+    private final int[] landmarks;
+    /** d(l, v) at {@code [v * landmarks + l]}. */
+    private final double[] from;
+    /** d(v, l) at {@code [v * landmarks + l]}. */
+    private final double[] to;
+
+    private LandmarkIndex(WordGraph graph, int[] landmarks, double[] from, double[] to) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Picks landmarks and computes their distances on the common fork-join pool.
+     *
+     * @param graph The graph.
+     * @param count The number of landmarks; fewer are used if the graph is smaller.
+     * @return The index.
+     */
+    public static LandmarkIndex build(WordGraph graph, int count) {
+        return build(graph, count, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Picks landmarks and computes their distances.
+     *
+     * @param graph The graph.
+     * @param count The number of landmarks; fewer are used if the graph is smaller.
+     * @param pool  The pool running the searches.
+     * @return The index.
+     */
+    public static LandmarkIndex build(WordGraph graph, int count, ForkJoinPool pool) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        int[] landmarks = pickLandmarks(graph, Math.min(count, graph.vertexCount()));
+        int k = landmarks.length;
+        int n = graph.vertexCount();
+        double[] from = new double[n * k];
+        double[] to = new double[n * k];
+        // 每个地标一次正向、一次反向搜索，共 2k 个互不相关的任务
+        pool.submit(() -> IntStream.range(0, 2 * k).parallel().forEach(task -> {
+            int l = task >> 1;
+            boolean reverse = (task & 1) != 0;
+            double[] distances = distances(graph, landmarks[l], reverse);
+            double[] target = reverse ? to : from;
+            for (int v = 0; v < n; v++) {
+                target[v * k + l] = distances[v];
+            }
+        })).join();
+        return new LandmarkIndex(graph, landmarks, from, to);
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the landmark vertices in the order they were picked.
+     *
+     * @return The vertex ids.
+     */
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Returns the estimated heap bytes of the distance arrays.
+     *
+     * @return The estimated number of bytes.
+     */
+    public long estimateBytes() {
+        return 16L * from.length;
+    }
+
+    /**
+     * Returns the landmark lower bound on the distance between two vertices.
+     *
+     * @param v      The start vertex id.
+     * @param target The target vertex id.
+     * @return A lower bound on {@code d(v, target)}; {@code Infinity} if the
+     *         landmarks prove that {@code target} is not reachable.
+     */
+    public double lowerBound(int v, int target) {
+        int k = landmarks.length;
+        return bound(v * k, target * k);
+    }
+
+    /**
+     * Finds a shortest path with A* and reports the work to {@link GraphMetrics}.
+     *
+     * @param source The source vertex id.
+     * @param target The target vertex id.
+     * @return The shortest path, or {@code null} if the target is not reachable.
+     */
+    public ShortestPath shortestPath(int source, int target) {
+        Search search = search(source, target, true);
+        GraphMetrics.landmarkSearch(search.settled(), search.relaxed());
+        return search.path();
+    }
+
+    /**
+     * Finds a shortest path with A* over the landmark bounds.
+     *
+     * @param source The source vertex id.
+     * @param target The target vertex id.
+     * @return The path and the work the search took.
+     */
+    public Search search(int source, int target) {
+        return search(source, target, true);
+    }
+
+    /**
+     * Finds a shortest path with plain Dijkstra, stopping at the target, for
+     * comparing the work with {@link #search(int, int)}.
+     *
+     * @param source The source vertex id.
+     * @param target The target vertex id.
+     * @return The path and the work the search took.
+     */
+    public Search dijkstra(int source, int target) {
+        return search(source, target, false);
+    }
+
+    private Search search(int source, int target, boolean goalDirected) {
+        if (source == target) {
+            return new Search(new ShortestPath(new int[] {source}, 0.0), 0, 0);
+        }
+        int k = landmarks.length;
+        int targetBase = target * k;
+        if (goalDirected && bound(source * k, targetBase) == Double.POSITIVE_INFINITY) {
+            return new Search(null, 0, 0);
+        }
+        int n = graph.vertexCount();
+        double[] distances = new double[n];
+        int[] parents = new int[n];
+        // 启发值在顶点第一次被访问时才计算，-1 表示还没算过
+        double[] potentials = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+        Arrays.fill(potentials, goalDirected ? -1.0 : 0.0);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        distances[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+        long settled = 0;
+        long relaxed = 0;
+
+        boolean found = false;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled++;
+            if (current == target) {
+                found = true;
+                break;
+            }
+            double base = distances[current];
+            relaxed += graph.outDegree(current);
+            for (int e = graph.outStart(current); e < graph.outEnd(current); e++) {
+                int neighbor = graph.target(e);
+                double newDist = base + graph.weight(e);
+                if (newDist < distances[neighbor]) {
+                    double potential = potentials[neighbor];
+                    if (potential < 0) {
+                        potential = bound(neighbor * k, targetBase);
+                        potentials[neighbor] = potential;
+                    }
+                    if (potential == Double.POSITIVE_INFINITY) {
+                        // 地标证明从这里到不了目标
+                        continue;
+                    }
+                    distances[neighbor] = newDist;
+                    parents[neighbor] = current;
+                    // 已出堆的顶点距离变小时重新入堆，保证结果精确
+                    heap.insertOrDecrease(neighbor, newDist + potential);
+                }
+            }
+        }
+        if (!found) {
+            return new Search(null, settled, relaxed);
+        }
+        int length = 1;
+        for (int at = target; at != source; at = parents[at]) {
+            length++;
+        }
+        int[] vertices = new int[length];
+        for (int at = target, i = length - 1; i >= 0; at = parents[at], i--) {
+            vertices[i] = at;
+        }
+        return new Search(new ShortestPath(vertices, distances[target]), settled, relaxed);
+    }
+
+    /**
+     * Returns the largest triangle inequality bound on d(v, t) given the
+     * offsets of v and t in the distance arrays.
+     */
+    private double bound(int vBase, int tBase) {
+        double best = 0.0;
+        for (int l = 0; l < landmarks.length; l++) {
+            double landmarkToV = from[vBase + l];
+            double landmarkToT = from[tBase + l];
+            double vToLandmark = to[vBase + l];
+            double tToLandmark = to[tBase + l];
+            if (landmarkToV != Double.POSITIVE_INFINITY) {
+                // 地标能到 v 却到不了 t，说明 v 也到不了 t
+                if (landmarkToT == Double.POSITIVE_INFINITY) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                best = Math.max(best, landmarkToT - landmarkToV);
+            }
+            if (tToLandmark != Double.POSITIVE_INFINITY) {
+                // t 能到地标而 v 到不了，说明 v 到不了 t
+                if (vToLandmark == Double.POSITIVE_INFINITY) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                best = Math.max(best, vToLandmark - tToLandmark);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Picks landmarks one by one, each the vertex with the most hops to the
+     * nearest landmark picked so far; the first is the vertex farthest from
+     * the vertex of highest degree. Vertices in other components count as
+     * infinitely far, so every component of a small graph gets a landmark.
+     */
+    private static int[] pickLandmarks(WordGraph graph, int count) {
+        int n = graph.vertexCount();
+        int[] landmarks = new int[count];
+        if (count == 0) {
+            return landmarks;
+        }
+        int[] hops = new int[n];
+        int[] queue = new int[n];
+        int hub = 0;
+        for (int v = 1; v < n; v++) {
+            if (graph.outDegree(v) + graph.inDegree(v) > graph.outDegree(hub) + graph.inDegree(hub)) {
+                hub = v;
+            }
+        }
+        Arrays.fill(hops, Integer.MAX_VALUE);
+        expandHops(graph, hub, hops, queue);
+        for (int i = 0; i < count; i++) {
+            int farthest = 0;
+            for (int v = 1; v < n; v++) {
+                if (hops[v] > hops[farthest]) {
+                    farthest = v;
+                }
+            }
+            if (i > 0 && hops[farthest] == 0) {
+                // 每个顶点都已是地标
+                return Arrays.copyOf(landmarks, i);
+            }
+            landmarks[i] = farthest;
+            if (i == 0) {
+                Arrays.fill(hops, Integer.MAX_VALUE);
+            }
+            expandHops(graph, farthest, hops, queue);
+        }
+        return landmarks;
+    }
+
+    /**
+     * Lowers {@code hops} to the undirected hop distance from a new source
+     * where that is smaller, visiting only the vertices that improve.
+     */
+    private static void expandHops(WordGraph graph, int source, int[] hops, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        hops[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            int next = hops[current] + 1;
+            for (int e = graph.outStart(current); e < graph.outEnd(current); e++) {
+                int neighbor = graph.target(e);
+                if (next < hops[neighbor]) {
+                    hops[neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+            for (int i = graph.inStart(current); i < graph.inEnd(current); i++) {
+                int neighbor = graph.source(i);
+                if (next < hops[neighbor]) {
+                    hops[neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the distances from a vertex to all vertices, or from all
+     * vertices to it when {@code reverse} is set.
+     */
+    private static double[] distances(WordGraph graph, int source, boolean reverse) {
+        int n = graph.vertexCount();
+        double[] distances = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        distances[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            double base = distances[current];
+            int start = reverse ? graph.inStart(current) : graph.outStart(current);
+            int end = reverse ? graph.inEnd(current) : graph.outEnd(current);
+            for (int e = start; e < end; e++) {
+                int neighbor = reverse ? graph.source(e) : graph.target(e);
+                double newDist = base + (reverse ? graph.inWeight(e) : graph.weight(e));
+                if (newDist < distances[neighbor]) {
+                    distances[neighbor] = newDist;
+                    heap.insertOrDecrease(neighbor, newDist);
+                }
+            }
+        }
+        return distances;
+    }
+}
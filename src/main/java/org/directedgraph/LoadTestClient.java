@@ -0,0 +1,227 @@
+package org.directedgraph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A closed-loop load generator for {@link GraphQueryServer}.
+ *
+ * <p>Each client thread sends bridge and path queries over words sampled from
+ * the server's {@code /words} endpoint, one request after the other, and
+ * records the latency of every request that gets a response. A request that
+ * fails with an I/O error, such as a dropped connection, is counted as failed
+ * and the client goes on with the next one. The report gives throughput and
+ * latency percentiles over the answered requests and the number of rejected
+ * or failed requests.
+ */
+public final class LoadTestClient {
+    private final String baseUrl;
+    private final int clients;
+    private final int requestsPerClient;
+
+    /**
+     * Creates a load test.
+     *
+     * @param baseUrl           The server address, e.g. {@code http://127.0.0.1:8080}.
+     * @param clients           The number of concurrent clients.
+     * @param requestsPerClient The number of requests each client sends.
+     */
+    public LoadTestClient(String baseUrl, int clients, int requestsPerClient) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.clients = clients;
+        this.requestsPerClient = requestsPerClient;
+    }
+
+    /**
+     * Runs a load test.
+     * Usage: {@code LoadTestClient [baseUrl] [clients] [requestsPerClient]}.
+     *
+     * @param args Command line arguments.
+     * @throws Exception If the server cannot be reached.
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://127.0.0.1:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        System.out.println(new LoadTestClient(baseUrl, clients, requests).run());
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @return The report.
+     * @throws IOException          If the word sample cannot be fetched.
+     * @throws InterruptedException If interrupted while waiting for the clients.
+     */
+    public Report run() throws IOException, InterruptedException {
+        List<String> words = fetchWords(1000);
+        if (words.isEmpty()) {
+            throw new IOException("Server returned no words");
+        }
+        long[] latencies = new long[clients * requestsPerClient];
+        int[] completed = new int[clients];
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            pool.execute(() -> {
+                Random random = new Random(client);
+                try {
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        String word1 = encode(words.get(random.nextInt(words.size())));
+                        String word2 = encode(words.get(random.nextInt(words.size())));
+                        String path = random.nextBoolean() ? "/bridge" : "/path";
+                        long begin = System.nanoTime();
+                        int status;
+                        try {
+                            status = get(path + "?word1=" + word1 + "&word2=" + word2);
+                        } catch (IOException e) {
+                            // 没有响应的请求不计入延迟
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        latencies[client * requestsPerClient + completed[client]++] = System.nanoTime() - begin;
+                        if (status == 503) {
+                            rejected.incrementAndGet();
+                        } else if (status != 200) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        int answered = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies, c * requestsPerClient, latencies, answered, completed[c]);
+            answered += completed[c];
+        }
+        return new Report(Arrays.copyOf(latencies, answered), elapsed, rejected.get(), failed.get());
+    }
+
+    private List<String> fetchWords(int limit) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/words?limit=" + limit).openConnection();
+        List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    words.add(line);
+                }
+            }
+        }
+        return words;
+    }
+
+    private int get(String pathAndQuery) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + pathAndQuery).openConnection();
+        int status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (body != null) {
+            try (InputStream in = body) {
+                byte[] buffer = new byte[4096];
+                while (in.read(buffer) != -1) {
+                    // 读完响应体，连接才能被复用
+                }
+            }
+        }
+        return status;
+    }
+
+    private static String encode(String word) {
+        try {
+            return URLEncoder.encode(word, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Throughput and latency figures of one load test.
+     */
+    public static final class Report {
+        private final long[] sortedLatencies;
+        private final long elapsedNanos;
+        private final int rejected;
+        private final int failed;
+
+        /**
+         * Creates a report.
+         *
+         * @param latencies    The latencies of the answered requests.
+         * @param elapsedNanos The duration of the test.
+         * @param rejected     The number of requests rejected with 503.
+         * @param failed       The number of requests that failed otherwise.
+         */
+        Report(long[] latencies, long elapsedNanos, int rejected, int failed) {
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+            this.elapsedNanos = elapsedNanos;
+            this.rejected = rejected;
+            this.failed = failed;
+        }
+
+        /**
+         * Returns the number of requests that got a response, rejections and
+         * error statuses included.
+         *
+         * @return The number of answered requests.
+         */
+        public int requests() {
+            return sortedLatencies.length;
+        }
+
+        public double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Returns a latency percentile in microseconds.
+         *
+         * @param percentile The percentile, between 0 and 100.
+         * @return The latency.
+         */
+        public double percentileMicros(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e3;
+        }
+
+        public int rejected() {
+            return rejected;
+        }
+
+        public int failed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests: %d, throughput: %.1f req/s, p50: %.0f us, p99: %.0f us, max: %.0f us, rejected: %d, failed: %d",
+                    requests(), throughput(), percentileMicros(50), percentileMicros(99), percentileMicros(100), rejected, failed);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing map from {@code long} keys to {@code int} values that
+ * remembers insertion order. Entries are stored densely and can be iterated
+ * with {@link #keyAt(int)} and {@link #valueAt(int)}.
+ *
+ * <p>Word pairs are usually packed into the key with {@link #pair(int, int)}.
+ */
+final class LongIntHashMap {
+    private long[] keys;
+    private int[] values;
+    private int[] table;
+    private int size;
+
+    LongIntHashMap() {
+        this(16);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        keys = new long[capacity];
+        values = new int[capacity];
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        Arrays.fill(table, -1);
+    }
+
+    static long pair(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    static int pairSource(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int pairTarget(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, inserting it with value
+     * {@code delta} if absent.
+     *
+     * @return The entry index of the key.
+     */
+    int add(long key, int delta) {
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        int index;
+        while ((index = table[slot]) >= 0) {
+            if (keys[index] == key) {
+                values[index] += delta;
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        index = size++;
+        keys[index] = key;
+        values[index] = delta;
+        table[slot] = index;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return index;
+    }
+
+    /**
+     * Returns the entry index of the key, or -1 if it is absent.
+     */
+    int indexOf(long key) {
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        int index;
+        while ((index = table[slot]) >= 0) {
+            if (keys[index] == key) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value of the key, or 0 if it is absent.
+     */
+    int get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? 0 : values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int index) {
+        return keys[index];
+    }
+
+    int valueAt(int index) {
+        return values[index];
+    }
+
+    void setValueAt(int index, int value) {
+        values[index] = value;
+    }
+
+    long estimateBytes() {
+        return 16L + 8L * keys.length + 16L + 4L * values.length + 16L + 4L * table.length;
+    }
+
+    private void rehash() {
+        int[] grown = new int[table.length * 2];
+        Arrays.fill(grown, -1);
+        int mask = grown.length - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = mix(keys[index]) & mask;
+            while (grown[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = index;
+        }
+        table = grown;
+    }
+
+    static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
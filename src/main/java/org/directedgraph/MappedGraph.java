@@ -0,0 +1,210 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A word graph read straight from a memory-mapped {@link GraphFile}.
+ *
+ * <p>Opening maps each section of the file and reads only the header, so it
+ * takes about the same time for any graph size, and nothing is copied onto
+ * the heap: queries read the CSR arrays through the mapped buffers and the
+ * operating system pages them in on demand. Graphs larger than the heap can
+ * therefore be queried, as long as each section fits in one mapping (2 GB).
+ * Word lookups hash into the stored table and compare UTF-8 bytes; only
+ * {@link #word(int)} creates a string.
+ *
+ * <p>The buffers are only read with absolute gets, so one instance can be
+ * shared by any number of threads.
+ */
+public final class MappedGraph implements WordGraph {
+    private final Path file;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final IntBuffer wordOffsets;
+    private final ByteBuffer wordBytes;
+    private final IntBuffer wordTable;
+    private final int tableMask;
+    private final IntBuffer outOffsets;
+    private final IntBuffer outTargets;
+    private final DoubleBuffer outWeights;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inSources;
+    private final IntBuffer inEdges;
+
+    private MappedGraph(Path file, int vertexCount, int edgeCount, ByteBuffer[] sections) {
+        this.file = file;
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.wordOffsets = sections[GraphFile.WORD_OFFSETS].asIntBuffer();
+        this.wordBytes = sections[GraphFile.WORD_BYTES];
+        this.wordTable = sections[GraphFile.WORD_TABLE].asIntBuffer();
+        this.tableMask = wordTable.capacity() - 1;
+        this.outOffsets = sections[GraphFile.OUT_OFFSETS].asIntBuffer();
+        this.outTargets = sections[GraphFile.OUT_TARGETS].asIntBuffer();
+        this.outWeights = sections[GraphFile.OUT_WEIGHTS].asDoubleBuffer();
+        this.inOffsets = sections[GraphFile.IN_OFFSETS].asIntBuffer();
+        this.inSources = sections[GraphFile.IN_SOURCES].asIntBuffer();
+        this.inEdges = sections[GraphFile.IN_EDGES].asIntBuffer();
+    }
+
+    /**
+     * Maps a graph file.
+     *
+     * @param file The file written by {@link GraphFile#write(WordGraph, Path)}.
+     * @return The mapped graph.
+     * @throws IOException If the file cannot be read or is not a graph file of
+     *                     a supported version.
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(GraphFile.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != GraphFile.MAGIC) {
+                throw new IOException("Not a graph file: " + file);
+            }
+            if (header.getInt(4) != GraphFile.FORMAT_VERSION) {
+                throw new IOException("Unsupported graph file version " + header.getInt(4) + ": " + file);
+            }
+            int vertexCount = header.getInt(8);
+            int edgeCount = header.getInt(12);
+            int sectionCount = header.getInt(16);
+
+            ByteBuffer table = ByteBuffer.allocate(sectionCount * GraphFile.SECTION_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, table, GraphFile.HEADER_BYTES);
+            ByteBuffer[] sections = new ByteBuffer[GraphFile.IN_EDGES + 1];
+            for (int i = 0; i < sectionCount; i++) {
+                int id = table.getInt(i * GraphFile.SECTION_ENTRY_BYTES);
+                long offset = table.getLong(i * GraphFile.SECTION_ENTRY_BYTES + 8);
+                long length = table.getLong(i * GraphFile.SECTION_ENTRY_BYTES + 16);
+                if (id < 1 || id >= sections.length) {
+                    continue;
+                }
+                if (length > Integer.MAX_VALUE || offset + length > channel.size()) {
+                    throw new IOException("Bad section " + id + " in " + file);
+                }
+                sections[id] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            for (int id = 1; id < sections.length; id++) {
+                if (sections[id] == null) {
+                    throw new IOException("Missing section " + id + " in " + file);
+                }
+            }
+            return new MappedGraph(file, vertexCount, edgeCount, sections);
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int idOf(String word) {
+        if (word == null) {
+            return -1;
+        }
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        int slot = WordTokenizer.mix(word.hashCode()) & tableMask;
+        int id;
+        while ((id = wordTable.get(slot)) >= 0) {
+            if (wordEquals(id, bytes)) {
+                return id;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return -1;
+    }
+
+    @Override
+    public String word(int id) {
+        int from = wordOffsets.get(id);
+        byte[] bytes = new byte[wordOffsets.get(id + 1) - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = wordBytes.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int outStart(int v) {
+        return outOffsets.get(v);
+    }
+
+    @Override
+    public int outEnd(int v) {
+        return outOffsets.get(v + 1);
+    }
+
+    @Override
+    public int target(int edge) {
+        return outTargets.get(edge);
+    }
+
+    @Override
+    public double weight(int edge) {
+        return outWeights.get(edge);
+    }
+
+    @Override
+    public int inStart(int v) {
+        return inOffsets.get(v);
+    }
+
+    @Override
+    public int inEnd(int v) {
+        return inOffsets.get(v + 1);
+    }
+
+    @Override
+    public int source(int inEdge) {
+        return inSources.get(inEdge);
+    }
+
+    @Override
+    public int inEdge(int inEdge) {
+        return inEdges.get(inEdge);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedGraph{" + file + ", vertices=" + vertexCount + ", edges=" + edgeCount + "}";
+    }
+
+    private boolean wordEquals(int id, byte[] bytes) {
+        int from = wordOffsets.get(id);
+        if (wordOffsets.get(id + 1) - from != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (wordBytes.get(from + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated graph file");
+            }
+        }
+    }
+}
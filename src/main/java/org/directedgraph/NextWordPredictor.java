@@ -0,0 +1,400 @@
+package org.directedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Predicts the most likely next words after a word, for autocomplete.
+ *
+ * <p>Every word keeps its successors in a row of primitive arrays sorted by
+ * descending edge weight, together with its total outgoing weight. A top-k
+ * query copies the first k entries of one row and divides by that total, so
+ * it costs O(k) no matter how many successors the word has.
+ *
+ * <p>Weights can change after construction. A map from word pair to row
+ * position finds the entry to update, and the entry then moves past whole
+ * runs of equal weights: it swaps with the first (or last) entry of each run
+ * it overtakes, found by binary search. Raising a bigram count by one, the
+ * common case while ingesting text, is therefore one binary search and one
+ * swap, O(log d) for a word with d successors. Successors of equal weight are
+ * listed in no particular order.
+ *
+ * <p>All methods are synchronized, so one thread may update the predictor
+ * while others query it.
+ */
+public final class NextWordPredictor {
+    private static final int MIN_ROW_CAPACITY = 4;
+
+    private final WordDictionary dictionary = new WordDictionary();
+    private final LongIntHashMap positions = new LongIntHashMap();
+    private int[][] successors = new int[16][];
+    private double[][] weights = new double[16][];
+    private int[] degrees = new int[16];
+    private double[] outWeights = new double[16];
+
+    /**
+     * A predicted next word.
+     */
+    public static final class Prediction {
+        private final String word;
+        private final double weight;
+        private final double probability;
+
+        Prediction(String word, double weight, double probability) {
+            this.word = word;
+            this.weight = weight;
+            this.probability = probability;
+        }
+
+        public String word() {
+            return word;
+        }
+
+        /**
+         * Returns the weight of the edge to this word.
+         */
+        public double weight() {
+            return weight;
+        }
+
+        /**
+         * Returns the weight divided by the total outgoing weight of the
+         * previous word.
+         */
+        public double probability() {
+            return probability;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %.6f", word, probability);
+        }
+    }
+
+    /**
+     * Creates an empty predictor.
+     */
+    public NextWordPredictor() {
+    }
+
+    /**
+     * Creates a predictor from the edges of a graph. Successors of equal
+     * weight start out in the order of their ids.
+     *
+     * @param graph The graph.
+     * @return The predictor.
+     */
+    public static NextWordPredictor of(WordGraph graph) {
+        NextWordPredictor predictor = new NextWordPredictor();
+        int n = graph.vertexCount();
+        for (int v = 0; v < n; v++) {
+            predictor.addVertex(graph.word(v));
+        }
+        // 把所有不同的权重排名，按 (排名, 目标) 打包成 long，每行排一次序
+        double[] distinct = new double[graph.edgeCount()];
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                distinct[m++] = graph.weight(e);
+            }
+        }
+        Arrays.sort(distinct, 0, m);
+        int ranks = 0;
+        for (int i = 0; i < m; i++) {
+            if (ranks == 0 || distinct[i] != distinct[ranks - 1]) {
+                distinct[ranks++] = distinct[i];
+            }
+        }
+        long[] order = new long[0];
+        for (int u = 0; u < n; u++) {
+            int start = graph.outStart(u);
+            int degree = graph.outEnd(u) - start;
+            if (degree == 0) {
+                continue;
+            }
+            if (order.length < degree) {
+                order = new long[degree];
+            }
+            for (int i = 0; i < degree; i++) {
+                double weight = graph.weight(start + i);
+                long rank = ranks - 1 - Arrays.binarySearch(distinct, 0, ranks, weight);
+                order[i] = rank << 32 | graph.target(start + i);
+            }
+            Arrays.sort(order, 0, degree);
+            int[] row = new int[Math.max(MIN_ROW_CAPACITY, degree)];
+            double[] rowWeights = new double[row.length];
+            double total = 0;
+            for (int i = 0; i < degree; i++) {
+                int v = (int) order[i];
+                row[i] = v;
+                rowWeights[i] = distinct[ranks - 1 - (int) (order[i] >>> 32)];
+                total += rowWeights[i];
+                predictor.positions.add(LongIntHashMap.pair(u, v), i);
+            }
+            predictor.successors[u] = row;
+            predictor.weights[u] = rowWeights;
+            predictor.degrees[u] = degree;
+            predictor.outWeights[u] = total;
+        }
+        return predictor;
+    }
+
+    /**
+     * Adds a word without successors, if it is new.
+     *
+     * @param word The word.
+     */
+    public synchronized void addWord(String word) {
+        addVertex(word);
+    }
+
+    /**
+     * Adds to the weight of an edge, creating the edge and its words if
+     * needed.
+     *
+     * @param word1 The previous word.
+     * @param word2 The next word.
+     * @param delta The weight to add.
+     */
+    public synchronized void addWeight(String word1, String word2, double delta) {
+        int u = addVertex(word1);
+        int v = addVertex(word2);
+        int position = positionOf(u, v);
+        update(u, v, position, (position < 0 ? 0 : weights[u][position]) + delta);
+    }
+
+    /**
+     * Sets the weight of an edge, creating the edge and its words if needed.
+     * A weight of zero or less removes the edge.
+     *
+     * @param word1  The previous word.
+     * @param word2  The next word.
+     * @param weight The new weight.
+     */
+    public synchronized void setWeight(String word1, String word2, double weight) {
+        int u = addVertex(word1);
+        int v = addVertex(word2);
+        update(u, v, positionOf(u, v), weight);
+    }
+
+    /**
+     * Returns the most likely next words, heaviest first.
+     *
+     * @param word The previous word.
+     * @param k    The maximum number of words.
+     * @return The predictions; empty if the word is unknown or has no successors.
+     */
+    public synchronized List<Prediction> predict(String word, int k) {
+        int u = dictionary.idOf(word);
+        if (u < 0 || k <= 0 || degrees[u] == 0) {
+            return Collections.emptyList();
+        }
+        int count = Math.min(k, degrees[u]);
+        List<Prediction> result = new ArrayList<>(count);
+        int[] row = successors[u];
+        double[] rowWeights = weights[u];
+        for (int i = 0; i < count; i++) {
+            result.add(new Prediction(dictionary.word(row[i]), rowWeights[i], rowWeights[i] / outWeights[u]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the probability that one word follows another.
+     *
+     * @param word1 The previous word.
+     * @param word2 The next word.
+     * @return The edge weight divided by the out-weight of {@code word1}, or
+     *         0 if there is no such edge.
+     */
+    public synchronized double probability(String word1, String word2) {
+        int u = dictionary.idOf(word1);
+        int v = dictionary.idOf(word2);
+        if (u < 0 || v < 0) {
+            return 0;
+        }
+        int position = positionOf(u, v);
+        return position < 0 ? 0 : weights[u][position] / outWeights[u];
+    }
+
+    public synchronized boolean containsWord(String word) {
+        return dictionary.idOf(word) >= 0;
+    }
+
+    /**
+     * Returns the number of distinct successors of a word.
+     *
+     * @param word The word.
+     * @return The number of successors; 0 if the word is unknown.
+     */
+    public synchronized int successorCount(String word) {
+        int u = dictionary.idOf(word);
+        return u < 0 ? 0 : degrees[u];
+    }
+
+    /**
+     * Returns the total weight of the outgoing edges of a word.
+     *
+     * @param word The word.
+     * @return The out-weight; 0 if the word is unknown.
+     */
+    public synchronized double outWeight(String word) {
+        int u = dictionary.idOf(word);
+        return u < 0 ? 0 : outWeights[u];
+    }
+
+    private int addVertex(String word) {
+        int id = dictionary.add(word);
+        if (id == degrees.length) {
+            int capacity = degrees.length * 2;
+            successors = Arrays.copyOf(successors, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            degrees = Arrays.copyOf(degrees, capacity);
+            outWeights = Arrays.copyOf(outWeights, capacity);
+        }
+        return id;
+    }
+
+    private int positionOf(int u, int v) {
+        int entry = positions.indexOf(LongIntHashMap.pair(u, v));
+        return entry < 0 ? -1 : positions.valueAt(entry);
+    }
+
+    /**
+     * Gives an edge a new weight and moves it to its place in the row.
+     */
+    private void update(int u, int v, int position, double weight) {
+        if (position < 0) {
+            if (weight <= 0) {
+                return;
+            }
+            position = append(u, v);
+        }
+        double[] rowWeights = weights[u];
+        double old = rowWeights[position];
+        if (weight <= 0) {
+            // 移到行尾再删除
+            outWeights[u] = degrees[u] == 1 ? 0 : outWeights[u] - old;
+            rowWeights[position] = Double.NEGATIVE_INFINITY;
+            moveDown(u, position);
+            degrees[u]--;
+            positions.setValueAt(positions.indexOf(LongIntHashMap.pair(u, v)), -1);
+            return;
+        }
+        outWeights[u] += weight - old;
+        rowWeights[position] = weight;
+        if (weight > old) {
+            moveUp(u, position);
+        } else if (weight < old) {
+            moveDown(u, position);
+        }
+    }
+
+    /**
+     * Appends an edge of weight 0 to the end of a row.
+     */
+    private int append(int u, int v) {
+        int degree = degrees[u];
+        if (successors[u] == null) {
+            successors[u] = new int[MIN_ROW_CAPACITY];
+            weights[u] = new double[MIN_ROW_CAPACITY];
+        } else if (degree == successors[u].length) {
+            successors[u] = Arrays.copyOf(successors[u], degree * 2);
+            weights[u] = Arrays.copyOf(weights[u], degree * 2);
+        }
+        successors[u][degree] = v;
+        weights[u][degree] = 0;
+        degrees[u] = degree + 1;
+        long key = LongIntHashMap.pair(u, v);
+        int entry = positions.add(key, 0);
+        positions.setValueAt(entry, degree);
+        return degree;
+    }
+
+    /**
+     * Swaps an entry that became heavier with the first entry of each lighter
+     * run before it.
+     */
+    private int moveUp(int u, int position) {
+        double[] rowWeights = weights[u];
+        double weight = rowWeights[position];
+        while (position > 0 && rowWeights[position - 1] < weight) {
+            int start = runStart(rowWeights, position - 1);
+            swap(u, position, start);
+            position = start;
+        }
+        return position;
+    }
+
+    /**
+     * Swaps an entry that became lighter with the last entry of each heavier
+     * run after it.
+     */
+    private int moveDown(int u, int position) {
+        double[] rowWeights = weights[u];
+        double weight = rowWeights[position];
+        int last = degrees[u] - 1;
+        while (position < last && rowWeights[position + 1] > weight) {
+            int end = runEnd(rowWeights, position + 1, last);
+            swap(u, position, end);
+            position = end;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the first index of the run of equal weights that ends at {@code end}.
+     */
+    private static int runStart(double[] rowWeights, int end) {
+        double weight = rowWeights[end];
+        int lo = 0;
+        int hi = end;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (rowWeights[mid] > weight) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the last index up to {@code last} of the run of equal weights
+     * that starts at {@code start}.
+     */
+    private static int runEnd(double[] rowWeights, int start, int last) {
+        double weight = rowWeights[start];
+        int lo = start;
+        int hi = last;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (rowWeights[mid] < weight) {
+                hi = mid - 1;
+            } else {
+                lo = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void swap(int u, int i, int j) {
+        if (i == j) {
+            return;
+        }
+        int[] row = successors[u];
+        double[] rowWeights = weights[u];
+        int v = row[i];
+        row[i] = row[j];
+        row[j] = v;
+        double w = rowWeights[i];
+        rowWeights[i] = rowWeights[j];
+        rowWeights[j] = w;
+        positions.setValueAt(positions.indexOf(LongIntHashMap.pair(u, row[i])), i);
+        positions.setValueAt(positions.indexOf(LongIntHashMap.pair(u, row[j])), j);
+    }
+}
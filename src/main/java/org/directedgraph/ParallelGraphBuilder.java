@@ -0,0 +1,163 @@
+package org.directedgraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+/**
+ * Builds the word graph on a fork-join pool.
+ *
+ * <p>The word list is cut into shards of consecutive word pairs. A shard that
+ * ends at word {@code i} also reads word {@code i}, so the pair crossing each
+ * shard boundary is counted exactly once. Each shard counts its pairs in
+ * primitive maps keyed by shard-local word ids; the shards are then merged in
+ * order, which reproduces the vertex order, edge order and edge weights of
+ * {@link DirectedGraph#buildGraph(List)}.
+ */
+public final class ParallelGraphBuilder {
+    private static final int SHARDS_PER_THREAD = 4;
+    private static final int MIN_SHARD_SIZE = 1 << 14;
+
+    private final int parallelism;
+    private final int minShardSize;
+
+    /**
+     * Creates a builder using all available processors.
+     */
+    public ParallelGraphBuilder() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a builder with a fixed number of worker threads.
+     *
+     * @param parallelism The number of worker threads.
+     */
+    public ParallelGraphBuilder(int parallelism) {
+        this(parallelism, MIN_SHARD_SIZE);
+    }
+
+    ParallelGraphBuilder(int parallelism, int minShardSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.minShardSize = Math.max(1, minShardSize);
+    }
+
+    /**
+     * Builds a directed weighted graph from a list of words.
+     *
+     * @param words The list of words to build the graph from.
+     * @return A directed weighted graph.
+     */
+    public DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> buildGraph(List<String> words) {
+        Counts counts = count(words);
+        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int v = 0; v < counts.dictionary.size(); v++) {
+            graph.addVertex(counts.dictionary.word(v));
+        }
+        for (int e = 0; e < counts.pairs.size(); e++) {
+            long key = counts.pairs.keyAt(e);
+            DefaultWeightedEdge edge = graph.addEdge(counts.dictionary.word(LongIntHashMap.pairSource(key)),
+                    counts.dictionary.word(LongIntHashMap.pairTarget(key)));
+            graph.setEdgeWeight(edge, counts.pairs.valueAt(e));
+        }
+        return graph;
+    }
+
+    /**
+     * Builds the compact form of the word graph directly, skipping the jgrapht graph.
+     *
+     * @param words The list of words to build the graph from.
+     * @return A compact graph equal to {@code CompactGraph.of(buildGraph(words))}.
+     */
+    public CompactGraph buildCompactGraph(List<String> words) {
+        Counts counts = count(words);
+        int m = counts.pairs.size();
+        int[] sources = new int[m];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        for (int e = 0; e < m; e++) {
+            long key = counts.pairs.keyAt(e);
+            sources[e] = LongIntHashMap.pairSource(key);
+            targets[e] = LongIntHashMap.pairTarget(key);
+            weights[e] = counts.pairs.valueAt(e);
+        }
+        return CompactGraph.fromEdges(counts.dictionary, sources, targets, weights, m);
+    }
+
+    private Counts count(List<String> words) {
+        int pairCount = words.size() - 1;
+        if (pairCount <= 0) {
+            WordDictionary dictionary = new WordDictionary();
+            if (words.size() == 1) {
+                dictionary.add(words.get(0));
+            }
+            return new Counts(dictionary, new LongIntHashMap());
+        }
+
+        int shardCount = Math.max(1, Math.min(parallelism * SHARDS_PER_THREAD, pairCount / minShardSize));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Counts>> tasks = new ArrayList<>(shardCount);
+            for (int s = 0; s < shardCount; s++) {
+                int from = (int) ((long) pairCount * s / shardCount);
+                int to = (int) ((long) pairCount * (s + 1) / shardCount);
+                tasks.add(pool.submit(() -> countShard(words, from, to)));
+            }
+            Counts merged = null;
+            for (ForkJoinTask<Counts> task : tasks) {
+                Counts shard = task.join();
+                merged = merged == null ? shard : merge(merged, shard);
+            }
+            return merged;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the pairs {@code (words[i], words[i + 1])} for {@code from <= i < to}.
+     */
+    private static Counts countShard(List<String> words, int from, int to) {
+        WordDictionary dictionary = new WordDictionary();
+        LongIntHashMap pairs = new LongIntHashMap();
+        int current = dictionary.add(words.get(from));
+        for (int i = from; i < to; i++) {
+            int next = dictionary.add(words.get(i + 1));
+            pairs.add(LongIntHashMap.pair(current, next), 1);
+            current = next;
+        }
+        return new Counts(dictionary, pairs);
+    }
+
+    /**
+     * Folds a later shard into the merged counts, keeping first-appearance order.
+     */
+    private static Counts merge(Counts merged, Counts shard) {
+        int[] globalIds = new int[shard.dictionary.size()];
+        for (int v = 0; v < globalIds.length; v++) {
+            globalIds[v] = merged.dictionary.add(shard.dictionary.word(v));
+        }
+        for (int e = 0; e < shard.pairs.size(); e++) {
+            long key = shard.pairs.keyAt(e);
+            merged.pairs.add(LongIntHashMap.pair(globalIds[LongIntHashMap.pairSource(key)],
+                    globalIds[LongIntHashMap.pairTarget(key)]), shard.pairs.valueAt(e));
+        }
+        return merged;
+    }
+
+    private static final class Counts {
+        final WordDictionary dictionary;
+        final LongIntHashMap pairs;
+
+        Counts(WordDictionary dictionary, LongIntHashMap pairs) {
+            this.dictionary = dictionary;
+            this.pairs = pairs;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.directedgraph;
+
+/**
+ * The indexes that speed up point-to-point shortest path queries on one
+ * frozen graph: the reachability index and, if asked for, the landmark
+ * distances. Each is built on first use and at most once.
+ *
+ * <p>Builds lock only this holder, so a long preprocessing run stalls just
+ * the queries that need its result, never queries on other graphs. Once
+ * built, an index is read without locking.
+ */
+final class PathIndexes {
+    private final WordGraph graph;
+    private final int landmarkCount;
+    private volatile ReachabilityIndex reachability;
+    private volatile LandmarkIndex landmarks;
+
+    /**
+     * Creates an empty holder.
+     *
+     * @param graph         The graph the indexes belong to.
+     * @param landmarkCount The number of landmarks, or 0 for no landmark index.
+     */
+    PathIndexes(WordGraph graph, int landmarkCount) {
+        this.graph = graph;
+        this.landmarkCount = landmarkCount;
+    }
+
+    WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the reachability index, building it on first use.
+     */
+    ReachabilityIndex reachability() {
+        ReachabilityIndex index = reachability;
+        if (index == null) {
+            synchronized (this) {
+                index = reachability;
+                if (index == null) {
+                    index = ReachabilityIndex.build(graph);
+                    reachability = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the landmark index, building it on first use.
+     *
+     * @return The landmark index, or {@code null} if landmarks are off.
+     */
+    LandmarkIndex landmarks() {
+        if (landmarkCount == 0) {
+            return null;
+        }
+        LandmarkIndex index = landmarks;
+        if (index == null) {
+            synchronized (this) {
+                index = landmarks;
+                if (index == null) {
+                    index = LandmarkIndex.build(graph, landmarkCount);
+                    landmarks = index;
+                }
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,148 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Parses and runs the text commands shared by the query server and the batch
+ * mode. A command is one line: an operation name followed by its arguments,
+ * separated by whitespace.
+ *
+ * <pre>
+ * bridge WORD1 WORD2
+ * component WORD
+ * generate TEXT...
+ * next WORD [K]
+ * path WORD1 [WORD2]
+ * rank [pagerank|in|out] [K]
+ * walk [SEED] [MAX_STEPS]
+ * </pre>
+ *
+ * Commands run against one {@link GraphSnapshot} and never prompt or render.
+ */
+public final class QueryCommands {
+
+    private QueryCommands() {
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param snapshot The graph snapshot to query.
+     * @param line     The command line.
+     * @return The result text, as the matching menu operation would print it.
+     * @throws IllegalArgumentException If the command is malformed.
+     */
+    public static String execute(GraphSnapshot snapshot, String line) {
+        String trimmed = line.trim();
+        int space = indexOfWhitespace(trimmed);
+        String op = space < 0 ? trimmed : trimmed.substring(0, space);
+        String rest = space < 0 ? "" : trimmed.substring(space + 1).trim();
+        String[] args = rest.isEmpty() ? new String[0] : rest.split("\\s+");
+
+        switch (op) {
+            case "bridge":
+                requireArgs(op, args, 2, 2);
+                return bridge(snapshot, args[0], args[1]);
+            case "component":
+                requireArgs(op, args, 1, 1);
+                return component(snapshot, args[0]);
+            case "generate":
+                return generate(snapshot, rest, 0L);
+            case "next":
+                requireArgs(op, args, 1, 2);
+                return next(snapshot, args[0], args.length > 1 ? (int) parseLong(args[1]) : 10);
+            case "path":
+                requireArgs(op, args, 1, 2);
+                return path(snapshot, args[0], args.length > 1 ? args[1] : "");
+            case "rank":
+                requireArgs(op, args, 0, 2);
+                WordCentrality.Measure measure = args.length > 0 ? WordCentrality.Measure.parse(args[0]) : WordCentrality.Measure.PAGE_RANK;
+                int k = args.length > 1 ? (int) parseLong(args[1]) : 10;
+                return rank(snapshot, measure, k);
+            case "walk":
+                requireArgs(op, args, 0, 2);
+                long seed = args.length > 0 ? parseLong(args[0]) : System.nanoTime();
+                int maxSteps = args.length > 1 ? (int) parseLong(args[1]) : 0;
+                return walk(snapshot, seed, maxSteps);
+            default:
+                throw new IllegalArgumentException("Unknown command: " + op);
+        }
+    }
+
+    public static String bridge(GraphSnapshot snapshot, String word1, String word2) {
+        return snapshot.queryBridgeWords(word1, word2);
+    }
+
+    public static String component(GraphSnapshot snapshot, String word) {
+        return snapshot.describeComponent(word);
+    }
+
+    /**
+     * Inserts bridge words into a text, choosing among several bridge words
+     * with the given seed.
+     *
+     * @param snapshot The graph snapshot to query.
+     * @param text     The input text.
+     * @param seed     The random seed.
+     * @return The new text.
+     */
+    public static String generate(GraphSnapshot snapshot, String text, long seed) {
+        StringWriter out = new StringWriter();
+        try {
+            new TextGenerator(snapshot.bridgeWordIndex()).generate(new StringReader(text), out, seed);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    public static String next(GraphSnapshot snapshot, String word, int k) {
+        return snapshot.predictNextWords(word, k);
+    }
+
+    public static String path(GraphSnapshot snapshot, String word1, String word2) {
+        return snapshot.calcShortestPath(word1, word2);
+    }
+
+    public static String rank(GraphSnapshot snapshot, WordCentrality.Measure measure, int k) {
+        return snapshot.rankWords(measure, k);
+    }
+
+    /**
+     * Performs a weighted random walk with the random walk engine of the
+     * snapshot; the same seed gives the same walk.
+     *
+     * @param snapshot The graph snapshot to walk.
+     * @param seed     The random seed.
+     * @param maxSteps The maximum number of steps; 0 for no limit.
+     * @return The words visited, separated by spaces.
+     */
+    public static String walk(GraphSnapshot snapshot, long seed, int maxSteps) {
+        return String.join(" ", snapshot.randomWalk(seed, maxSteps));
+    }
+
+    private static void requireArgs(String op, String[] args, int min, int max) {
+        if (args.length < min || args.length > max) {
+            throw new IllegalArgumentException("Wrong number of arguments for " + op + ": " + args.length);
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+
+    private static int indexOfWhitespace(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isWhitespace(s.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
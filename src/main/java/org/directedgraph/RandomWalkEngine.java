@@ -0,0 +1,259 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Generates many random walks without user interaction, the batch
+ * counterpart of {@link DirectedGraph#randomWalk}.
+ *
+ * <p>The next word is drawn in proportion to the edge weights. Every vertex
+ * gets an alias table when the engine is created (Vose's method, flattened
+ * onto the CSR edge slots), so each step costs two random numbers whatever the
+ * out-degree. A walk ends at a word without outgoing edges, after
+ * {@code maxSteps} steps, or, if asked, right after it follows an edge for the
+ * second time, as the interactive walk does.
+ *
+ * <p>Walks are cut into batches of a fixed size. Each batch draws from its own
+ * {@link SplittableRandom} seeded by the run seed and the batch number, so the
+ * output depends only on the seed and the batch size, whether the batches run
+ * inline or on a thread pool. Finished batches are written in order, one walk
+ * per line, and at most a few batches per thread are in flight.
+ */
+public final class RandomWalkEngine {
+    /** The default number of walks per batch. */
+    public static final int DEFAULT_BATCH_WALKS = 1024;
+
+    private final WordGraph graph;
+    private final double[] probability;
+    private final int[] alias;
+    private final int batchWalks;
+
+    /**
+     * Creates an engine and builds the alias tables of all vertices.
+     *
+     * @param graph The graph to walk.
+     */
+    public RandomWalkEngine(WordGraph graph) {
+        this(graph, DEFAULT_BATCH_WALKS);
+    }
+
+    /**
+     * Creates an engine and builds the alias tables of all vertices.
+     *
+     * @param graph      The graph to walk.
+     * @param batchWalks The number of walks per batch.
+     */
+    public RandomWalkEngine(WordGraph graph, int batchWalks) {
+        if (batchWalks < 1) {
+            throw new IllegalArgumentException("batchWalks must be positive: " + batchWalks);
+        }
+        this.graph = graph;
+        this.batchWalks = batchWalks;
+        this.probability = new double[graph.edgeCount()];
+        this.alias = new int[graph.edgeCount()];
+        IntStream.range(0, graph.vertexCount()).parallel().forEach(this::buildAliasTable);
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Performs one walk.
+     *
+     * @param start              The start vertex, or -1 for a uniformly random one.
+     * @param maxSteps           The maximum number of steps; 0 for no limit.
+     * @param stopOnRepeatedEdge Whether to stop after following an edge twice.
+     * @param random             The random source.
+     * @return The vertices visited, starting with the start vertex.
+     */
+    public int[] walk(int start, int maxSteps, boolean stopOnRepeatedEdge, SplittableRandom random) {
+        checkPolicy(maxSteps, stopOnRepeatedEdge);
+        if (graph.vertexCount() == 0) {
+            return new int[0];
+        }
+        int current = start >= 0 ? start : random.nextInt(graph.vertexCount());
+        IntList path = new IntList();
+        path.add(current);
+        LongIntHashMap followed = stopOnRepeatedEdge ? new LongIntHashMap() : null;
+        for (int step = 0; (maxSteps <= 0 || step < maxSteps) && graph.outDegree(current) > 0; step++) {
+            int edge = nextEdge(current, random);
+            current = graph.target(edge);
+            path.add(current);
+            if (followed != null) {
+                if (followed.indexOf(edge) >= 0) {
+                    break;
+                }
+                followed.add(edge, 1);
+            }
+        }
+        return path.toArray();
+    }
+
+    /**
+     * Performs walks from random start words and writes them to a file, one
+     * walk per line.
+     *
+     * @param file               The output file.
+     * @param walks              The number of walks.
+     * @param seed               The run seed.
+     * @param maxSteps           The maximum number of steps per walk; 0 for no limit.
+     * @param stopOnRepeatedEdge Whether to stop a walk after following an edge twice.
+     * @param threads            The number of worker threads; 1 runs inline.
+     * @throws IOException If writing fails.
+     */
+    public void walk(Path file, long walks, long seed, int maxSteps, boolean stopOnRepeatedEdge, int threads) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            walk(out, walks, seed, maxSteps, stopOnRepeatedEdge, threads);
+        }
+    }
+
+    /**
+     * Performs walks from random start words and streams them, one walk per line.
+     *
+     * @param out                The receiver of the walks; it is flushed but not closed.
+     * @param walks              The number of walks.
+     * @param seed               The run seed.
+     * @param maxSteps           The maximum number of steps per walk; 0 for no limit.
+     * @param stopOnRepeatedEdge Whether to stop a walk after following an edge twice.
+     * @param threads            The number of worker threads; 1 runs inline.
+     * @throws IOException If writing fails.
+     */
+    public void walk(Writer out, long walks, long seed, int maxSteps, boolean stopOnRepeatedEdge, int threads) throws IOException {
+        checkPolicy(maxSteps, stopOnRepeatedEdge);
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        int window = threads > 1 ? threads * 2 : 0;
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        try {
+            long batches = (walks + batchWalks - 1) / batchWalks;
+            for (long batch = 0; batch < batches; batch++) {
+                long number = batch;
+                int count = (int) Math.min(batchWalks, walks - batch * batchWalks);
+                if (pool == null) {
+                    out.write(process(number, count, seed, maxSteps, stopOnRepeatedEdge));
+                    continue;
+                }
+                inFlight.addLast(pool.submit(() -> process(number, count, seed, maxSteps, stopOnRepeatedEdge)));
+                while (inFlight.size() > window) {
+                    out.write(await(inFlight.removeFirst()));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                out.write(await(inFlight.removeFirst()));
+            }
+            out.flush();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private String process(long batchNumber, int count, long seed, int maxSteps, boolean stopOnRepeatedEdge) {
+        SplittableRandom random = new SplittableRandom(seed ^ (batchNumber * 0x9E3779B97F4A7C15L));
+        StringBuilder sb = new StringBuilder(count * 32);
+        for (int i = 0; i < count; i++) {
+            int[] path = walk(-1, maxSteps, stopOnRepeatedEdge, random);
+            for (int j = 0; j < path.length; j++) {
+                if (j > 0) {
+                    sb.append(' ');
+                }
+                sb.append(graph.word(path[j]));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Draws an outgoing edge of a vertex in proportion to the edge weights.
+     *
+     * @param vertex A vertex with at least one outgoing edge.
+     * @param random The random source.
+     * @return The edge index.
+     */
+    int nextEdge(int vertex, SplittableRandom random) {
+        int edge = graph.outStart(vertex) + random.nextInt(graph.outDegree(vertex));
+        return random.nextDouble() < probability[edge] ? edge : alias[edge];
+    }
+
+    /**
+     * Builds the alias table of one vertex with Vose's method.
+     */
+    private void buildAliasTable(int vertex) {
+        int start = graph.outStart(vertex);
+        int degree = graph.outDegree(vertex);
+        if (degree == 0) {
+            return;
+        }
+        double total = 0;
+        for (int e = start; e < start + degree; e++) {
+            total += graph.weight(e);
+        }
+        double[] scaled = new double[degree];
+        int[] small = new int[degree];
+        int[] large = new int[degree];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < degree; i++) {
+            scaled[i] = graph.weight(start + i) * degree / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[start + less] = scaled[less];
+            alias[start + less] = start + more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // 剩下的槽位因舍入误差而接近 1，直接取自身
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[start + i] = 1.0;
+            alias[start + i] = start + i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[start + i] = 1.0;
+            alias[start + i] = start + i;
+        }
+    }
+
+    private static void checkPolicy(int maxSteps, boolean stopOnRepeatedEdge) {
+        if (maxSteps <= 0 && !stopOnRepeatedEdge) {
+            throw new IllegalArgumentException("A walk needs a step limit or must stop on a repeated edge");
+        }
+    }
+
+    private static String await(Future<String> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while walking", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to walk", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package org.directedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers whether one word can reach another without searching, from the
+ * strongly connected components of the graph.
+ *
+ * <p>The components are found with an iterative version of Tarjan's
+ * algorithm, so long chains of words cannot overflow the call stack.
+ * Tarjan's algorithm finishes a component only after every component it
+ * reaches, so numbering components in that order gives every edge of the
+ * condensed DAG a larger source than target id. A word therefore never
+ * reaches a component with a larger id, which rejects many pairs by one
+ * comparison. The remaining pairs are answered from the transitive closure
+ * of the DAG, one bitset per component; component {@code c} only needs bits
+ * {@code 0..c}, so the rows form a triangle of half the square size. If the
+ * closure would not fit in the given number of bytes it is not stored, and
+ * such pairs fall back to a search over the DAG that skips every component
+ * numbered below the target.
+ *
+ * <p>The index belongs to one frozen graph and can be shared between threads.
+ */
+public final class ReachabilityIndex {
+    /** The default maximum size of the closure bitsets. */
+    public static final long DEFAULT_MAX_CLOSURE_BYTES = 64L << 20;
+
+    private final WordGraph graph;
+    private final int[] components;
+    private final int componentCount;
+    private final int[] memberOffsets;
+    private final int[] members;
+    private final int[] dagOffsets;
+    private final int[] dagTargets;
+    private final int[] rowOffsets;
+    private final long[] closure;
+
+    private ReachabilityIndex(WordGraph graph, int[] components, int componentCount, long maxClosureBytes) {
+        this.graph = graph;
+        this.components = components;
+        this.componentCount = componentCount;
+        int n = graph.vertexCount();
+
+        // 按分量对顶点做计数排序
+        memberOffsets = new int[componentCount + 1];
+        for (int v = 0; v < n; v++) {
+            memberOffsets[components[v] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        members = new int[n];
+        int[] fill = Arrays.copyOf(memberOffsets, componentCount);
+        for (int v = 0; v < n; v++) {
+            members[fill[components[v]]++] = v;
+        }
+
+        // 缩点后的 DAG，每条分量间的边只保留一次
+        dagOffsets = new int[componentCount + 1];
+        IntList targets = new IntList();
+        int[] lastSeen = new int[componentCount];
+        Arrays.fill(lastSeen, -1);
+        for (int c = 0; c < componentCount; c++) {
+            for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                int v = members[i];
+                for (int e = graph.outStart(v); e < graph.outEnd(v); e++) {
+                    int d = components[graph.target(e)];
+                    if (d != c && lastSeen[d] != c) {
+                        lastSeen[d] = c;
+                        targets.add(d);
+                    }
+                }
+            }
+            dagOffsets[c + 1] = targets.size();
+        }
+        dagTargets = targets.toArray();
+
+        long words = 0;
+        for (int c = 0; c < componentCount; c++) {
+            words += (c >> 6) + 1;
+        }
+        if (words * 8 > maxClosureBytes || words > Integer.MAX_VALUE) {
+            rowOffsets = null;
+            closure = null;
+            return;
+        }
+        rowOffsets = new int[componentCount + 1];
+        for (int c = 0; c < componentCount; c++) {
+            rowOffsets[c + 1] = rowOffsets[c] + (c >> 6) + 1;
+        }
+        closure = new long[(int) words];
+        // 后继分量编号更小，行已经算好，直接按位或进来
+        for (int c = 0; c < componentCount; c++) {
+            int row = rowOffsets[c];
+            closure[row + (c >> 6)] |= 1L << c;
+            for (int i = dagOffsets[c]; i < dagOffsets[c + 1]; i++) {
+                int d = dagTargets[i];
+                int from = rowOffsets[d];
+                int length = (d >> 6) + 1;
+                for (int w = 0; w < length; w++) {
+                    closure[row + w] |= closure[from + w];
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the index with the default closure size limit.
+     *
+     * @param graph The graph.
+     * @return The index.
+     */
+    public static ReachabilityIndex build(WordGraph graph) {
+        return build(graph, DEFAULT_MAX_CLOSURE_BYTES);
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @param graph           The graph.
+     * @param maxClosureBytes The largest closure to store; larger graphs
+     *                        answer some queries by searching the condensed DAG.
+     * @return The index.
+     */
+    public static ReachabilityIndex build(WordGraph graph, long maxClosureBytes) {
+        int n = graph.vertexCount();
+        int[] components = new int[n];
+        int count = tarjan(graph, components);
+        return new ReachabilityIndex(graph, components, count, maxClosureBytes);
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns whether there is a path between two vertices. Every vertex
+     * reaches itself.
+     *
+     * @param source The source vertex id.
+     * @param target The target vertex id.
+     * @return Whether {@code target} is reachable from {@code source}.
+     */
+    public boolean canReach(int source, int target) {
+        int from = components[source];
+        int to = components[target];
+        if (from == to) {
+            return true;
+        }
+        if (to > from) {
+            return false;
+        }
+        if (closure != null) {
+            return (closure[rowOffsets[from] + (to >> 6)] >>> to & 1L) != 0;
+        }
+        return searchDag(from, to);
+    }
+
+    /**
+     * Returns whether there is a path between two words.
+     *
+     * @param word1 The source word.
+     * @param word2 The target word.
+     * @return Whether both words are in the graph and {@code word2} is
+     *         reachable from {@code word1}.
+     */
+    public boolean canReach(String word1, String word2) {
+        int source = graph.idOf(word1);
+        int target = graph.idOf(word2);
+        return source >= 0 && target >= 0 && canReach(source, target);
+    }
+
+    /**
+     * Returns whether the closure bitsets were stored, i.e. every query is
+     * answered in constant time.
+     *
+     * @return Whether the closure is stored.
+     */
+    public boolean hasClosure() {
+        return closure != null;
+    }
+
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Returns the component of a vertex. Components are numbered so that
+     * every edge between two components goes to the smaller number.
+     *
+     * @param v The vertex id.
+     * @return The component id.
+     */
+    public int component(int v) {
+        return components[v];
+    }
+
+    public int componentSize(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+
+    /**
+     * Returns the vertices of a component in increasing id order.
+     *
+     * @param component The component id.
+     * @return The vertex ids.
+     */
+    public int[] members(int component) {
+        return Arrays.copyOfRange(members, memberOffsets[component], memberOffsets[component + 1]);
+    }
+
+    /**
+     * Returns the words of a component in increasing id order.
+     *
+     * @param component The component id.
+     * @return The words.
+     */
+    public List<String> memberWords(int component) {
+        List<String> words = new ArrayList<>(componentSize(component));
+        for (int i = memberOffsets[component]; i < memberOffsets[component + 1]; i++) {
+            words.add(graph.word(members[i]));
+        }
+        return words;
+    }
+
+    /**
+     * Returns the components that a component has edges to.
+     *
+     * @param component The component id.
+     * @return The successor component ids.
+     */
+    public int[] successors(int component) {
+        return Arrays.copyOfRange(dagTargets, dagOffsets[component], dagOffsets[component + 1]);
+    }
+
+    /**
+     * Returns the component with the most vertices; the lowest id wins ties.
+     *
+     * @return The component id, or -1 for an empty graph.
+     */
+    public int largestComponent() {
+        int largest = -1;
+        for (int c = 0; c < componentCount; c++) {
+            if (largest < 0 || componentSize(c) > componentSize(largest)) {
+                largest = c;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Returns the estimated heap bytes of the index.
+     *
+     * @return The estimated number of bytes.
+     */
+    public long estimateBytes() {
+        long bytes = 4L * (components.length + memberOffsets.length + members.length + dagOffsets.length + dagTargets.length);
+        if (closure != null) {
+            bytes += 4L * rowOffsets.length + 8L * closure.length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        int largest = largestComponent();
+        return "ReachabilityIndex[components=" + componentCount + ", largest=" + (largest < 0 ? 0 : componentSize(largest))
+                + ", dagEdges=" + dagTargets.length + ", closure=" + (closure != null) + "]";
+    }
+
+    /**
+     * Depth-first search over the DAG that only enters components not below
+     * the target, since those cannot reach it.
+     */
+    private boolean searchDag(int from, int to) {
+        boolean[] visited = new boolean[componentCount];
+        IntList stack = new IntList();
+        stack.add(from);
+        visited[from] = true;
+        while (stack.size() > 0) {
+            int c = stack.removeLast();
+            for (int i = dagOffsets[c]; i < dagOffsets[c + 1]; i++) {
+                int d = dagTargets[i];
+                if (d == to) {
+                    return true;
+                }
+                if (d > to && !visited[d]) {
+                    visited[d] = true;
+                    stack.add(d);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterative Tarjan: an explicit call stack replaces the recursion, and
+     * {@code nextEdge} remembers where each vertex on it resumes. Components
+     * are numbered in the order they are completed.
+     *
+     * @return The number of components.
+     */
+    private static int tarjan(WordGraph graph, int[] components) {
+        int n = graph.vertexCount();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] nextEdge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] calls = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int stackSize = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            index[root] = low[root] = counter++;
+            nextEdge[root] = graph.outStart(root);
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            calls[depth++] = root;
+
+            while (depth > 0) {
+                int v = calls[depth - 1];
+                if (nextEdge[v] < graph.outEnd(v)) {
+                    int w = graph.target(nextEdge[v]++);
+                    if (index[w] < 0) {
+                        // 相当于递归调用 w
+                        index[w] = low[w] = counter++;
+                        nextEdge[w] = graph.outStart(w);
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        calls[depth++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                // v 的边都看完了，相当于从递归调用返回
+                depth--;
+                if (depth > 0) {
+                    int parent = calls[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        components[w] = componentCount;
+                    } while (w != v);
+                    componentCount++;
+                }
+            }
+        }
+        return componentCount;
+    }
+}
@@ -0,0 +1,44 @@
+package org.directedgraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single shortest path as vertex ids of a {@link WordGraph}, plus its length.
+ */
+public final class ShortestPath {
+    private final int[] vertices;
+    private final double length;
+
+    ShortestPath(int[] vertices, double length) {
+        this.vertices = vertices;
+        this.length = length;
+    }
+
+    /**
+     * Returns the vertex ids along the path, from source to target.
+     *
+     * @return The vertex ids; the caller must not modify the array.
+     */
+    public int[] vertices() {
+        return vertices;
+    }
+
+    public double length() {
+        return length;
+    }
+
+    /**
+     * Resolves the path to words.
+     *
+     * @param graph The graph the ids belong to.
+     * @return The words along the path.
+     */
+    public List<String> words(WordGraph graph) {
+        List<String> words = new ArrayList<>(vertices.length);
+        for (int vertex : vertices) {
+            words.add(graph.word(vertex));
+        }
+        return words;
+    }
+}
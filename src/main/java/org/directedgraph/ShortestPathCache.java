@@ -0,0 +1,195 @@
+package org.directedgraph;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded cache of shortest path trees keyed by source vertex.
+ *
+ * <p>Single-source queries always store their tree. Point-to-point queries
+ * from a source that is not cached run the cheaper bidirectional search, and
+ * only once a source has missed {@code admissionThreshold} times is its full
+ * tree computed and cached, so one-off sources do not evict popular ones.
+ * The cache belongs to one {@link WordGraph}; asking it about another graph
+ * drops every entry.
+ */
+public final class ShortestPathCache {
+    /**
+     * Which entry to drop when the cache is full.
+     */
+    public enum Policy {
+        /** Drop the least recently used tree. */
+        LRU,
+        /** Drop the least frequently used tree. */
+        LFU
+    }
+
+    private final int capacity;
+    private final Policy policy;
+    private final int admissionThreshold;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Integer> pendingMisses = new HashMap<>();
+    private WordGraph graph;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates an LRU cache that admits a source on its second miss.
+     *
+     * @param capacity The maximum number of cached trees.
+     */
+    public ShortestPathCache(int capacity) {
+        this(capacity, Policy.LRU, 2);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity           The maximum number of cached trees.
+     * @param policy             The eviction policy.
+     * @param admissionThreshold The number of point-to-point misses after
+     *                           which a source gets its full tree cached.
+     */
+    public ShortestPathCache(int capacity, Policy policy, int admissionThreshold) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.admissionThreshold = Math.max(1, admissionThreshold);
+    }
+
+    /**
+     * Returns the shortest path tree of a source, computing and caching it on a miss.
+     *
+     * @param engine The engine of the graph to search.
+     * @param source The source vertex id.
+     * @return The shortest path tree.
+     */
+    public ShortestPathTree tree(DijkstraEngine engine, int source) {
+        ShortestPathTree tree = lookup(engine.graph(), source);
+        if (tree != null) {
+            return tree;
+        }
+        tree = engine.shortestPathTree(source);
+        store(tree);
+        return tree;
+    }
+
+    /**
+     * Returns a shortest path between two vertices, reconstructing it from a
+     * cached tree when possible.
+     *
+     * @param engine The engine of the graph to search.
+     * @param source The source vertex id.
+     * @param target The target vertex id.
+     * @return The shortest path, or {@code null} if the target is not reachable.
+     */
+    public ShortestPath path(DijkstraEngine engine, int source, int target) {
+        ShortestPathTree tree = lookup(engine.graph(), source);
+        if (tree == null && admit(source)) {
+            tree = engine.shortestPathTree(source);
+            store(tree);
+        }
+        return tree != null ? tree.pathTo(target) : engine.shortestPath(source, target);
+    }
+
+    /**
+     * Drops every cached tree, e.g. after the graph was rebuilt or modified.
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+        pendingMisses.clear();
+        graph = null;
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ShortestPathCache[size=" + size() + ", hits=" + hits() + ", misses=" + misses()
+                + ", evictions=" + evictions() + ", policy=" + policy + "]";
+    }
+
+    private synchronized ShortestPathTree lookup(WordGraph requested, int source) {
+        if (graph != requested) {
+            invalidate();
+            graph = requested;
+        }
+        Entry entry = entries.get(source);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.frequency++;
+        hits.incrementAndGet();
+        return entry.tree;
+    }
+
+    private synchronized boolean admit(int source) {
+        int count = pendingMisses.merge(source, 1, Integer::sum);
+        if (count >= admissionThreshold) {
+            pendingMisses.remove(source);
+            return true;
+        }
+        if (pendingMisses.size() > capacity * 16) {
+            pendingMisses.clear();
+        }
+        return false;
+    }
+
+    private synchronized void store(ShortestPathTree tree) {
+        if (tree.graph() != graph) {
+            return;
+        }
+        if (!entries.containsKey(tree.source()) && entries.size() >= capacity) {
+            evict();
+        }
+        entries.put(tree.source(), new Entry(tree));
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Integer, Entry>> iterator = entries.entrySet().iterator();
+        Integer victim = iterator.next().getKey();
+        if (policy == Policy.LFU) {
+            long lowest = Long.MAX_VALUE;
+            // 访问顺序迭代，频率相同时淘汰最久未使用的条目
+            for (Map.Entry<Integer, Entry> candidate : entries.entrySet()) {
+                if (candidate.getValue().frequency < lowest) {
+                    lowest = candidate.getValue().frequency;
+                    victim = candidate.getKey();
+                }
+            }
+        }
+        entries.remove(victim);
+        evictions.incrementAndGet();
+    }
+
+    private static final class Entry {
+        final ShortestPathTree tree;
+        long frequency;
+
+        Entry(ShortestPathTree tree) {
+            this.tree = tree;
+        }
+    }
+}
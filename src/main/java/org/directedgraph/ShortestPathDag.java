@@ -0,0 +1,282 @@
+package org.directedgraph;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * All shortest paths between two vertices, kept as a DAG of tight
+ * predecessors: an edge {@code u -> v} belongs to it if
+ * {@code distance(u) + weight(u, v) == distance(v)} and {@code v} lies on a
+ * shortest path to the target.
+ *
+ * <p>There can be exponentially many shortest paths, so they are never
+ * materialized together. {@link #paths()} walks the DAG depth first from the
+ * target back to the source and yields one path per call, in time proportional
+ * to its length; {@link #countPaths()} only counts them, by dynamic
+ * programming over the DAG in order of distance. Edge weights must be
+ * positive, as bigram counts are.
+ */
+public final class ShortestPathDag {
+    private final WordGraph graph;
+    private final int source;
+    private final int target;
+    private final double length;
+    /** The vertices of the DAG, in order of decreasing distance; the target comes first. */
+    private final int[] vertices;
+    /** Tight predecessors of {@code vertices[i]}, as indexes into {@code vertices}. */
+    private final int[] predecessorStart;
+    private final int[] predecessors;
+    private final int[] predecessorEdges;
+
+    private ShortestPathDag(WordGraph graph, int source, int target, double length, int[] vertices,
+                            int[] predecessorStart, int[] predecessors, int[] predecessorEdges) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        this.length = length;
+        this.vertices = vertices;
+        this.predecessorStart = predecessorStart;
+        this.predecessors = predecessors;
+        this.predecessorEdges = predecessorEdges;
+    }
+
+    /**
+     * Collects the tight predecessors of the vertices on the shortest paths
+     * to a target.
+     *
+     * @param tree   A search from the source that has settled the target.
+     * @param target The target vertex id.
+     * @return The DAG; empty if the target is not reachable.
+     */
+    public static ShortestPathDag of(ShortestPathTree tree, int target) {
+        WordGraph graph = tree.graph();
+        if (!tree.isReachable(target)) {
+            return new ShortestPathDag(graph, tree.source(), target, Double.POSITIVE_INFINITY,
+                    new int[0], new int[1], new int[0], new int[0]);
+        }
+        // 从终点沿紧边反向广度优先，只保留能到达终点的顶点
+        LongIntHashMap local = new LongIntHashMap();
+        local.add(target, 0);
+        IntList starts = new IntList();
+        IntList preds = new IntList();
+        IntList edges = new IntList();
+        for (int i = 0; i < local.size(); i++) {
+            int v = (int) local.keyAt(i);
+            starts.add(preds.size());
+            if (v == tree.source()) {
+                continue;
+            }
+            double distance = tree.distance(v);
+            for (int k = graph.inStart(v); k < graph.inEnd(v); k++) {
+                int u = graph.source(k);
+                if (isTight(tree.distance(u) + graph.inWeight(k), distance)) {
+                    preds.add(local.add(u, 0));
+                    edges.add(graph.inEdge(k));
+                }
+            }
+        }
+        starts.add(preds.size());
+
+        // 按距离从大到小重新编号，计数时倒序遍历即为拓扑序
+        int n = local.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(tree.distance((int) local.keyAt(b)), tree.distance((int) local.keyAt(a))));
+        int[] rank = new int[n];
+        for (int i = 0; i < n; i++) {
+            rank[order[i]] = i;
+        }
+        int[] vertices = new int[n];
+        int[] predecessorStart = new int[n + 1];
+        int[] predecessors = new int[preds.size()];
+        int[] predecessorEdges = new int[preds.size()];
+        int at = 0;
+        for (int i = 0; i < n; i++) {
+            int old = order[i];
+            vertices[i] = (int) local.keyAt(old);
+            predecessorStart[i] = at;
+            for (int k = starts.get(old); k < starts.get(old + 1); k++) {
+                predecessors[at] = rank[preds.get(k)];
+                predecessorEdges[at] = edges.get(k);
+                at++;
+            }
+        }
+        predecessorStart[n] = at;
+        return new ShortestPathDag(graph, tree.source(), target, tree.distance(target),
+                vertices, predecessorStart, predecessors, predecessorEdges);
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public int target() {
+        return target;
+    }
+
+    /**
+     * Returns the length shared by all shortest paths.
+     *
+     * @return The length, or infinity if the target is not reachable.
+     */
+    public double length() {
+        return length;
+    }
+
+    public boolean isReachable() {
+        return vertices.length > 0;
+    }
+
+    /**
+     * Returns the vertices lying on at least one shortest path.
+     *
+     * @return The vertex ids, in order of decreasing distance from the source.
+     */
+    public int[] vertices() {
+        return vertices.clone();
+    }
+
+    /**
+     * Returns the edges lying on at least one shortest path.
+     *
+     * @return The outgoing edge indices.
+     */
+    public int[] edges() {
+        return predecessorEdges.clone();
+    }
+
+    /**
+     * Returns the edges of the DAG as word pairs, e.g. to highlight the union
+     * of all shortest paths with {@link GraphRenderer#renderPaths}.
+     *
+     * @return One two-word list per edge.
+     */
+    public List<List<String>> edgeWords() {
+        List<List<String>> pairs = new ArrayList<>(predecessorEdges.length);
+        for (int i = 0; i < vertices.length; i++) {
+            for (int k = predecessorStart[i]; k < predecessorStart[i + 1]; k++) {
+                pairs.add(Arrays.asList(graph.word(vertices[predecessors[k]]), graph.word(vertices[i])));
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Counts the shortest paths without enumerating them.
+     *
+     * @return The number of shortest paths; 0 if the target is not reachable.
+     */
+    public BigInteger countPaths() {
+        int n = vertices.length;
+        if (n == 0) {
+            return BigInteger.ZERO;
+        }
+        BigInteger[] counts = new BigInteger[n];
+        // 下标越大距离越小，前驱的下标总比自己大
+        for (int i = n - 1; i >= 0; i--) {
+            if (vertices[i] == source) {
+                counts[i] = BigInteger.ONE;
+                continue;
+            }
+            BigInteger count = BigInteger.ZERO;
+            for (int k = predecessorStart[i]; k < predecessorStart[i + 1]; k++) {
+                count = count.add(counts[predecessors[k]]);
+            }
+            counts[i] = count;
+        }
+        return counts[0];
+    }
+
+    /**
+     * Enumerates the shortest paths lazily, one path per call to
+     * {@code next()}. Only the current path is held in memory.
+     *
+     * @return An iterator over the paths.
+     */
+    public Iterator<ShortestPath> paths() {
+        return new PathIterator();
+    }
+
+    static boolean isTight(double distance, double expected) {
+        return Math.abs(distance - expected) <= 1e-9 * Math.max(1.0, Math.abs(expected));
+    }
+
+    /**
+     * A depth-first search from the target over predecessors. The stack holds
+     * the DAG indexes of the current path and, per level, the predecessor slot
+     * to try next.
+     */
+    private final class PathIterator implements Iterator<ShortestPath> {
+        private final IntList stack = new IntList();
+        private final IntList nextSlot = new IntList();
+        private boolean ready;
+
+        PathIterator() {
+            if (vertices.length > 0) {
+                stack.add(0);
+                nextSlot.add(predecessorStart[0]);
+                ready = descend();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ready;
+        }
+
+        @Override
+        public ShortestPath next() {
+            if (!ready) {
+                throw new NoSuchElementException();
+            }
+            int depth = stack.size();
+            int[] path = new int[depth];
+            for (int i = 0; i < depth; i++) {
+                path[i] = vertices[stack.get(depth - 1 - i)];
+            }
+            ready = advance();
+            return new ShortestPath(path, length);
+        }
+
+        /**
+         * Follows the next untried predecessors down to the source. Every
+         * vertex of the DAG reaches the source, so this never dead-ends.
+         */
+        private boolean descend() {
+            while (vertices[stack.get(stack.size() - 1)] != source) {
+                int top = stack.size() - 1;
+                int slot = nextSlot.get(top);
+                nextSlot.set(top, slot + 1);
+                stack.add(predecessors[slot]);
+                nextSlot.add(predecessorStart[predecessors[slot]]);
+            }
+            return true;
+        }
+
+        /**
+         * Backtracks to the deepest level with an untried predecessor.
+         */
+        private boolean advance() {
+            while (stack.size() > 0) {
+                int top = stack.size() - 1;
+                int i = stack.get(top);
+                if (nextSlot.get(top) < predecessorStart[i + 1]) {
+                    return descend();
+                }
+                stack.removeLast();
+                nextSlot.removeLast();
+            }
+            return false;
+        }
+    }
+}
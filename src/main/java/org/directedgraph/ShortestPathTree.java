@@ -0,0 +1,109 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * The result of a single-source shortest path search: the distance and the
+ * parent of every vertex, indexed by vertex id. Unreached vertices have an
+ * infinite distance and parent -1.
+ *
+ * <p>Paths are not stored; each one is rebuilt from the parent array only when
+ * it is asked for, in time proportional to its length.
+ */
+public final class ShortestPathTree {
+    private final WordGraph graph;
+    private final int source;
+    private final double[] distances;
+    private final int[] parents;
+
+    ShortestPathTree(WordGraph graph, int source, double[] distances, int[] parents) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.parents = parents;
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public double distance(int vertex) {
+        return distances[vertex];
+    }
+
+    public int parent(int vertex) {
+        return parents[vertex];
+    }
+
+    public boolean isReachable(int vertex) {
+        return vertex == source || parents[vertex] >= 0;
+    }
+
+    /**
+     * Reconstructs the shortest path from the source to a vertex.
+     *
+     * @param target The target vertex id.
+     * @return The path, or {@code null} if the target is not reachable.
+     */
+    public ShortestPath pathTo(int target) {
+        if (!isReachable(target)) {
+            return null;
+        }
+        int length = 1;
+        for (int at = target; at != source; at = parents[at]) {
+            length++;
+        }
+        int[] vertices = new int[length];
+        for (int at = target, i = length - 1; i >= 0; at = parents[at], i--) {
+            vertices[i] = at;
+        }
+        return new ShortestPath(vertices, distances[target]);
+    }
+
+    /**
+     * Streams the path to every reachable vertex except the source, one line
+     * per target in vertex id order, in the format of
+     * {@link DirectedGraph#calcAllShortestPathsFrom(String)}. Only one path is
+     * held in memory at a time.
+     *
+     * @param out The destination; it is not flushed or closed.
+     * @return The number of paths written.
+     * @throws IOException If writing fails.
+     */
+    public int writePaths(Writer out) throws IOException {
+        String from = "从 " + graph.word(source) + " 到 ";
+        int[] path = new int[16];
+        int written = 0;
+        for (int target = 0; target < graph.vertexCount(); target++) {
+            if (target == source || !isReachable(target)) {
+                continue;
+            }
+            // 沿父节点倒着收集，输出时再反过来
+            int length = 0;
+            for (int at = target; at >= 0; at = parents[at]) {
+                if (length == path.length) {
+                    path = Arrays.copyOf(path, length * 2);
+                }
+                path[length++] = at;
+            }
+            out.write(from);
+            out.write(graph.word(target));
+            out.write(" 的最短路径：");
+            for (int i = length - 1; i >= 0; i--) {
+                out.write(graph.word(path[i]));
+                if (i > 0) {
+                    out.write("->");
+                }
+            }
+            out.write('\n');
+            written++;
+        }
+        return written;
+    }
+}
@@ -0,0 +1,204 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+
+/**
+ * The SpaceSaving heavy hitters summary over {@code long} keys.
+ *
+ * <p>At most {@code capacity} keys are monitored. A new key that does not fit
+ * replaces the key with the smallest count and inherits that count as its
+ * error, so for every monitored key {@code count - error <= true count <=
+ * count}, and every key occurring more than {@code total / capacity} times is
+ * monitored. The monitored keys sit in a binary min-heap by count and an
+ * open-addressing table with backward-shift deletion, so each update costs
+ * O(log capacity) and nothing is allocated after construction.
+ */
+final class SpaceSaving {
+    /** The heap bytes per monitored key, counting the table at its largest. */
+    static final int ENTRY_BYTES = 48;
+    /** The heap bytes of the array headers. */
+    static final int OVERHEAD_BYTES = 16 * 6;
+
+    private final int capacity;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heap;
+    private final int[] heapPositions;
+    private final int[] table;
+    private int size;
+    private long total;
+
+    SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        keys = new long[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        heap = new int[capacity];
+        heapPositions = new int[capacity];
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        Arrays.fill(table, -1);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long total() {
+        return total;
+    }
+
+    /**
+     * Counts one occurrence of a key.
+     */
+    void add(long key) {
+        total++;
+        int entry = indexOf(key);
+        if (entry >= 0) {
+            counts[entry]++;
+            siftDown(heapPositions[entry]);
+            return;
+        }
+        if (size < capacity) {
+            entry = size++;
+            keys[entry] = key;
+            counts[entry] = 1;
+            errors[entry] = 0;
+            heap[entry] = entry;
+            heapPositions[entry] = entry;
+            insert(entry);
+            siftUp(entry);
+            return;
+        }
+        // 顶替计数最小的键，它的计数成为新键的误差
+        entry = heap[0];
+        delete(keys[entry]);
+        keys[entry] = key;
+        errors[entry] = counts[entry];
+        counts[entry]++;
+        insert(entry);
+        siftDown(0);
+    }
+
+    /**
+     * Returns the entry index of a monitored key, or -1.
+     */
+    int indexOf(long key) {
+        int mask = table.length - 1;
+        int slot = LongIntHashMap.mix(key) & mask;
+        int entry;
+        while ((entry = table[slot]) >= 0) {
+            if (keys[entry] == key) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    long keyAt(int entry) {
+        return keys[entry];
+    }
+
+    /**
+     * Returns the upper bound on the count of a monitored key.
+     */
+    long countAt(int entry) {
+        return counts[entry];
+    }
+
+    /**
+     * Returns by how much the count of a monitored key may exceed its true count.
+     */
+    long errorAt(int entry) {
+        return errors[entry];
+    }
+
+    /**
+     * Returns the smallest monitored count, an upper bound on the count of
+     * every key that is not monitored; 0 while the summary is not full.
+     */
+    long minCount() {
+        return size < capacity ? 0 : counts[heap[0]];
+    }
+
+    long estimateBytes() {
+        return OVERHEAD_BYTES + 24L * capacity + 8L * capacity + 4L * table.length;
+    }
+
+    private void insert(int entry) {
+        int mask = table.length - 1;
+        int slot = LongIntHashMap.mix(keys[entry]) & mask;
+        while (table[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    /**
+     * Removes a key from the table, shifting later keys of its probe run back.
+     */
+    private void delete(long key) {
+        int mask = table.length - 1;
+        int slot = LongIntHashMap.mix(key) & mask;
+        while (keys[table[slot]] != key) {
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        slot = (slot + 1) & mask;
+        int entry;
+        while ((entry = table[slot]) >= 0) {
+            int home = LongIntHashMap.mix(keys[entry]) & mask;
+            // home 不在 (hole, slot] 之间时，这个键可以移到空位上
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table[hole] = entry;
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[hole] = -1;
+    }
+
+    private void siftUp(int position) {
+        int entry = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[entry]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapPositions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = entry;
+        heapPositions[entry] = position;
+    }
+
+    private void siftDown(int position) {
+        int entry = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[entry] <= counts[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPositions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = entry;
+        heapPositions[entry] = position;
+    }
+}
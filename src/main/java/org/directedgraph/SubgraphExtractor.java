@@ -0,0 +1,257 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cuts a bounded view out of a large graph, so that laying out and drawing it
+ * costs time proportional to the view rather than to the corpus.
+ *
+ * <p>The view is the k-hop neighborhood of some seed words, following edges in
+ * both directions but only those weighing at least {@code minWeight}. Each hop
+ * admits its candidates strongest-connected first, until the view holds
+ * {@code maxVertices} words. Non-seed words left with at most
+ * {@code collapseDegree} edges inside the view are then folded into one
+ * summary vertex per neighbor they hang off, named like {@code [word +3]},
+ * and their edges are merged with summed weights. A lone low-degree word is
+ * kept as it is.
+ *
+ * <p>For a path view, the path words are the seeds and the path edges are kept
+ * whatever their weight, so the path can still be highlighted in the result.
+ */
+public final class SubgraphExtractor {
+    private final int hops;
+    private final double minWeight;
+    private final int collapseDegree;
+    private final int maxVertices;
+
+    /**
+     * Creates an extractor.
+     *
+     * @param hops           The neighborhood radius.
+     * @param minWeight      The minimum weight of the edges to follow and keep.
+     * @param collapseDegree Non-seed vertices with at most this many edges in the
+     *                       view are collapsed; 0 disables collapsing.
+     * @param maxVertices    The maximum number of words in the view, seeds included.
+     */
+    public SubgraphExtractor(int hops, double minWeight, int collapseDegree, int maxVertices) {
+        if (hops < 0 || maxVertices < 1) {
+            throw new IllegalArgumentException("hops must be >= 0 and maxVertices >= 1");
+        }
+        this.hops = hops;
+        this.minWeight = minWeight;
+        this.collapseDegree = collapseDegree;
+        this.maxVertices = maxVertices;
+    }
+
+    /**
+     * Extracts the neighborhood of some words. Unknown words are ignored.
+     *
+     * @param graph The graph.
+     * @param words The seed words.
+     * @return The view, as a graph of its own.
+     */
+    public CompactGraph around(WordGraph graph, Collection<String> words) {
+        IntList seeds = new IntList();
+        for (String word : words) {
+            int id = graph.idOf(word);
+            if (id >= 0) {
+                seeds.add(id);
+            }
+        }
+        return extract(graph, seeds, new BitSet());
+    }
+
+    /**
+     * Extracts the neighborhood of a path, keeping all of its edges.
+     *
+     * @param graph The graph.
+     * @param path  The words of the path.
+     * @return The view, as a graph of its own.
+     */
+    public CompactGraph aroundPath(WordGraph graph, List<String> path) {
+        return aroundPaths(graph, Collections.singletonList(path));
+    }
+
+    /**
+     * Extracts the neighborhood of several paths, e.g. of all shortest paths
+     * between two words, keeping all of their edges.
+     *
+     * @param graph The graph.
+     * @param paths The paths, each as a list of words.
+     * @return The view, as a graph of its own.
+     */
+    public CompactGraph aroundPaths(WordGraph graph, Collection<? extends List<String>> paths) {
+        IntList seeds = new IntList();
+        BitSet pathEdges = new BitSet();
+        for (List<String> path : paths) {
+            int previous = -1;
+            for (String word : path) {
+                int id = graph.idOf(word);
+                if (id >= 0) {
+                    seeds.add(id);
+                    int e = previous < 0 ? -1 : graph.edgeIndex(previous, id);
+                    if (e >= 0) {
+                        pathEdges.set(e);
+                    }
+                }
+                previous = id;
+            }
+        }
+        return extract(graph, seeds, pathEdges);
+    }
+
+    private CompactGraph extract(WordGraph graph, IntList seeds, BitSet forcedEdges) {
+        // 选中的节点按加入顺序编号：局部编号就是表中的下标
+        LongIntHashMap selected = new LongIntHashMap();
+        IntList parents = new IntList();
+        for (int i = 0; i < seeds.size() && selected.size() < maxVertices; i++) {
+            if (selected.indexOf(seeds.get(i)) < 0) {
+                selected.add(seeds.get(i), 0);
+                parents.add(-1);
+            }
+        }
+        int seedCount = selected.size();
+
+        int frontierStart = 0;
+        for (int hop = 0; hop < hops && selected.size() < maxVertices; hop++) {
+            int frontierEnd = selected.size();
+            LongIntHashMap candidates = new LongIntHashMap();
+            double[] strength = new double[16];
+            IntList discoverers = new IntList();
+            for (int local = frontierStart; local < frontierEnd; local++) {
+                int u = (int) selected.keyAt(local);
+                for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                    if (graph.weight(e) >= minWeight || forcedEdges.get(e)) {
+                        strength = offer(selected, candidates, strength, discoverers, graph.target(e), graph.weight(e), local);
+                    }
+                }
+                for (int e = graph.inStart(u); e < graph.inEnd(u); e++) {
+                    if (graph.inWeight(e) >= minWeight || forcedEdges.get(graph.inEdge(e))) {
+                        strength = offer(selected, candidates, strength, discoverers, graph.source(e), graph.inWeight(e), local);
+                    }
+                }
+            }
+            Integer[] order = new Integer[candidates.size()];
+            for (int c = 0; c < order.length; c++) {
+                order[c] = c;
+            }
+            double[] byCandidate = strength;
+            Arrays.sort(order, (a, b) -> Double.compare(byCandidate[b], byCandidate[a]));
+            for (int c = 0; c < order.length && selected.size() < maxVertices; c++) {
+                selected.add(candidates.keyAt(order[c]), 0);
+                parents.add(discoverers.get(order[c]));
+            }
+            frontierStart = frontierEnd;
+        }
+
+        int n = selected.size();
+        int[] degree = new int[n];
+        IntList viewSources = new IntList();
+        IntList viewEdges = new IntList();
+        for (int local = 0; local < n; local++) {
+            int u = (int) selected.keyAt(local);
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                int target = selected.indexOf(graph.target(e));
+                if (target >= 0 && (graph.weight(e) >= minWeight || forcedEdges.get(e))) {
+                    viewSources.add(local);
+                    viewEdges.add(e);
+                    degree[local]++;
+                    degree[target]++;
+                }
+            }
+        }
+
+        // 折叠低度节点：归到离种子更近的那个邻居名下
+        boolean[] collapsed = new boolean[n];
+        for (int local = seedCount; local < n; local++) {
+            collapsed[local] = collapseDegree > 0 && degree[local] <= collapseDegree;
+        }
+        int[] anchor = new int[n];
+        int[] groupSize = new int[n];
+        boolean changed = true;
+        while (changed) {
+            Arrays.fill(groupSize, 0);
+            for (int local = 0; local < n; local++) {
+                int a = local;
+                while (collapsed[a]) {
+                    a = parents.get(a);
+                }
+                anchor[local] = a;
+                if (collapsed[local]) {
+                    groupSize[a]++;
+                }
+            }
+            // 只有一个成员的组不值得折叠，保留原来的词
+            changed = false;
+            for (int local = 0; local < n; local++) {
+                if (collapsed[local] && groupSize[anchor[local]] == 1) {
+                    collapsed[local] = false;
+                    changed = true;
+                }
+            }
+        }
+
+        WordDictionary dictionary = new WordDictionary();
+        int[] viewId = new int[n];
+        for (int local = 0; local < n; local++) {
+            if (!collapsed[local]) {
+                viewId[local] = dictionary.add(graph.word((int) selected.keyAt(local)));
+            }
+        }
+        int[] groupId = new int[n];
+        for (int local = 0; local < n; local++) {
+            if (groupSize[local] > 0) {
+                groupId[local] = dictionary.add("[" + graph.word((int) selected.keyAt(local)) + " +" + groupSize[local] + "]");
+            }
+        }
+        for (int local = 0; local < n; local++) {
+            if (collapsed[local]) {
+                viewId[local] = groupId[anchor[local]];
+            }
+        }
+
+        LongIntHashMap edges = new LongIntHashMap();
+        double[] weights = new double[16];
+        for (int i = 0; i < viewEdges.size(); i++) {
+            int e = viewEdges.get(i);
+            int u = viewSources.get(i);
+            int v = selected.indexOf(graph.target(e));
+            if ((collapsed[u] || collapsed[v]) && viewId[u] == viewId[v]) {
+                continue;
+            }
+            int index = edges.add(LongIntHashMap.pair(viewId[u], viewId[v]), 0);
+            if (index == weights.length) {
+                weights = Arrays.copyOf(weights, index * 2);
+            }
+            weights[index] += graph.weight(e);
+        }
+        int m = edges.size();
+        int[] edgeSources = new int[m];
+        int[] edgeTargets = new int[m];
+        for (int e = 0; e < m; e++) {
+            edgeSources[e] = LongIntHashMap.pairSource(edges.keyAt(e));
+            edgeTargets[e] = LongIntHashMap.pairTarget(edges.keyAt(e));
+        }
+        return CompactGraph.fromEdges(dictionary, edgeSources, edgeTargets, weights, m);
+    }
+
+    private static double[] offer(LongIntHashMap selected, LongIntHashMap candidates, double[] strength,
+                                  IntList discoverers, int vertex, double weight, int discoverer) {
+        if (selected.indexOf(vertex) >= 0) {
+            return strength;
+        }
+        int index = candidates.add(vertex, 0);
+        if (index == discoverers.size()) {
+            discoverers.add(discoverer);
+        }
+        if (index == strength.length) {
+            strength = Arrays.copyOf(strength, index * 2);
+        }
+        strength[index] += weight;
+        return strength;
+    }
+}
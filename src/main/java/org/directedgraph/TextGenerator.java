@@ -0,0 +1,179 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * Streams a document through bridge word insertion, the {@code Reader} to
+ * {@code Writer} counterpart of {@link DirectedGraph#generateNewText}.
+ *
+ * <p>The input is tokenized on the calling thread and cut into batches of a
+ * fixed number of words. Each batch inserts the bridge words of its own word
+ * pairs plus the pair that joins its last word to the first word of the next
+ * batch, drawing from a {@link Random} seeded by the document seed and the
+ * batch number. The output therefore depends only on the seed and the batch
+ * size, whether the batches run inline or on a thread pool. At most a few
+ * batches per thread are in flight, so memory stays bounded for any document.
+ */
+public final class TextGenerator {
+    /** The default number of words per batch. */
+    public static final int DEFAULT_BATCH_WORDS = 8192;
+
+    private final BiFunction<String, String, List<String>> bridgeWordFinder;
+    private final int batchWords;
+
+    /**
+     * Creates a generator.
+     *
+     * @param bridgeWordFinder Returns the bridge words between two words.
+     * @param batchWords       The number of words per batch.
+     */
+    public TextGenerator(BiFunction<String, String, List<String>> bridgeWordFinder, int batchWords) {
+        if (batchWords < 1) {
+            throw new IllegalArgumentException("batchWords must be positive: " + batchWords);
+        }
+        this.bridgeWordFinder = bridgeWordFinder;
+        this.batchWords = batchWords;
+    }
+
+    public TextGenerator(WordGraph graph) {
+        this(graph::findBridgeWords, DEFAULT_BATCH_WORDS);
+    }
+
+    public TextGenerator(BridgeWordIndex index) {
+        this(index::findBridgeWords, DEFAULT_BATCH_WORDS);
+    }
+
+    /**
+     * Generates the new text on the calling thread.
+     *
+     * @param in   The input text.
+     * @param out  The receiver of the new text.
+     * @param seed The seed choosing among several bridge words.
+     * @throws IOException If reading or writing fails.
+     */
+    public void generate(Reader in, Writer out, long seed) throws IOException {
+        generate(in, out, seed, 1);
+    }
+
+    /**
+     * Generates the new text, inserting bridge words on a pool of worker threads.
+     *
+     * @param in      The input text.
+     * @param out     The receiver of the new text.
+     * @param seed    The seed choosing among several bridge words.
+     * @param threads The number of worker threads; 1 runs inline.
+     * @throws IOException If reading or writing fails.
+     */
+    public void generate(Reader in, Writer out, long seed, int threads) throws IOException {
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        int window = threads > 1 ? threads * 2 : 0;
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        String[][] pending = new String[1][];
+        String[] batch = new String[batchWords];
+        int[] filled = new int[1];
+        long[] batchNumber = new long[1];
+
+        // 攒满一批后才能知道上一批末尾与下一批开头之间的单词对
+        BatchSink sink = (words, next) -> {
+            long number = batchNumber[0]++;
+            if (pool == null) {
+                out.write(process(words, next, seed, number));
+                return;
+            }
+            inFlight.addLast(pool.submit(() -> process(words, next, seed, number)));
+            while (inFlight.size() > window) {
+                out.write(await(inFlight.removeFirst()));
+            }
+        };
+
+        try {
+            WordTokenizer tokenizer = WordTokenizer.singleLine(word -> {
+                batch[filled[0]++] = word;
+                if (filled[0] == batchWords) {
+                    String[] full = batch.clone();
+                    filled[0] = 0;
+                    try {
+                        if (pending[0] != null) {
+                            sink.accept(pending[0], full[0]);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    pending[0] = full;
+                }
+            });
+            try {
+                tokenizer.feed(in).finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            String[] tail = Arrays.copyOf(batch, filled[0]);
+            if (pending[0] != null) {
+                sink.accept(pending[0], tail.length > 0 ? tail[0] : null);
+            }
+            if (tail.length > 0) {
+                sink.accept(tail, null);
+            }
+            while (!inFlight.isEmpty()) {
+                out.write(await(inFlight.removeFirst()));
+            }
+            out.flush();
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Inserts bridge words into one batch. The pair joining the batch to
+     * {@code next} is included; {@code next} itself is written by its own batch.
+     */
+    private String process(String[] words, String next, long seed, long batchNumber) {
+        Random random = new Random(seed ^ (batchNumber * 0x9E3779B97F4A7C15L));
+        StringBuilder sb = new StringBuilder(words.length * 8);
+        for (int i = 0; i < words.length; i++) {
+            String word1 = words[i];
+            String word2 = i + 1 < words.length ? words[i + 1] : next;
+            sb.append(word1);
+            if (word2 == null) {
+                break;
+            }
+            sb.append(' ');
+            List<String> bridgeWords = bridgeWordFinder.apply(word1, word2);
+            if (!bridgeWords.isEmpty()) {
+                sb.append(bridgeWords.get(random.nextInt(bridgeWords.size()))).append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String await(Future<String> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating text", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to generate text", e.getCause());
+        }
+    }
+
+    private interface BatchSink {
+        void accept(String[] words, String next) throws IOException;
+    }
+}
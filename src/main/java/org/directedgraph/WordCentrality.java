@@ -0,0 +1,414 @@
+package org.directedgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Ranks the words of a graph by importance: weighted PageRank and the total
+ * weight of the incoming and outgoing edges (in- and out-strength).
+ *
+ * <p>PageRank runs power iteration over plain double arrays. Each round first
+ * divides the rank of every word by its out-strength, then every word pulls
+ * the shares of its predecessors along its incoming edges, so each round
+ * writes every array slot from one thread only and needs no locking. Words
+ * without outgoing edges, such as the last word of a text, hand their rank to
+ * all words evenly. The iteration stops once the ranks change by less than
+ * the tolerance in total (L1 norm) or after the maximum number of rounds.
+ *
+ * <p>Vertices are cut into fixed blocks spread over a {@link ForkJoinPool};
+ * sums are added up block by block in a fixed order, so the result does not
+ * depend on the number of threads.
+ */
+public final class WordCentrality {
+    /** The default probability of following an edge instead of jumping. */
+    public static final double DEFAULT_DAMPING = 0.85;
+    /** The default bound on the L1 change of the ranks between two rounds. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    /** The default maximum number of rounds. */
+    public static final int DEFAULT_MAX_ITERATIONS = 200;
+
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * What a ranking measures.
+     */
+    public enum Measure {
+        PAGE_RANK("PageRank"),
+        IN_STRENGTH("in-strength"),
+        OUT_STRENGTH("out-strength");
+
+        private final String displayName;
+
+        Measure(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String displayName() {
+            return displayName;
+        }
+
+        /**
+         * Parses a measure name as used in commands: {@code pagerank},
+         * {@code in} or {@code out}.
+         *
+         * @param name The name.
+         * @return The measure.
+         * @throws IllegalArgumentException If the name is unknown.
+         */
+        public static Measure parse(String name) {
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "pagerank":
+                    return PAGE_RANK;
+                case "in":
+                    return IN_STRENGTH;
+                case "out":
+                    return OUT_STRENGTH;
+                default:
+                    throw new IllegalArgumentException("Unknown measure: " + name);
+            }
+        }
+    }
+
+    /**
+     * Scores of all words of a graph.
+     */
+    public static final class Ranking {
+        private final WordGraph graph;
+        private final double[] scores;
+        private final int iterations;
+        private final boolean converged;
+
+        Ranking(WordGraph graph, double[] scores, int iterations, boolean converged) {
+            this.graph = graph;
+            this.scores = scores;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+        public WordGraph graph() {
+            return graph;
+        }
+
+        public double score(int v) {
+            return scores[v];
+        }
+
+        /**
+         * Returns the score of a word.
+         *
+         * @param word The word.
+         * @return The score, or {@code NaN} if the word is not in the graph.
+         */
+        public double score(String word) {
+            int v = graph.idOf(word);
+            return v < 0 ? Double.NaN : scores[v];
+        }
+
+        /**
+         * Returns the number of power iteration rounds, 0 for strength rankings.
+         *
+         * @return The number of rounds.
+         */
+        public int iterations() {
+            return iterations;
+        }
+
+        /**
+         * Returns whether the iteration met the tolerance before the maximum
+         * number of rounds; always true for strength rankings.
+         *
+         * @return Whether the ranks converged.
+         */
+        public boolean converged() {
+            return converged;
+        }
+
+        /**
+         * Returns the highest scoring vertices, best first; equal scores are
+         * ordered by vertex id.
+         *
+         * @param k The maximum number of vertices.
+         * @return The vertex ids.
+         */
+        public int[] top(int k) {
+            if (k < 0) {
+                throw new IllegalArgumentException("k must not be negative: " + k);
+            }
+            int n = scores.length;
+            k = Math.min(k, n);
+            // 大小为 k 的最小堆，堆顶是当前入选的最差顶点
+            int[] heap = new int[k];
+            int size = 0;
+            for (int v = 0; v < n && k > 0; v++) {
+                if (size < k) {
+                    heap[size] = v;
+                    siftUp(heap, size++);
+                } else if (better(v, heap[0])) {
+                    heap[0] = v;
+                    siftDown(heap, size);
+                }
+            }
+            int[] top = new int[size];
+            while (size > 0) {
+                top[size - 1] = heap[0];
+                heap[0] = heap[--size];
+                siftDown(heap, size);
+            }
+            return top;
+        }
+
+        /**
+         * Returns the highest scoring words, best first.
+         *
+         * @param k The maximum number of words.
+         * @return The words.
+         */
+        public List<String> topWords(int k) {
+            int[] top = top(k);
+            List<String> words = new ArrayList<>(top.length);
+            for (int v : top) {
+                words.add(graph.word(v));
+            }
+            return words;
+        }
+
+        private boolean better(int u, int v) {
+            return scores[u] > scores[v] || scores[u] == scores[v] && u < v;
+        }
+
+        private void siftUp(int[] heap, int i) {
+            int v = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(heap[parent], v)) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = v;
+        }
+
+        private void siftDown(int[] heap, int size) {
+            if (size == 0) {
+                return;
+            }
+            int v = heap[0];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && better(heap[child], heap[child + 1])) {
+                    child++;
+                }
+                if (!better(v, heap[child])) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = v;
+        }
+    }
+
+    private final WordGraph graph;
+    private final ForkJoinPool pool;
+    private final double[] outStrength;
+    private final int blocks;
+
+    /**
+     * Creates an analyzer on the common fork-join pool.
+     *
+     * @param graph The graph to rank.
+     */
+    public WordCentrality(WordGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an analyzer.
+     *
+     * @param graph The graph to rank.
+     * @param pool  The pool running the rounds.
+     */
+    public WordCentrality(WordGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        this.blocks = (graph.vertexCount() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        this.outStrength = new double[graph.vertexCount()];
+        forEachBlock(block -> {
+            for (int v = blockStart(block); v < blockEnd(block); v++) {
+                double sum = 0;
+                for (int e = graph.outStart(v); e < graph.outEnd(v); e++) {
+                    sum += graph.weight(e);
+                }
+                outStrength[v] = sum;
+            }
+        });
+    }
+
+    public WordGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Computes a ranking, PageRank with the default parameters.
+     *
+     * @param measure What to rank by.
+     * @return The ranking.
+     */
+    public Ranking rank(Measure measure) {
+        switch (measure) {
+            case IN_STRENGTH:
+                return inStrength();
+            case OUT_STRENGTH:
+                return outStrength();
+            default:
+                return pageRank();
+        }
+    }
+
+    /**
+     * Computes PageRank with the default parameters.
+     *
+     * @return The ranking; the scores sum to 1.
+     */
+    public Ranking pageRank() {
+        return pageRank(DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Computes weighted PageRank: a random surfer follows an outgoing edge in
+     * proportion to its weight with probability {@code damping}, and jumps to
+     * a uniformly random word otherwise or when there is no outgoing edge.
+     *
+     * @param damping       The probability of following an edge, in [0, 1).
+     * @param tolerance     The L1 change of the ranks below which the iteration stops.
+     * @param maxIterations The maximum number of rounds.
+     * @return The ranking; the scores sum to 1.
+     */
+    public Ranking pageRank(double damping, double tolerance, int maxIterations) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping must be in [0, 1): " + damping);
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be positive: " + maxIterations);
+        }
+        int n = graph.vertexCount();
+        if (n == 0) {
+            return new Ranking(graph, new double[0], 0, true);
+        }
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] share = new double[n];
+        double[] partial = new double[blocks];
+        Arrays.fill(rank, 1.0 / n);
+
+        int iteration = 0;
+        boolean converged = false;
+        while (iteration < maxIterations && !converged) {
+            iteration++;
+            double[] current = rank;
+            // 第一步：每个词按出边总权重分摊自己的排名，没有出边的词的排名平均分给所有词
+            forEachBlock(block -> {
+                double dangling = 0;
+                for (int v = blockStart(block); v < blockEnd(block); v++) {
+                    if (outStrength[v] > 0) {
+                        share[v] = current[v] / outStrength[v];
+                    } else {
+                        share[v] = 0;
+                        dangling += current[v];
+                    }
+                }
+                partial[block] = dangling;
+            });
+            double base = (1 - damping + damping * sum(partial)) / n;
+
+            // 第二步：每个词沿入边收集前驱分摊的排名
+            double[] result = next;
+            forEachBlock(block -> {
+                double change = 0;
+                for (int v = blockStart(block); v < blockEnd(block); v++) {
+                    double sum = 0;
+                    for (int i = graph.inStart(v); i < graph.inEnd(v); i++) {
+                        sum += share[graph.source(i)] * graph.inWeight(i);
+                    }
+                    result[v] = base + damping * sum;
+                    change += Math.abs(result[v] - current[v]);
+                }
+                partial[block] = change;
+            });
+            converged = sum(partial) < tolerance;
+            next = rank;
+            rank = result;
+        }
+        return new Ranking(graph, rank, iteration, converged);
+    }
+
+    /**
+     * Ranks words by the total weight of their outgoing edges, i.e. how often
+     * they are followed by another word.
+     *
+     * @return The ranking.
+     */
+    public Ranking outStrength() {
+        return new Ranking(graph, outStrength.clone(), 0, true);
+    }
+
+    /**
+     * Ranks words by the total weight of their incoming edges, i.e. how often
+     * they follow another word.
+     *
+     * @return The ranking.
+     */
+    public Ranking inStrength() {
+        double[] strength = new double[graph.vertexCount()];
+        forEachBlock(block -> {
+            for (int v = blockStart(block); v < blockEnd(block); v++) {
+                double sum = 0;
+                for (int i = graph.inStart(v); i < graph.inEnd(v); i++) {
+                    sum += graph.inWeight(i);
+                }
+                strength[v] = sum;
+            }
+        });
+        return new Ranking(graph, strength, 0, true);
+    }
+
+    private int blockStart(int block) {
+        return block * BLOCK_SIZE;
+    }
+
+    private int blockEnd(int block) {
+        return Math.min(graph.vertexCount(), (block + 1) * BLOCK_SIZE);
+    }
+
+    private void forEachBlock(IntConsumer task) {
+        if (blocks <= 1) {
+            for (int block = 0; block < blocks; block++) {
+                task.accept(block);
+            }
+            return;
+        }
+        // 在指定的池中运行并行流，任务会留在这个池的线程上
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(task)).join();
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
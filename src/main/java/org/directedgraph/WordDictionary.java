@@ -0,0 +1,137 @@
+package org.directedgraph;
+
+import java.util.Arrays;
+
+/**
+ * Interns words to dense int ids, assigned in insertion order.
+ * Lookups use open addressing over an int table, so no boxing happens.
+ */
+public final class WordDictionary {
+    private String[] words;
+    private int[] table;
+    private int size;
+
+    /**
+     * Creates an empty dictionary.
+     */
+    public WordDictionary() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty dictionary sized for the expected number of words.
+     *
+     * @param expectedSize The expected number of distinct words.
+     */
+    public WordDictionary(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        words = new String[Math.max(4, expectedSize)];
+        table = new int[capacity];
+        Arrays.fill(table, -1);
+    }
+
+    /**
+     * Returns the id of the word, adding it if it is not present yet.
+     *
+     * @param word The word.
+     * @return The id of the word.
+     */
+    public int add(String word) {
+        int mask = table.length - 1;
+        int slot = WordTokenizer.mix(word.hashCode()) & mask;
+        int id;
+        while ((id = table[slot]) >= 0) {
+            if (words[id].equals(word)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == words.length) {
+            words = Arrays.copyOf(words, size * 2);
+        }
+        id = size++;
+        words[id] = word;
+        table[slot] = id;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the word.
+     *
+     * @param word The word.
+     * @return The id of the word, or -1 if it is unknown.
+     */
+    public int idOf(String word) {
+        if (word == null) {
+            return -1;
+        }
+        int mask = table.length - 1;
+        int slot = WordTokenizer.mix(word.hashCode()) & mask;
+        int id;
+        while ((id = table[slot]) >= 0) {
+            if (words[id].equals(word)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the word with the given id.
+     *
+     * @param id The id.
+     * @return The word.
+     */
+    public String word(int id) {
+        return words[id];
+    }
+
+    /**
+     * Returns the number of words.
+     *
+     * @return The number of words.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an independent copy of this dictionary with the same ids.
+     *
+     * @return The copy.
+     */
+    public WordDictionary copy() {
+        WordDictionary copy = new WordDictionary(size);
+        for (int id = 0; id < size; id++) {
+            copy.add(words[id]);
+        }
+        return copy;
+    }
+
+    /**
+     * Estimates the heap bytes used by the id tables, excluding the strings.
+     *
+     * @return The estimated number of bytes.
+     */
+    public long estimateBytes() {
+        return 16L + 4L * words.length + 16L + 4L * table.length;
+    }
+
+    private void rehash() {
+        int[] grown = new int[table.length * 2];
+        Arrays.fill(grown, -1);
+        int mask = grown.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = WordTokenizer.mix(words[id].hashCode()) & mask;
+            while (grown[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id;
+        }
+        table = grown;
+    }
+}
@@ -0,0 +1,142 @@
+package org.directedgraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+/**
+ * Read access to a frozen word graph in compressed sparse row (CSR) layout.
+ *
+ * <p>Words have dense int ids. The outgoing edges of vertex {@code v} are the
+ * edge indices {@code outStart(v)} to {@code outEnd(v) - 1}; the incoming
+ * edges use the same layout and point back to their outgoing edge index.
+ * {@link CompactGraph} keeps the arrays on the heap and {@link MappedGraph}
+ * reads them from a memory-mapped file; the query engines work on either.
+ */
+public interface WordGraph {
+
+    int vertexCount();
+
+    int edgeCount();
+
+    /**
+     * Returns the id of a word.
+     *
+     * @param word The word.
+     * @return The vertex id, or -1 if the word is not in the graph.
+     */
+    int idOf(String word);
+
+    String word(int id);
+
+    int outStart(int v);
+
+    int outEnd(int v);
+
+    int target(int edge);
+
+    double weight(int edge);
+
+    int inStart(int v);
+
+    int inEnd(int v);
+
+    int source(int inEdge);
+
+    /**
+     * Returns the outgoing edge index that an incoming edge refers to.
+     *
+     * @param inEdge The incoming edge index.
+     * @return The outgoing edge index.
+     */
+    int inEdge(int inEdge);
+
+    default boolean containsWord(String word) {
+        return idOf(word) >= 0;
+    }
+
+    default int outDegree(int v) {
+        return outEnd(v) - outStart(v);
+    }
+
+    default int inDegree(int v) {
+        return inEnd(v) - inStart(v);
+    }
+
+    default double inWeight(int inEdge) {
+        return weight(inEdge(inEdge));
+    }
+
+    /**
+     * Returns the index of the edge from {@code u} to {@code v}, scanning the
+     * shorter of the two adjacency rows.
+     *
+     * @param u The source id.
+     * @param v The target id.
+     * @return The outgoing edge index, or -1 if there is no such edge.
+     */
+    default int edgeIndex(int u, int v) {
+        if (outDegree(u) <= inDegree(v)) {
+            for (int e = outStart(u); e < outEnd(u); e++) {
+                if (target(e) == v) {
+                    return e;
+                }
+            }
+            return -1;
+        }
+        for (int i = inStart(v); i < inEnd(v); i++) {
+            if (source(i) == u) {
+                return inEdge(i);
+            }
+        }
+        return -1;
+    }
+
+    default boolean containsEdge(int u, int v) {
+        return edgeIndex(u, v) >= 0;
+    }
+
+    /**
+     * Finds bridge words between two given words, in the order of the
+     * outgoing edges of {@code word1}.
+     *
+     * @param word1 The first word.
+     * @param word2 The second word.
+     * @return A list of bridge words between the two given words.
+     */
+    default List<String> findBridgeWords(String word1, String word2) {
+        List<String> bridgeWords = new ArrayList<>();
+        int u = idOf(word1);
+        int w = idOf(word2);
+        if (u < 0 || w < 0) {
+            return bridgeWords;
+        }
+        for (int e = outStart(u); e < outEnd(u); e++) {
+            int v = target(e);
+            if (containsEdge(v, w)) {
+                bridgeWords.add(word(v));
+            }
+        }
+        return bridgeWords;
+    }
+
+    /**
+     * Converts this graph into a jgrapht graph, e.g. for rendering.
+     *
+     * @return A new jgrapht graph with the same vertices, edges and weights.
+     */
+    default DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> toGraph() {
+        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int v = 0; v < vertexCount(); v++) {
+            graph.addVertex(word(v));
+        }
+        for (int u = 0; u < vertexCount(); u++) {
+            for (int e = outStart(u); e < outEnd(u); e++) {
+                DefaultWeightedEdge edge = graph.addEdge(word(u), word(target(e)));
+                graph.setEdgeWeight(edge, weight(e));
+            }
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,41 @@
+package org.directedgraph;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of canonical word strings shared by several graphs, so that a word
+ * occurring in many corpora is stored once.
+ *
+ * <p>The pool only holds weak references: once no graph uses a word any more,
+ * e.g. after its graphs were evicted from a {@link GraphRegistry}, the string
+ * can be collected and drops out of the pool.
+ */
+public final class WordInterner {
+    private final WeakHashMap<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+    /**
+     * Returns the canonical instance of a word, adding it if it is new.
+     *
+     * @param word The word.
+     * @return A string equal to {@code word}, the same instance for equal words.
+     */
+    public synchronized String intern(String word) {
+        WeakReference<String> ref = pool.get(word);
+        String canonical = ref == null ? null : ref.get();
+        if (canonical == null) {
+            canonical = word;
+            pool.put(canonical, new WeakReference<>(canonical));
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the number of words in the pool that have not been collected yet.
+     *
+     * @return The number of words.
+     */
+    public synchronized int size() {
+        return pool.size();
+    }
+}
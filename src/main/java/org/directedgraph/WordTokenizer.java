@@ -0,0 +1,260 @@
+package org.directedgraph;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * A streaming, regex-free tokenizer that produces exactly the tokens of
+ * {@code line.replaceAll("[^a-zA-Z ]", " ").toLowerCase().split("\\s+")}
+ * applied line by line, without materializing lines or the word list.
+ *
+ * <p>Only ASCII letters form words, so UTF-8 input can be scanned byte by
+ * byte: every byte of a multi-byte sequence is simply a separator. Line
+ * boundaries follow {@link java.io.BufferedReader#readLine()}. To stay
+ * compatible with the regex version, an empty line yields one empty token
+ * and so does a line that starts with a separator and contains a word.
+ *
+ * <p>A tokenizer created with {@link #singleLine(Consumer)} treats line breaks
+ * as ordinary separators, matching how {@code generateNewText} cleans its
+ * whole input as one string.
+ *
+ * <p>Repeated words are returned as the same {@link String} instance, so a
+ * large corpus only allocates one string per distinct word.
+ */
+public final class WordTokenizer {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Consumer<String> consumer;
+    private final boolean splitLines;
+    private char[] token = new char[32];
+    private int tokenLength;
+    private int lineLength;
+    private boolean lineStartsWithSeparator;
+    private boolean lineHasWord;
+    private boolean skipLineFeed;
+
+    private String[] internTable = new String[1024];
+    private int internSize;
+
+    /**
+     * Creates a tokenizer that pushes every token to the given consumer.
+     *
+     * @param consumer The receiver of the tokens, in input order.
+     */
+    public WordTokenizer(Consumer<String> consumer) {
+        this(consumer, true);
+    }
+
+    private WordTokenizer(Consumer<String> consumer, boolean splitLines) {
+        this.consumer = consumer;
+        this.splitLines = splitLines;
+    }
+
+    /**
+     * Creates a tokenizer that treats the whole input as one line.
+     *
+     * @param consumer The receiver of the tokens, in input order.
+     * @return The tokenizer.
+     */
+    public static WordTokenizer singleLine(Consumer<String> consumer) {
+        return new WordTokenizer(consumer, false);
+    }
+
+    /**
+     * Tokenizes a UTF-8 file through a {@link FileChannel}.
+     *
+     * @param file     The file to read.
+     * @param consumer The receiver of the tokens, in input order.
+     * @throws IOException If the file cannot be read.
+     */
+    public static void tokenize(Path file, Consumer<String> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new WordTokenizer(consumer).feed(channel).finish();
+        }
+    }
+
+    /**
+     * Feeds all bytes of a UTF-8 channel into the tokenizer.
+     *
+     * @param channel The channel to drain; it is not closed.
+     * @return This tokenizer.
+     * @throws IOException If reading fails.
+     */
+    public WordTokenizer feed(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                accept(buffer.get() & 0xFF);
+            }
+            buffer.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Feeds all characters of a reader into the tokenizer.
+     *
+     * @param reader The reader to drain; it is not closed.
+     * @return This tokenizer.
+     * @throws IOException If reading fails.
+     */
+    public WordTokenizer feed(Reader reader) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            feed(buffer, 0, n);
+        }
+        return this;
+    }
+
+    /**
+     * Feeds a range of characters into the tokenizer.
+     *
+     * @param chars  The characters.
+     * @param offset The first character to feed.
+     * @param length The number of characters to feed.
+     * @return This tokenizer.
+     */
+    public WordTokenizer feed(char[] chars, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            accept(chars[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Feeds a whole string into the tokenizer.
+     *
+     * @param text The text.
+     * @return This tokenizer.
+     */
+    public WordTokenizer feed(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            accept(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Signals the end of input and flushes the last line.
+     */
+    public void finish() {
+        if (lineLength > 0 || !splitLines) {
+            endLine();
+        }
+        skipLineFeed = false;
+    }
+
+    private void accept(int c) {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if (c == '\n') {
+                return;
+            }
+        }
+        if (splitLines && (c == '\n' || c == '\r')) {
+            skipLineFeed = c == '\r';
+            endLine();
+            return;
+        }
+
+        boolean upper = c >= 'A' && c <= 'Z';
+        boolean letter = upper || (c >= 'a' && c <= 'z');
+        if (lineLength++ == 0) {
+            lineStartsWithSeparator = !letter;
+        }
+        if (letter) {
+            if (!lineHasWord) {
+                lineHasWord = true;
+                // split("\\s+") 在行首分隔符处会产生一个空串
+                if (lineStartsWithSeparator) {
+                    consumer.accept("");
+                }
+            }
+            if (tokenLength == token.length) {
+                char[] grown = new char[token.length * 2];
+                System.arraycopy(token, 0, grown, 0, tokenLength);
+                token = grown;
+            }
+            token[tokenLength++] = (char) (upper ? c + ('a' - 'A') : c);
+        } else if (tokenLength > 0) {
+            emitToken();
+        }
+    }
+
+    private void endLine() {
+        if (tokenLength > 0) {
+            emitToken();
+        } else if (lineLength == 0) {
+            // 空行经过 split 后得到一个空串
+            consumer.accept("");
+        }
+        lineLength = 0;
+        lineHasWord = false;
+    }
+
+    private void emitToken() {
+        consumer.accept(intern());
+        tokenLength = 0;
+    }
+
+    private String intern() {
+        int hash = 0;
+        for (int i = 0; i < tokenLength; i++) {
+            hash = 31 * hash + token[i];
+        }
+        int mask = internTable.length - 1;
+        int slot = mix(hash) & mask;
+        String candidate;
+        while ((candidate = internTable[slot]) != null) {
+            if (candidate.hashCode() == hash && matches(candidate)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        String word = new String(token, 0, tokenLength);
+        internTable[slot] = word;
+        if (++internSize * 2 > internTable.length) {
+            rehash();
+        }
+        return word;
+    }
+
+    private boolean matches(String candidate) {
+        if (candidate.length() != tokenLength) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (candidate.charAt(i) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        String[] old = internTable;
+        internTable = new String[old.length * 2];
+        int mask = internTable.length - 1;
+        for (String word : old) {
+            if (word != null) {
+                int slot = mix(word.hashCode()) & mask;
+                while (internTable[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                internTable[slot] = word;
+            }
+        }
+    }
+
+    static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
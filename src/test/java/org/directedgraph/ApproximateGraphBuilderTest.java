@@ -0,0 +1,120 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApproximateGraphBuilderTest {
+
+    private static List<String> skewedWords(long seed, int vocabulary, int length) {
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            words.add("w" + (int) (vocabulary * Math.pow(random.nextDouble(), 3)));
+        }
+        return words;
+    }
+
+    private static Map<String, Integer> countPairs(List<String> words) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i + 1 < words.size(); i++) {
+            counts.merge(words.get(i) + " " + words.get(i + 1), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    void testExactWhenEverythingFits() {
+        List<String> words = skewedWords(1, 300, 5000);
+        ApproximateGraphBuilder builder = new ApproximateGraphBuilder(64L << 20, 1, 0);
+        words.forEach(builder::accept);
+        CompactGraph approximate = builder.build();
+        CompactGraph exact = new ParallelGraphBuilder(1).buildCompactGraph(words);
+        assertEquals(exact.vertexCount(), approximate.vertexCount());
+        assertEquals(exact.edgeCount(), approximate.edgeCount());
+        for (int u = 0; u < exact.vertexCount(); u++) {
+            assertEquals(exact.word(u), approximate.word(u));
+            for (int e = exact.outStart(u); e < exact.outEnd(u); e++) {
+                int edge = approximate.edgeIndex(u, exact.target(e));
+                assertEquals(exact.weight(e), approximate.weight(edge));
+            }
+        }
+    }
+
+    @Test
+    void testBoundsUnderTightBudget() {
+        List<String> words = skewedWords(2, 2000, 200000);
+        Map<String, Integer> counts = countPairs(words);
+        long budget = 64L << 10;
+        ApproximateGraphBuilder builder = new ApproximateGraphBuilder(budget, 20, 0);
+        words.forEach(builder::accept);
+        CompactGraph graph = builder.build();
+        assertTrue(builder.estimateBytes() <= budget);
+        assertTrue(graph.edgeCount() < counts.size());
+
+        for (Map.Entry<String, Integer> pair : counts.entrySet()) {
+            String[] split = pair.getKey().split(" ");
+            int count = pair.getValue();
+            assertTrue(builder.lowerBound(split[0], split[1]) <= count);
+            assertTrue(builder.upperBound(split[0], split[1]) >= count);
+            int edge = graph.edgeIndex(graph.idOf(split[0]), graph.idOf(split[1]));
+            if (edge >= 0) {
+                assertTrue(graph.weight(edge) >= count);
+                assertTrue(graph.weight(edge) <= count + builder.errorBound());
+            } else {
+                // 超过保证阈值的高频词对一定保留
+                assertTrue(count <= Math.max(builder.guaranteedWeight(), 19), pair.getKey() + "=" + count);
+            }
+        }
+        assertTrue(builder.report().contains("pairs=199999"));
+    }
+
+    @Test
+    void testTopKPerWord() {
+        List<String> words = skewedWords(3, 500, 50000);
+        Map<String, Integer> counts = countPairs(words);
+        ApproximateGraphBuilder builder = new ApproximateGraphBuilder(64L << 20, 1, 3);
+        words.forEach(builder::accept);
+        CompactGraph graph = builder.build();
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            assertTrue(graph.outDegree(u) <= 3);
+            double lightestKept = Double.POSITIVE_INFINITY;
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                lightestKept = Math.min(lightestKept, graph.weight(e));
+            }
+            // 被裁掉的边不比保留的边重
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                Integer count = counts.get(graph.word(u) + " " + graph.word(v));
+                if (count != null && !graph.containsEdge(u, v)) {
+                    assertTrue(count <= lightestKept);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testQueriesOnPrunedGraph() throws IOException {
+        ApproximateGraphBuilder builder = new ApproximateGraphBuilder(1 << 20, 2, 0);
+        builder.ingest(new StringReader("the cat sat on the mat the cat ate the rat once"));
+        GraphSnapshot snapshot = new GraphSnapshot(1, builder.build());
+        // 只出现一次的词对被裁掉，只剩 the -> cat
+        assertEquals(1, snapshot.graph().edgeCount());
+        assertEquals("Shortest path from \"the\" to \"cat\" is: the -> cat, the length is 2.0",
+                snapshot.calcShortestPath("the", "cat"));
+        assertEquals("No path from \"the\" to \"mat\"!", snapshot.calcShortestPath("the", "mat"));
+        assertEquals("No bridge words from \"the\" to \"sat\"!", snapshot.queryBridgeWords("the", "sat"));
+        List<String> walk = snapshot.randomWalk(1, 5);
+        for (int i = 0; i + 1 < walk.size(); i++) {
+            assertTrue(snapshot.graph().containsEdge(snapshot.graph().idOf(walk.get(i)), snapshot.graph().idOf(walk.get(i + 1))));
+        }
+    }
+}
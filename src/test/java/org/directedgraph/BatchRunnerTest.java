@@ -0,0 +1,109 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRunnerTest {
+
+    private static String run(BatchRunner runner, String script) throws IOException {
+        StringWriter out = new StringWriter();
+        runner.run(new StringReader(script), out);
+        return out.toString();
+    }
+
+    @Test
+    void testParallelRunKeepsInputOrder() throws IOException {
+        GraphSnapshot snapshot = new GraphSnapshot(0, CompactGraph.of(DirectedGraph.buildGraphFromFile("input.txt")));
+        StringBuilder script = new StringBuilder("# 注释和空行不算命令\n\n");
+        for (int i = 0; i < 200; i++) {
+            script.append("walk ").append(i).append(" 5\n");
+            script.append("path alex happy\n");
+            script.append("bridge hurt owl\n");
+            script.append("generate the fox ").append(i).append('\n');
+        }
+        String sequential = run(new BatchRunner(snapshot, 1, false), script.toString());
+        String parallel = run(new BatchRunner(snapshot, 4, false), script.toString());
+        assertEquals(sequential, parallel);
+
+        String[] lines = parallel.split("\n");
+        assertEquals(800, lines.length);
+        assertEquals("ok\t" + QueryCommands.walk(snapshot, 3, 5), lines[12]);
+        assertEquals("ok\t" + snapshot.calcShortestPath("alex", "happy"), lines[1]);
+        assertEquals("ok\tThe bridge word from \"hurt\" to \"owl\" is: deer.", lines[2]);
+    }
+
+    @Test
+    void testErrorsAndEscaping() throws IOException {
+        GraphSnapshot snapshot = new GraphSnapshot(0, CompactGraph.of(DirectedGraph.buildGraph(
+                Arrays.asList("a", "b", "a", "c"))));
+        String[] lines = run(new BatchRunner(snapshot, 2, false),
+                "fly away\nrank in 2\nbridge a\nrender graph.dot a b\nnext a\n").split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("error\tUnknown command: fly", lines[0]);
+        // 多行结果中的换行被转义，每条命令只占一行
+        assertEquals("ok\tTop 2 words by in-strength:\\n1. a 1.000000\\n2. b 1.000000", lines[1]);
+        assertEquals("error\tWrong number of arguments for bridge: 1", lines[2]);
+        assertEquals("error\tRendering is disabled", lines[3]);
+        assertEquals("ok\tTop 2 next words after \"a\":\\n1. b 0.500000\\n2. c 0.500000", lines[4]);
+    }
+
+    @Test
+    void testRender(@TempDir Path dir) throws IOException {
+        GraphSnapshot snapshot = new GraphSnapshot(0, CompactGraph.of(DirectedGraph.buildGraph(
+                Arrays.asList("a", "b", "c"))));
+        Path file = dir.resolve("path.dot");
+        String[] lines = run(new BatchRunner(snapshot, 1, true),
+                "render " + file + " a b\nrender " + dir.resolve("graph.gif") + "\nrender\n").split("\n");
+        assertEquals("ok\t" + file.toAbsolutePath(), lines[0]);
+        assertTrue(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains("digraph"));
+        assertEquals("error\tUnknown render format: graph.gif", lines[1]);
+        assertEquals("error\tWrong number of arguments for render: 0", lines[2]);
+    }
+
+    @Test
+    void testCurrentGraphWithoutGui() throws IOException {
+        DirectedGraph.setGraph(DirectedGraph.buildGraph(Arrays.asList("x", "y", "z")));
+        DirectedGraph.setGuiEnabled(false);
+        try {
+            StringWriter out = new StringWriter();
+            assertEquals(2, DirectedGraph.runBatch(new StringReader("path x z\nrender out.svg\n"), out, 2));
+            assertEquals("ok\tShortest path from \"x\" to \"z\" is: x -> y -> z, the length is 2.0\n"
+                    + "error\tRendering is disabled\n", out.toString());
+        } finally {
+            DirectedGraph.setGuiEnabled(true);
+        }
+    }
+
+    @Test
+    void testStdoutHasOneLinePerCommand(@TempDir Path dir) throws IOException {
+        DirectedGraph.setGraph(DirectedGraph.buildGraph(Arrays.asList("a", "x", "b", "a", "y", "b")));
+        Path script = dir.resolve("cmds.txt");
+        Files.write(script, "bridge a b\nbridge a x\n".getBytes(StandardCharsets.UTF_8));
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, "UTF-8"));
+        try {
+            DirectedGraph.runBatch(script.toString(), 1);
+        } finally {
+            System.setOut(stdout);
+        }
+        // 多个桥接词的查询不能在结果行之外再打印别的内容
+        String[] lines = new String(captured.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("ok\tThe bridge words between \"a\" and \"b\" are: x, and y.", lines[0]);
+        assertEquals("ok\tNo bridge words from \"a\" to \"x\"!", lines[1]);
+    }
+}
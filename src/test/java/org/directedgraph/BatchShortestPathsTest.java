@@ -0,0 +1,75 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchShortestPathsTest {
+
+    @Test
+    void testMatchesSingleQueries() {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(11, 200, 3000));
+        Random random = new Random(3);
+        List<BatchShortestPaths.Pair> pairs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // 起点只取前 20 个词，让同一起点出现多次
+            pairs.add(BatchShortestPaths.Pair.of(graph.word(random.nextInt(20)), graph.word(random.nextInt(graph.vertexCount()))));
+        }
+        pairs.add(BatchShortestPaths.Pair.of("nosuchword", graph.word(0)));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BatchShortestPaths batch = new BatchShortestPaths(graph, pool);
+            List<BatchShortestPaths.Result> results = batch.run(pairs.stream());
+            assertEquals(pairs.size(), results.size());
+            DijkstraEngine engine = new DijkstraEngine(graph);
+            for (int i = 0; i < pairs.size(); i++) {
+                BatchShortestPaths.Pair pair = pairs.get(i);
+                assertEquals(pair, results.get(i).pair());
+                ShortestPath path = results.get(i).path();
+                if (path == null) {
+                    assertEquals(DirectedGraph.calcShortestPath(graph, pair.word1(), pair.word2()), batch.describe(results.get(i)));
+                    continue;
+                }
+                // 等长路径可能不止一条，只比较长度并检查路径确实存在
+                double expected = engine.shortestPathTree(graph.idOf(pair.word1())).distance(graph.idOf(pair.word2()));
+                assertEquals(expected, results.get(i).distance(), 1e-9);
+                double length = 0;
+                int[] vertices = path.vertices();
+                for (int k = 0; k + 1 < vertices.length; k++) {
+                    length += graph.weight(graph.edgeIndex(vertices[k], vertices[k + 1]));
+                }
+                assertEquals(expected, length, 1e-9);
+            }
+            assertTrue(Double.isNaN(results.get(pairs.size() - 1).distance()));
+            assertNull(results.get(pairs.size() - 1).path());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testNumericOutput() throws IOException {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c", "a", "d")));
+        BatchShortestPaths batch = new BatchShortestPaths(graph);
+        StringWriter out = new StringWriter();
+        batch.write(Arrays.asList(
+                BatchShortestPaths.Pair.of("a", "c"),
+                BatchShortestPaths.Pair.of("d", "a"),
+                BatchShortestPaths.Pair.of("a", "x")).stream(), out, BatchShortestPaths.Format.NUMERIC);
+        String expected = "2.0\t" + graph.idOf("a") + " " + graph.idOf("b") + " " + graph.idOf("c") + "\n"
+                + "Infinity\t\n"
+                + "NaN\t\n";
+        assertEquals(expected, out.toString());
+    }
+}
@@ -0,0 +1,86 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BridgeWordIndexTest {
+
+    private final CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(11, 50, 600));
+
+    private void assertMatchesGraph(BridgeWordIndex index) {
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            for (int w = 0; w < graph.vertexCount(); w++) {
+                assertEquals(graph.findBridgeWords(graph.word(u), graph.word(w)),
+                        index.findBridgeWords(graph.word(u), graph.word(w)));
+            }
+        }
+        assertTrue(index.findBridgeWords("missing", graph.word(0)).isEmpty());
+    }
+
+    @Test
+    void testFullIndexMatchesGraph() {
+        BridgeWordIndex index = BridgeWordIndex.build(graph);
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            assertTrue(index.isMaterialized(graph.word(u)));
+        }
+        assertMatchesGraph(index);
+    }
+
+    @Test
+    void testBudgetedIndexMatchesGraph() {
+        BridgeWordIndex index = BridgeWordIndex.build(graph, 200);
+        assertTrue(index.entryCount() <= 200);
+        boolean anyFallback = false;
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            anyFallback |= !index.isMaterialized(graph.word(u));
+        }
+        assertTrue(anyFallback);
+        assertMatchesGraph(index);
+    }
+
+    @Test
+    void testQueryBridgeWordsMatchesGraph() {
+        CompactGraph input = CompactGraph.of(DirectedGraph.buildGraph(DirectedGraph.readWordsFromFile("input.txt")));
+        BridgeWordIndex index = BridgeWordIndex.build(input);
+        assertEquals("The bridge word from \"hurt\" to \"owl\" is: deer.", DirectedGraph.queryBridgeWords(index, "hurt", "owl"));
+        assertEquals("No \"river\" in the graph!", DirectedGraph.queryBridgeWords(index, "alex", "river"));
+        assertFalse(index.isMaterialized("river"));
+    }
+
+    @Test
+    void testHubOverBudgetIsIntersected() {
+        // hub 后面跟着 10 万个不同的词，每个词再指向 100 个目标之一
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            words.add("hub");
+            words.add("w" + i);
+            words.add("t" + (i % 100));
+        }
+        CompactGraph hubGraph = CompactGraph.of(DirectedGraph.buildGraph(words));
+        BridgeWordIndex index = BridgeWordIndex.build(hubGraph, 1000);
+        assertFalse(index.isMaterialized("hub"));
+        assertTrue(index.entryCount() > 0);
+
+        List<String> bridges = index.findBridgeWords("hub", "t99");
+        assertEquals(hubGraph.findBridgeWords("hub", "t99"), bridges);
+        assertEquals(1000, bridges.size());
+        assertEquals("w99", bridges.get(0));
+        assertEquals("w99999", bridges.get(999));
+        assertEquals(hubGraph.findBridgeWords("t3", "w42"), index.findBridgeWords("t3", "w42"));
+        assertTrue(index.findBridgeWords("hub", "hub").isEmpty());
+        // 每次查询只在 w 的一个前驱里查找，不扫描 hub 的 10 万条出边
+        assertTimeout(Duration.ofSeconds(2), () -> {
+            for (int i = 0; i < 100000; i++) {
+                assertTrue(index.findBridgeWords("hub", "w" + i).isEmpty());
+            }
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package org.directedgraph;
+
+import org.jgrapht.alg.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactGraphTest {
+
+    private final DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph =
+            DirectedGraph.buildGraph(DirectedGraph.readWordsFromFile("input.txt"));
+    private final CompactGraph compact = CompactGraph.of(graph);
+
+    @Test
+    void testStructureMatchesGraph() {
+        assertEquals(graph.vertexSet().size(), compact.vertexCount());
+        assertEquals(graph.edgeSet().size(), compact.edgeCount());
+        for (DefaultWeightedEdge edge : graph.edgeSet()) {
+            int u = compact.idOf(graph.getEdgeSource(edge));
+            int v = compact.idOf(graph.getEdgeTarget(edge));
+            int e = compact.edgeIndex(u, v);
+            assertTrue(e >= 0);
+            assertEquals(graph.getEdgeWeight(edge), compact.weight(e));
+        }
+        for (int v = 0; v < compact.vertexCount(); v++) {
+            assertEquals(graph.inDegreeOf(compact.word(v)), compact.inDegree(v));
+        }
+        assertEquals(-1, compact.idOf("river"));
+    }
+
+    @Test
+    void testBridgeWordsMatchGraph() {
+        for (String word1 : graph.vertexSet()) {
+            for (String word2 : graph.vertexSet()) {
+                assertEquals(DirectedGraph.findBridgeWords(graph, word1, word2), compact.findBridgeWords(word1, word2));
+                assertEquals(DirectedGraph.queryBridgeWords(graph, word1, word2),
+                        DirectedGraph.queryBridgeWords(compact, word1, word2));
+            }
+        }
+        assertEquals("No \"river\" in the graph!", DirectedGraph.queryBridgeWords(compact, "alex", "river"));
+    }
+
+    @Test
+    void testShortestPathLengthMatchesJGraphT() {
+        for (String word1 : graph.vertexSet()) {
+            for (String word2 : graph.vertexSet()) {
+                if (word1.equals(word2)) {
+                    continue;
+                }
+                String result = DirectedGraph.calcShortestPathBetween(compact, word1, word2);
+                DijkstraShortestPath<String, DefaultWeightedEdge> expected = new DijkstraShortestPath<>(graph, word1, word2);
+                if (expected.getPath() == null) {
+                    assertEquals("No path from \"" + word1 + "\" to \"" + word2 + "\"!", result);
+                } else {
+                    assertTrue(result.endsWith(", the length is " + expected.getPathLength()), result);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRoundTripAndFootprint() {
+        CompactGraph copy = CompactGraph.of(compact.toGraph());
+        assertEquals(compact.edgeCount(), copy.edgeCount());
+        assertEquals(compact.findBridgeWords("hurt", "owl"), copy.findBridgeWords("hurt", "owl"));
+        String report = CompactGraph.footprintReport(graph, compact);
+        assertTrue(report.startsWith("vertices: " + compact.vertexCount()), report);
+    }
+}
@@ -0,0 +1,69 @@
+package org.directedgraph;
+
+import org.jgrapht.alg.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DijkstraEngineTest {
+
+    static DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> randomGraph(long seed, int vocabulary, int length) {
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            // 偏斜分布，让少数单词成为枢纽
+            int rank = (int) (vocabulary * Math.pow(random.nextDouble(), 3));
+            words.add("w" + rank);
+        }
+        return DirectedGraph.buildGraph(words);
+    }
+
+    @Test
+    void testBidirectionalMatchesJGraphT() {
+        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = randomGraph(42, 60, 400);
+        CompactGraph compact = CompactGraph.of(graph);
+        DijkstraEngine engine = new DijkstraEngine(compact);
+        for (int u = 0; u < compact.vertexCount(); u++) {
+            ShortestPathTree tree = engine.shortestPathTree(u);
+            for (int v = 0; v < compact.vertexCount(); v++) {
+                if (u == v) {
+                    continue;
+                }
+                DijkstraShortestPath<String, DefaultWeightedEdge> expected =
+                        new DijkstraShortestPath<>(graph, compact.word(u), compact.word(v));
+                ShortestPath path = engine.shortestPath(u, v);
+                if (expected.getPath() == null) {
+                    assertNull(path);
+                    assertTrue(!tree.isReachable(v));
+                    continue;
+                }
+                assertEquals(expected.getPathLength(), path.length(), 1e-9);
+                assertEquals(expected.getPathLength(), tree.distance(v), 1e-9);
+                assertEquals(u, path.vertices()[0]);
+                assertEquals(v, path.vertices()[path.vertices().length - 1]);
+                double length = 0;
+                for (int i = 0; i + 1 < path.vertices().length; i++) {
+                    length += compact.weight(compact.edgeIndex(path.vertices()[i], path.vertices()[i + 1]));
+                }
+                assertEquals(path.length(), length, 1e-9);
+                assertEquals(tree.distance(v), tree.pathTo(v).length(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testCalcAllShortestPathsFromUsesCurrentGraph() throws IOException {
+        DirectedGraph.setGraph(DirectedGraph.buildGraph(DirectedGraph.readWordsFromFile("input_test.txt")));
+        assertEquals("从 hello 到 world 的最短路径：hello->world\n", DirectedGraph.calcAllShortestPathsFrom("hello"));
+        assertEquals("No \"river\" in the graph!", DirectedGraph.calcShortestPath("river", ""));
+    }
+}
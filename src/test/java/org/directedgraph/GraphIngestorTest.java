@@ -0,0 +1,62 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphIngestorTest {
+
+    @Test
+    void testSegmentsMatchFullBuild() {
+        GraphIngestor ingestor = new GraphIngestor();
+        List<String> words = new ArrayList<>();
+        String[] segments = {"Alex seeks hidden falls, map in hand.", "Deep woods, tall trees, Alex", "walks deep woods"};
+        for (String segment : segments) {
+            ingestor.append(segment);
+            new WordTokenizer(words::add).feed(segment).finish();
+        }
+        CompactGraph expected = CompactGraph.of(DirectedGraph.buildGraph(words));
+        WordGraph actual = ingestor.snapshot().graph();
+        assertEquals(expected.vertexCount(), actual.vertexCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int u = 0; u < expected.vertexCount(); u++) {
+            assertEquals(expected.word(u), actual.word(u));
+            for (int e = expected.outStart(u); e < expected.outEnd(u); e++) {
+                int f = actual.edgeIndex(u, expected.target(e));
+                assertEquals(expected.weight(e), actual.weight(f));
+            }
+        }
+        // 上一段末尾的 alex 与下一段开头的 walks 之间的边
+        assertTrue(actual.containsEdge(actual.idOf("alex"), actual.idOf("walks")));
+    }
+
+    @Test
+    void testSnapshotsStayConsistent() {
+        GraphIngestor ingestor = new GraphIngestor();
+        GraphSnapshot first = ingestor.append("hello world");
+        assertEquals("No \"again\" in the graph!", first.queryBridgeWords("hello", "again"));
+        ingestor.ingest("hello again");
+        assertEquals(first, ingestor.snapshot());
+        GraphSnapshot second = ingestor.publish();
+        assertTrue(second.version() > first.version());
+        assertEquals("No \"again\" in the graph!", first.queryBridgeWords("hello", "again"));
+        assertEquals("The bridge word from \"world\" to \"again\" is: hello.", second.queryBridgeWords("world", "again"));
+        assertEquals("Shortest path from \"hello\" to \"again\" is: hello -> again, the length is 1.0",
+                second.calcShortestPath("hello", "again"));
+    }
+
+    @Test
+    void testContinuesExistingGraph() {
+        List<String> words = Arrays.asList("a", "b", "a", "b");
+        GraphIngestor ingestor = new GraphIngestor(CompactGraph.of(DirectedGraph.buildGraph(words)), "b");
+        WordGraph graph = ingestor.append("a c").graph();
+        assertEquals(2.0, graph.weight(graph.edgeIndex(graph.idOf("b"), graph.idOf("a"))));
+        assertEquals(2.0, graph.weight(graph.edgeIndex(graph.idOf("a"), graph.idOf("b"))));
+        assertEquals(1.0, graph.weight(graph.edgeIndex(graph.idOf("a"), graph.idOf("c"))));
+    }
+}
@@ -0,0 +1,116 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphMetricsTest {
+
+    @BeforeEach
+    void enable() {
+        GraphMetrics.reset();
+        GraphMetrics.setEnabled(true);
+    }
+
+    @AfterEach
+    void disable() {
+        GraphMetrics.setEnabled(false);
+        GraphMetrics.reset();
+    }
+
+    @Test
+    void testCountsCallsAndErrors() {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c")));
+        DirectedGraph.queryBridgeWords(graph, "a", "c");
+        DirectedGraph.queryBridgeWords(graph, "a", "x");
+        DirectedGraph.calcShortestPath(graph, "a", "c");
+        assertThrows(NullPointerException.class, () -> DirectedGraph.randomWalk(null, 1, 3));
+
+        assertEquals(1, GraphMetrics.calls(GraphMetrics.Operation.BUILD_GRAPH));
+        assertEquals(2, GraphMetrics.calls(GraphMetrics.Operation.QUERY_BRIDGE_WORDS));
+        assertEquals(0, GraphMetrics.errors(GraphMetrics.Operation.QUERY_BRIDGE_WORDS));
+        assertEquals(1, GraphMetrics.calls(GraphMetrics.Operation.CALC_SHORTEST_PATH));
+        assertEquals(1, GraphMetrics.errors(GraphMetrics.Operation.RANDOM_WALK));
+        assertTrue(GraphMetrics.percentileNanos(GraphMetrics.Operation.QUERY_BRIDGE_WORDS, 0.5) > 0);
+        // 双向 Dijkstra 至少取出两个端点
+        assertEquals(1, GraphMetrics.dijkstraSearches());
+        assertTrue(GraphMetrics.nodesSettled() >= 2);
+        assertTrue(GraphMetrics.edgesRelaxed() >= 2);
+    }
+
+    @Test
+    void testBuildFromFileIsCounted() throws IOException {
+        DirectedGraph.buildGraphFromFile("input.txt");
+        assertThrows(IOException.class, () -> DirectedGraph.buildGraphFromFile("missing.txt"));
+        assertEquals(2, GraphMetrics.calls(GraphMetrics.Operation.BUILD_GRAPH));
+        assertEquals(1, GraphMetrics.errors(GraphMetrics.Operation.BUILD_GRAPH));
+    }
+
+    @Test
+    void testDisabledRecordsNothing() {
+        GraphMetrics.setEnabled(false);
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c")));
+        DirectedGraph.calcShortestPath(graph, "a", "c");
+        assertEquals(0, GraphMetrics.calls(GraphMetrics.Operation.BUILD_GRAPH));
+        assertEquals(0, GraphMetrics.calls(GraphMetrics.Operation.CALC_SHORTEST_PATH));
+        assertEquals(0, GraphMetrics.dijkstraSearches());
+    }
+
+    @Test
+    void testBuckets() {
+        for (long nanos : new long[]{0, 1, 3, 4, 7, 8, 11, 12, 1000, 123456789L, Long.MAX_VALUE}) {
+            int bucket = GraphMetrics.bucket(nanos);
+            assertTrue(nanos <= GraphMetrics.bucketUpperBound(bucket), "upper bound of " + nanos);
+            assertTrue(bucket == 0 || nanos > GraphMetrics.bucketUpperBound(bucket - 1), "lower bound of " + nanos);
+            // 相对误差不超过 25%
+            assertTrue(GraphMetrics.bucketUpperBound(bucket) - nanos <= nanos / 4 + 1);
+        }
+    }
+
+    @Test
+    void testGaugesAndMBeans() throws Exception {
+        DirectedGraph.setGraph(CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "a", "c"))));
+        GraphMetrics.registerMBeans();
+        GraphMetrics.registerMBeans();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName graphName = new ObjectName("org.directedgraph:type=GraphMetrics");
+        assertEquals(3, server.getAttribute(graphName, "Vertices"));
+        assertEquals(3, server.getAttribute(graphName, "Edges"));
+        assertEquals(2, server.getAttribute(graphName, "MaxOutDegree"));
+        ObjectName buildName = new ObjectName("org.directedgraph:type=Operation,name=buildGraph");
+        assertEquals(1L, server.getAttribute(buildName, "Calls"));
+
+        String report = GraphMetrics.report();
+        assertTrue(report.contains("vertices=3 edges=3 maxOutDegree=2"));
+        assertTrue(report.contains("calcShortestPath"));
+    }
+
+    @Test
+    void testMaxOutDegreeIsScannedOnRead() {
+        AtomicInteger scans = new AtomicInteger();
+        GraphMetrics.graphSize(5, 7, () -> {
+            scans.incrementAndGet();
+            return 4;
+        });
+        // 换图时不扫描，读取时才扫描一次
+        assertEquals(0, scans.get());
+        assertEquals(4, GraphMetrics.maxOutDegree());
+        assertTrue(GraphMetrics.report().contains("vertices=5 edges=7 maxOutDegree=4"));
+        assertEquals(1, scans.get());
+        GraphMetrics.graphSize(1, 0, 0);
+        assertEquals(0, GraphMetrics.maxOutDegree());
+        assertEquals(1, scans.get());
+    }
+}
@@ -0,0 +1,81 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphQueryServerTest {
+    private GraphSnapshot snapshot;
+    private GraphQueryServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshot = new GraphSnapshot(0, CompactGraph.of(DirectedGraph.buildGraphFromFile("input.txt")));
+        server = new GraphQueryServer(0, () -> snapshot, 4, 16);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testBridgeAndPath() throws IOException {
+        assertEquals("The bridge word from \"hurt\" to \"owl\" is: deer.", request("GET", "/bridge?word1=hurt&word2=owl", null));
+        assertEquals(snapshot.calcShortestPath("alex", "happy"), request("GET", "/path?word1=alex&word2=happy", null));
+        assertTrue(request("GET", "/words?limit=3", null).startsWith("alex\n"));
+    }
+
+    @Test
+    void testBatchKeepsInputOrder() throws IOException {
+        String body = "bridge hurt owl\n\nfly away\npath alex\nwalk 7 3\n";
+        String[] lines = request("POST", "/batch", body).split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("ok\tThe bridge word from \"hurt\" to \"owl\" is: deer.", lines[0]);
+        assertEquals("error\tUnknown command: fly", lines[1]);
+        assertTrue(lines[2].startsWith("ok\t") && lines[2].contains("\\n"));
+        assertEquals("ok\t" + QueryCommands.walk(snapshot, 7, 3), lines[3]);
+    }
+
+    @Test
+    void testBadRequest() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.port() + "/bridge?word1=hurt").openConnection();
+        assertEquals(400, connection.getResponseCode());
+        assertThrows(IllegalArgumentException.class, () -> QueryCommands.execute(snapshot, "bridge hurt"));
+        assertThrows(IllegalArgumentException.class, () -> QueryCommands.execute(snapshot, "walk seven"));
+    }
+
+    private String request(String method, String pathAndQuery, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.port() + pathAndQuery).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(200, connection.getResponseCode());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
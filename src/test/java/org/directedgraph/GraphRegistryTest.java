@@ -0,0 +1,101 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    private Path corpus(String name, String text) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void testSharesWordsAcrossGraphs() throws IOException {
+        GraphRegistry registry = new GraphRegistry(Long.MAX_VALUE);
+        registry.registerCorpus("a", corpus("a.txt", "the quick brown fox"));
+        registry.registerCorpus("b", corpus("b.txt", "the lazy brown dog the lazy brown cat"));
+        assertFalse(registry.isLoaded("a"));
+
+        WordGraph a = registry.get("a").graph();
+        WordGraph b = registry.get("b").graph();
+        assertSame(a.word(a.idOf("brown")), b.word(b.idOf("brown")));
+        assertEquals(7, registry.interner().size());
+        assertEquals("The bridge word from \"the\" to \"brown\" is: quick.", registry.get("a").queryBridgeWords("the", "brown"));
+        assertEquals("The bridge word from \"the\" to \"brown\" is: lazy.", registry.get("b").queryBridgeWords("the", "brown"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("c"));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        Path text = corpus("c.txt", "a b c d e f g h a c e g");
+        GraphRegistry probe = new GraphRegistry(Long.MAX_VALUE);
+        probe.registerCorpus("x", text);
+        long size = GraphRegistry.estimateBytes(probe.get("x").graph());
+
+        // 预算只够两个图
+        GraphRegistry registry = new GraphRegistry(size * 2);
+        for (String name : Arrays.asList("x", "y", "z")) {
+            registry.registerCorpus(name, text);
+        }
+        GraphSnapshot x = registry.get("x");
+        registry.get("y");
+        registry.get("x");
+        registry.get("z");
+        assertTrue(registry.isLoaded("x"));
+        assertFalse(registry.isLoaded("y"));
+        assertTrue(registry.isLoaded("z"));
+        assertEquals(size * 2, registry.usedBytes());
+
+        // 被淘汰的图在下次访问时重新加载，版本号递增
+        assertEquals(2, registry.get("y").version());
+        registry.invalidate("y");
+        assertEquals(3, registry.get("y").version());
+        assertFalse(registry.isLoaded("x"));
+        // 旧快照仍然可以查询
+        assertEquals(registry.get("y").calcShortestPath("a", "h"), x.calcShortestPath("a", "h"));
+    }
+
+    @Test
+    void testPinnedGraphsStayLoaded() throws IOException {
+        GraphRegistry registry = new GraphRegistry(0);
+        registry.put("fixed", CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b"))));
+        registry.registerCorpus("loaded", corpus("d.txt", "a b c"));
+        registry.get("loaded");
+        assertTrue(registry.isLoaded("fixed"));
+        assertTrue(registry.remove("fixed"));
+        assertFalse(registry.contains("fixed"));
+        assertEquals(Arrays.asList("loaded"), registry.names());
+    }
+
+    @Test
+    void testUseGraph() throws IOException {
+        GraphRegistry previous = DirectedGraph.registry();
+        try {
+            GraphRegistry registry = new GraphRegistry(Long.MAX_VALUE);
+            registry.registerCorpus("small", corpus("e.txt", "hello big world"));
+            DirectedGraph.setRegistry(registry);
+            DirectedGraph.useGraph("small");
+            assertEquals("The bridge word from \"hello\" to \"world\" is: big.",
+                    DirectedGraph.queryBridgeWords(DirectedGraph.compactGraph(), "hello", "world"));
+        } finally {
+            DirectedGraph.setRegistry(previous);
+        }
+    }
+}
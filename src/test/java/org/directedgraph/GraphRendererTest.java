@@ -0,0 +1,75 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphRendererTest {
+
+    private static int count(String text, String part) {
+        int n = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            n++;
+        }
+        return n;
+    }
+
+    @Test
+    void testLayoutIsComputedOnce() throws IOException {
+        GraphRenderer renderer = new GraphRenderer(CompactGraph.of(DirectedGraph.buildGraphFromFile("input.txt")));
+        assertFalse(renderer.isLaidOut());
+        GraphRenderer.Layout layout = renderer.layout();
+        renderer.writeSvg(new StringWriter(), Arrays.asList("hurt", "deer", "owl"));
+        renderer.renderImage(Collections.<String>emptyList());
+        assertSame(layout, renderer.layout());
+    }
+
+    @Test
+    void testSvgHighlightsPathEdges() throws IOException {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c", "a", "c", "c")));
+        GraphRenderer renderer = new GraphRenderer(graph);
+        StringWriter plain = new StringWriter();
+        renderer.writeSvg(plain, Collections.<String>emptyList());
+        StringWriter highlighted = new StringWriter();
+        renderer.writeSvg(highlighted, Arrays.asList("a", "b", "c"));
+
+        assertEquals(graph.edgeCount(), count(plain.toString(), "<polyline"));
+        assertEquals(graph.vertexCount(), count(plain.toString(), "<rect x="));
+        assertEquals(0, count(plain.toString(), "stroke-width=\"3\""));
+        assertEquals(2, count(highlighted.toString(), "stroke-width=\"3\""));
+    }
+
+    @Test
+    void testDotOutput() throws IOException {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "a", "b")));
+        StringWriter out = new StringWriter();
+        new GraphRenderer(graph).writeDot(out, Arrays.asList("b", "a"));
+        assertEquals("digraph G {\n"
+                + "  \"a\";\n"
+                + "  \"b\";\n"
+                + "  \"a\" -> \"b\" [label=\"2.0\"];\n"
+                + "  \"b\" -> \"a\" [label=\"1.0\", color=red, penwidth=3];\n"
+                + "}\n", out.toString());
+    }
+
+    @Test
+    void testRenderAsync(@TempDir Path dir) throws Exception {
+        GraphRenderer renderer = new GraphRenderer(CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("x", "y", "y"))));
+        Path png = renderer.renderAsync(Arrays.asList("x", "y"), GraphRenderer.Format.PNG, dir.resolve("g.png")).get(30, TimeUnit.SECONDS);
+        assertTrue(Files.size(png) > 0);
+        Path svg = renderer.renderAsync(null, GraphRenderer.Format.SVG, dir.resolve("g.svg")).get(30, TimeUnit.SECONDS);
+        assertTrue(new String(Files.readAllBytes(svg), "UTF-8").startsWith("<svg"));
+    }
+}
@@ -0,0 +1,145 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LandmarkIndexTest {
+
+    @Test
+    void testExactAndSettlesLess() {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(5, 3000, 12000));
+        LandmarkIndex index = LandmarkIndex.build(graph, 8);
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        long altSettled = 0;
+        long dijkstraSettled = 0;
+        for (int source = 0; source < graph.vertexCount(); source += 97) {
+            ShortestPathTree tree = engine.shortestPathTree(source);
+            for (int target = 1; target < graph.vertexCount(); target += 89) {
+                LandmarkIndex.Search alt = index.search(source, target);
+                LandmarkIndex.Search plain = index.dijkstra(source, target);
+                double expected = tree.distance(target);
+                if (expected == Double.POSITIVE_INFINITY) {
+                    assertNull(alt.path());
+                    assertNull(plain.path());
+                    continue;
+                }
+                assertTrue(index.lowerBound(source, target) <= expected + 1e-9);
+                assertNotNull(alt.path());
+                assertEquals(expected, alt.path().length(), 1e-9);
+                assertEquals(expected, plain.path().length(), 1e-9);
+                int[] vertices = alt.path().vertices();
+                assertEquals(source, vertices[0]);
+                assertEquals(target, vertices[vertices.length - 1]);
+                for (int i = 0; i + 1 < vertices.length; i++) {
+                    assertTrue(graph.containsEdge(vertices[i], vertices[i + 1]));
+                }
+                altSettled += alt.settled();
+                dijkstraSettled += plain.settled();
+            }
+        }
+        assertTrue(altSettled < dijkstraSettled, altSettled + " >= " + dijkstraSettled);
+    }
+
+    @Test
+    void testProvesUnreachableWithoutSearching() {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c", "d")));
+        LandmarkIndex index = LandmarkIndex.build(graph, 2);
+        LandmarkIndex.Search search = index.search(graph.idOf("d"), graph.idOf("a"));
+        assertNull(search.path());
+        assertEquals(0, search.settled());
+        assertEquals(3.0, index.search(graph.idOf("a"), graph.idOf("d")).path().length());
+    }
+
+    @Test
+    void testSmallGraphUsesEveryVertexOnce() {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "a")));
+        LandmarkIndex index = LandmarkIndex.build(graph, 16);
+        assertEquals(2, index.landmarks().length);
+        assertEquals(1.0, index.search(graph.idOf("b"), graph.idOf("a")).path().length());
+    }
+
+    @Test
+    void testIndependentOfThreadCount() {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(9, 500, 3000));
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            LandmarkIndex a = LandmarkIndex.build(graph, 6, single);
+            LandmarkIndex b = LandmarkIndex.build(graph, 6);
+            assertArrayEquals(a.landmarks(), b.landmarks());
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                assertEquals(a.lowerBound(v, 3), b.lowerBound(v, 3));
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void testMenuQueriesUseLandmarks() {
+        GraphMetrics.reset();
+        GraphMetrics.setEnabled(true);
+        try {
+            DirectedGraph.setGraph(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c", "d", "a", "c")));
+            DirectedGraph.setLandmarkCount(3);
+            assertEquals("Shortest path from \"a\" to \"d\" is: a -> c -> d, the length is 2.0",
+                    DirectedGraph.calcShortestPath(DirectedGraph.compactGraph(), "a", "d"));
+            assertEquals(1, GraphMetrics.landmarkSearches());
+            assertEquals(0, GraphMetrics.dijkstraSearches());
+        } finally {
+            DirectedGraph.setLandmarkCount(0);
+            GraphMetrics.setEnabled(false);
+            GraphMetrics.reset();
+        }
+    }
+
+    @Test
+    void testIndexBuildDoesNotBlockOtherQueries() throws Exception {
+        DirectedGraph.setGraph(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c", "d", "a", "c")));
+        DirectedGraph.setLandmarkCount(3);
+        try {
+            WordGraph current = DirectedGraph.compactGraph();
+            PathIndexes indexes = DirectedGraph.pathIndexes(current);
+            assertNotNull(indexes);
+            assertSame(indexes, DirectedGraph.pathIndexes(current));
+            GraphSnapshot snapshot = new GraphSnapshot(0, CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("x", "y"))));
+            assertNull(DirectedGraph.pathIndexes(snapshot.graph()));
+
+            ExecutorService pool = Executors.newSingleThreadExecutor();
+            try {
+                // 持有索引的锁，相当于一次很长的预处理
+                synchronized (indexes) {
+                    Future<String> other = pool.submit(() -> {
+                        DirectedGraph.compactGraph();
+                        DirectedGraph.bridgeWordIndex();
+                        return snapshot.calcShortestPath("x", "y");
+                    });
+                    assertEquals("Shortest path from \"x\" to \"y\" is: x -> y, the length is 1.0",
+                            other.get(10, TimeUnit.SECONDS));
+                }
+            } finally {
+                pool.shutdown();
+            }
+            assertEquals("Shortest path from \"a\" to \"d\" is: a -> c -> d, the length is 2.0",
+                    DirectedGraph.calcShortestPath(current, "a", "d"));
+            assertNotNull(indexes.landmarks());
+
+            DirectedGraph.setLandmarkCount(0);
+            assertNull(DirectedGraph.pathIndexes(current).landmarks());
+        } finally {
+            DirectedGraph.setLandmarkCount(0);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadTestClientTest {
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    /**
+     * Starts a minimal HTTP server that answers /words and /bridge but drops
+     * every /path connection without a response.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    String requestLine = reader.readLine();
+                    String line;
+                    while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                        // 跳过请求头
+                    }
+                    if (requestLine == null || requestLine.startsWith("GET /path")) {
+                        continue;
+                    }
+                    String body = requestLine.startsWith("GET /words") ? "a\nb\nc\n" : "ok";
+                    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                    OutputStream out = socket.getOutputStream();
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + bytes.length + "\r\nConnection: close\r\n\r\n")
+                            .getBytes(StandardCharsets.UTF_8));
+                    out.write(bytes);
+                    out.flush();
+                } catch (IOException e) {
+                    // 服务器关闭
+                }
+            }
+        });
+        acceptor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        serverSocket.close();
+        acceptor.join();
+    }
+
+    @Test
+    void testDroppedConnectionsAreNotCountedAsAnswered() throws Exception {
+        LoadTestClient.Report report = new LoadTestClient("http://127.0.0.1:" + serverSocket.getLocalPort(), 2, 40).run();
+        // 每个客户端在连接被断开后继续发送剩下的请求
+        assertTrue(report.failed() > 0);
+        assertTrue(report.requests() > 0);
+        assertEquals(80, report.requests() + report.failed());
+        assertEquals(0, report.rejected());
+        // 只统计有响应的请求，没有延迟为 0 的空位
+        assertTrue(report.percentileMicros(0) > 0);
+        assertTrue(report.throughput() > 0);
+    }
+}
@@ -0,0 +1,95 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedGraphTest {
+
+    private static void assertSameGraph(WordGraph expected, WordGraph actual) {
+        assertEquals(expected.vertexCount(), actual.vertexCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int v = 0; v < expected.vertexCount(); v++) {
+            assertEquals(expected.word(v), actual.word(v));
+            assertEquals(v, actual.idOf(expected.word(v)));
+            assertEquals(expected.outStart(v), actual.outStart(v));
+            assertEquals(expected.outEnd(v), actual.outEnd(v));
+            assertEquals(expected.inStart(v), actual.inStart(v));
+            assertEquals(expected.inEnd(v), actual.inEnd(v));
+        }
+        for (int e = 0; e < expected.edgeCount(); e++) {
+            assertEquals(expected.target(e), actual.target(e));
+            assertEquals(expected.weight(e), actual.weight(e));
+            assertEquals(expected.source(e), actual.source(e));
+            assertEquals(expected.inEdge(e), actual.inEdge(e));
+        }
+    }
+
+    @Test
+    void testRoundTrip(@TempDir Path dir) throws IOException {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraphFromFile("input.txt"));
+        Path file = dir.resolve("input.graph");
+        GraphFile.write(graph, file);
+        MappedGraph mapped = MappedGraph.open(file);
+        assertSameGraph(graph, mapped);
+        assertEquals(-1, mapped.idOf("missing"));
+        assertEquals(-1, mapped.idOf(null));
+
+        assertEquals("The bridge word from \"hurt\" to \"owl\" is: deer.", DirectedGraph.queryBridgeWords(mapped, "hurt", "owl"));
+        assertEquals(DirectedGraph.calcShortestPath(graph, "alex", "happy"), DirectedGraph.calcShortestPath(mapped, "alex", "happy"));
+        assertEquals(DirectedGraph.calcShortestPath(graph, "alex", ""), DirectedGraph.calcShortestPath(mapped, "alex", ""));
+    }
+
+    @Test
+    void testLargerGraphAndEmptyGraph(@TempDir Path dir) throws IOException {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(9, 5000, 100000));
+        Path file = dir.resolve("random.graph");
+        GraphFile.write(graph, file);
+        assertSameGraph(graph, MappedGraph.open(file));
+
+        CompactGraph empty = CompactGraph.of(DirectedGraph.buildGraphFromFile("input_test.txt"));
+        GraphFile.write(empty, file);
+        assertSameGraph(empty, MappedGraph.open(file));
+    }
+
+    @Test
+    void testRejectsOtherFiles(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("not.graph");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> MappedGraph.open(file));
+        Files.write(file, new byte[3]);
+        assertThrows(IOException.class, () -> MappedGraph.open(file));
+    }
+
+    @Test
+    void testGraphFileIsRebuiltWhenTextChanges(@TempDir Path dir) throws IOException {
+        Path text = dir.resolve("input.txt");
+        Path file = dir.resolve("input.graph");
+        Files.write(text, "the cat sat".getBytes(StandardCharsets.UTF_8));
+        DirectedGraph.loadGraphFile(text.toString(), file.toString());
+        assertTrue(Files.exists(file));
+        assertTrue(DirectedGraph.compactGraph().containsWord("cat"));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(text).toMillis() + 10000));
+        DirectedGraph.loadGraphFile(text.toString(), file.toString());
+        assertTrue(DirectedGraph.compactGraph() instanceof MappedGraph);
+
+        // 文本比图文件新时重建并覆盖图文件
+        Files.write(text, "the dog ran".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(text, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10000));
+        DirectedGraph.loadGraphFile(text.toString(), file.toString());
+        assertTrue(DirectedGraph.compactGraph().containsWord("dog"));
+        assertFalse(DirectedGraph.compactGraph().containsWord("cat"));
+        assertTrue(MappedGraph.open(file).containsWord("dog"));
+    }
+}
@@ -0,0 +1,156 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NextWordPredictorTest {
+
+    private static void assertRowMatches(Map<String, Double> expected, NextWordPredictor predictor, String word) {
+        List<NextWordPredictor.Prediction> row = predictor.predict(word, Integer.MAX_VALUE);
+        assertEquals(expected.size(), row.size());
+        assertEquals(expected.size(), predictor.successorCount(word));
+        double total = 0;
+        for (int i = 0; i < row.size(); i++) {
+            NextWordPredictor.Prediction prediction = row.get(i);
+            assertEquals(expected.get(prediction.word()), prediction.weight());
+            if (i > 0) {
+                assertTrue(row.get(i - 1).weight() >= prediction.weight());
+            }
+            total += prediction.weight();
+        }
+        assertEquals(total, predictor.outWeight(word), 1e-9);
+        for (NextWordPredictor.Prediction prediction : row) {
+            assertEquals(prediction.weight() / total, prediction.probability(), 1e-12);
+        }
+    }
+
+    @Test
+    void testBuildSortsByWeight() {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(
+                Arrays.asList("the", "cat", "the", "dog", "the", "cat", "the", "rat", "the", "cat", "the", "dog")));
+        NextWordPredictor predictor = NextWordPredictor.of(graph);
+        List<NextWordPredictor.Prediction> top = predictor.predict("the", 2);
+        assertEquals(2, top.size());
+        assertEquals("cat", top.get(0).word());
+        assertEquals(0.5, top.get(0).probability());
+        assertEquals("dog", top.get(1).word());
+        assertEquals(2.0 / 6, top.get(1).probability(), 1e-12);
+        assertEquals(1.0 / 6, predictor.probability("the", "rat"), 1e-12);
+        assertEquals(0, predictor.probability("cat", "rat"));
+        // 没有后继的词和不存在的词都返回空
+        assertTrue(predictor.predict("missing", 3).isEmpty());
+        assertEquals(1, predictor.predict("dog", 3).size());
+        assertTrue(predictor.predict("the", 0).isEmpty());
+
+        assertEquals("Top 2 next words after \"the\":\n1. cat 0.500000\n2. dog 0.333333",
+                DirectedGraph.describePredictions(predictor, "the", 2));
+        assertEquals("No \"missing\" in the graph!", DirectedGraph.describePredictions(predictor, "missing", 2));
+        NextWordPredictor empty = new NextWordPredictor();
+        empty.addWord("end");
+        assertEquals("No words follow \"end\"!", DirectedGraph.describePredictions(empty, "end", 2));
+    }
+
+    @Test
+    void testIncrementalUpdatesKeepRowsSorted() {
+        Random random = new Random(5);
+        NextWordPredictor predictor = new NextWordPredictor();
+        Map<String, Map<String, Double>> expected = new HashMap<>();
+        for (int step = 0; step < 20000; step++) {
+            String word1 = "u" + random.nextInt(5);
+            String word2 = "v" + random.nextInt(200);
+            Map<String, Double> row = expected.computeIfAbsent(word1, w -> new HashMap<>());
+            int kind = random.nextInt(10);
+            if (kind < 7) {
+                predictor.addWeight(word1, word2, 1);
+                row.merge(word2, 1.0, Double::sum);
+            } else if (kind < 9) {
+                double weight = random.nextInt(8);
+                predictor.setWeight(word1, word2, weight);
+                if (weight > 0) {
+                    row.put(word2, weight);
+                } else {
+                    row.remove(word2);
+                }
+            } else {
+                predictor.setWeight(word1, word2, 0);
+                row.remove(word2);
+            }
+            if (step % 500 == 0) {
+                for (Map.Entry<String, Map<String, Double>> entry : expected.entrySet()) {
+                    assertRowMatches(entry.getValue(), predictor, entry.getKey());
+                }
+            }
+        }
+        for (Map.Entry<String, Map<String, Double>> entry : expected.entrySet()) {
+            assertRowMatches(entry.getValue(), predictor, entry.getKey());
+        }
+    }
+
+    @Test
+    void testHubWithManySuccessors() {
+        NextWordPredictor predictor = new NextWordPredictor();
+        for (int i = 0; i < 100000; i++) {
+            predictor.addWeight("hub", "w" + i, 1);
+        }
+        // 一个权重为 1 的后继被加到最前面，不需要移动其余的后继
+        predictor.addWeight("hub", "w99999", 1);
+        predictor.addWeight("hub", "w50000", 3);
+        List<NextWordPredictor.Prediction> top = predictor.predict("hub", 3);
+        assertEquals("w50000", top.get(0).word());
+        assertEquals(4.0, top.get(0).weight());
+        assertEquals("w99999", top.get(1).word());
+        assertEquals(2.0, top.get(1).weight());
+        assertEquals(1.0, top.get(2).weight());
+        assertEquals(100004.0, predictor.outWeight("hub"));
+    }
+
+    @Test
+    void testIngestorUpdatesLivePredictor() {
+        GraphIngestor ingestor = new GraphIngestor();
+        ingestor.ingest("the cat sat on the mat");
+        NextWordPredictor live = ingestor.predictor();
+        assertEquals(0.5, live.probability("the", "cat"));
+        ingestor.ingest("the cat ran");
+        assertEquals(2.0 / 3, live.probability("the", "cat"), 1e-12);
+        // 尚未发布的快照还看不到新文本
+        assertEquals("No \"ran\" in the graph!", ingestor.snapshot().predictNextWords("ran", 3));
+
+        GraphSnapshot snapshot = ingestor.publish();
+        NextWordPredictor rebuilt = snapshot.predictor();
+        List<String> words = new ArrayList<>();
+        for (int v = 0; v < snapshot.graph().vertexCount(); v++) {
+            words.add(snapshot.graph().word(v));
+        }
+        for (String word : words) {
+            Map<String, Double> row = new HashMap<>();
+            for (NextWordPredictor.Prediction prediction : rebuilt.predict(word, Integer.MAX_VALUE)) {
+                row.put(prediction.word(), prediction.weight());
+            }
+            assertRowMatches(row, live, word);
+        }
+        assertEquals("Top 2 next words after \"the\":\n1. cat 0.666667\n2. mat 0.333333",
+                QueryCommands.execute(snapshot, "next the 2"));
+
+        GraphIngestor resumed = new GraphIngestor(snapshot.graph(), "ran");
+        resumed.ingest("on");
+        assertEquals(1.0, resumed.predictor().probability("ran", "on"));
+        assertEquals(2.0 / 3, resumed.predictor().probability("the", "cat"), 1e-12);
+    }
+
+    @Test
+    void testCurrentGraph() {
+        DirectedGraph.setGraph(DirectedGraph.buildGraph(Arrays.asList("a", "b", "a", "c", "a", "b")));
+        assertEquals("Top 1 next words after \"a\":\n1. b 0.666667", DirectedGraph.predictNextWords("a", 1));
+        assertEquals("Top 2 next words after \"a\":\n1. b 0.666667\n2. c 0.333333",
+                DirectedGraph.predictNextWords(DirectedGraph.compactGraph(), "a", 5));
+    }
+}
@@ -0,0 +1,61 @@
+package org.directedgraph;
+
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelGraphBuilderTest {
+
+    private static void assertSameGraph(DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> expected,
+                                        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> actual) {
+        assertEquals(new ArrayList<>(expected.vertexSet()), new ArrayList<>(actual.vertexSet()));
+        for (String vertex : expected.vertexSet()) {
+            List<String> expectedTargets = new ArrayList<>();
+            for (DefaultWeightedEdge edge : expected.outgoingEdgesOf(vertex)) {
+                expectedTargets.add(expected.getEdgeTarget(edge) + "=" + expected.getEdgeWeight(edge));
+            }
+            List<String> actualTargets = new ArrayList<>();
+            for (DefaultWeightedEdge edge : actual.outgoingEdgesOf(vertex)) {
+                actualTargets.add(actual.getEdgeTarget(edge) + "=" + actual.getEdgeWeight(edge));
+            }
+            assertEquals(expectedTargets, actualTargets, vertex);
+        }
+    }
+
+    @Test
+    void testMatchesSequentialBuildAcrossShardBoundaries() {
+        Random random = new Random(7);
+        String[] vocabulary = {"the", "cat", "sat", "on", "mat", "a", "dog"};
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            words.add(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> expected = DirectedGraph.buildGraph(words);
+        for (int threads : new int[] {1, 3, 8}) {
+            assertSameGraph(expected, new ParallelGraphBuilder(threads, 7).buildGraph(words));
+        }
+    }
+
+    @Test
+    void testInputFile() {
+        List<String> words = DirectedGraph.readWordsFromFile("input.txt");
+        assertSameGraph(DirectedGraph.buildGraph(words), DirectedGraph.buildGraph(words, 4));
+        CompactGraph compact = new ParallelGraphBuilder(4, 3).buildCompactGraph(words);
+        assertEquals(CompactGraph.of(DirectedGraph.buildGraph(words)).findBridgeWords("hurt", "owl"),
+                compact.findBridgeWords("hurt", "owl"));
+    }
+
+    @Test
+    void testDegenerateInputs() {
+        assertEquals(0, new ParallelGraphBuilder(2).buildGraph(Collections.<String>emptyList()).vertexSet().size());
+        assertEquals(1, new ParallelGraphBuilder(2).buildGraph(Arrays.asList("hello")).vertexSet().size());
+    }
+}
@@ -0,0 +1,98 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RandomWalkEngineTest {
+
+    private static CompactGraph graphOf(String... words) {
+        return CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList(words)));
+    }
+
+    @Test
+    void testStopsOnRepeatedEdge() {
+        CompactGraph graph = graphOf("a", "b", "a", "b");
+        RandomWalkEngine engine = new RandomWalkEngine(graph);
+        int a = graph.idOf("a");
+        int b = graph.idOf("b");
+        assertArrayEquals(new int[]{a, b, a, b}, engine.walk(a, 0, true, new SplittableRandom(1)));
+        assertArrayEquals(new int[]{a, b}, engine.walk(a, 1, true, new SplittableRandom(1)));
+        assertArrayEquals(new int[]{a, b, a, b, a, b}, engine.walk(a, 5, false, new SplittableRandom(1)));
+        assertThrows(IllegalArgumentException.class, () -> engine.walk(a, 0, false, new SplittableRandom(1)));
+    }
+
+    @Test
+    void testFollowsEdgeWeights() {
+        // a -> b 三次, a -> c 一次
+        CompactGraph graph = graphOf("a", "b", "a", "b", "a", "b", "a", "c");
+        RandomWalkEngine engine = new RandomWalkEngine(graph);
+        SplittableRandom random = new SplittableRandom(42);
+        int a = graph.idOf("a");
+        int b = graph.idOf("b");
+        int toB = 0;
+        int trials = 40000;
+        for (int i = 0; i < trials; i++) {
+            if (engine.walk(a, 1, false, random)[1] == b) {
+                toB++;
+            }
+        }
+        assertEquals(0.75, toB / (double) trials, 0.02);
+    }
+
+    @Test
+    void testReproducibleAcrossThreadCounts() throws IOException {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(5, 300, 5000));
+        RandomWalkEngine engine = new RandomWalkEngine(graph, 7);
+        StringWriter inline = new StringWriter();
+        engine.walk(inline, 100, 99L, 20, true, 1);
+        StringWriter parallel = new StringWriter();
+        engine.walk(parallel, 100, 99L, 20, true, 4);
+        assertEquals(inline.toString(), parallel.toString());
+
+        String[] lines = inline.toString().split("\n");
+        assertEquals(100, lines.length);
+        for (String line : lines) {
+            String[] words = line.split(" ");
+            assertTrue(words.length <= 21);
+            for (int i = 0; i + 1 < words.length; i++) {
+                assertTrue(graph.containsEdge(graph.idOf(words[i]), graph.idOf(words[i + 1])));
+            }
+        }
+    }
+
+    @Test
+    void testWalkCommandUsesEngine() {
+        // a -> b 三次, a -> c 一次
+        GraphSnapshot snapshot = new GraphSnapshot(0, graphOf("a", "b", "a", "b", "a", "b", "a", "c"));
+        RandomWalkEngine engine = snapshot.randomWalkEngine();
+        int fromA = 0;
+        int toB = 0;
+        for (long seed = 0; seed < 20000; seed++) {
+            String walk = QueryCommands.walk(snapshot, seed, 1);
+            assertEquals(walk, QueryCommands.execute(snapshot, "walk " + seed + " 1"));
+            int[] expected = engine.walk(-1, 1, true, new SplittableRandom(seed));
+            String[] words = walk.split(" ");
+            assertEquals(expected.length, words.length);
+            for (int i = 0; i < words.length; i++) {
+                assertEquals(snapshot.graph().word(expected[i]), words[i]);
+            }
+            if (walk.startsWith("a ")) {
+                fromA++;
+                if (walk.equals("a b")) {
+                    toB++;
+                }
+            }
+        }
+        // 按边权重选择下一个词
+        assertEquals(0.75, toB / (double) fromA, 0.03);
+    }
+}
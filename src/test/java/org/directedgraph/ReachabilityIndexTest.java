@@ -0,0 +1,96 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReachabilityIndexTest {
+
+    @Test
+    void testMatchesSearch() {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(3, 400, 1500));
+        ReachabilityIndex closure = ReachabilityIndex.build(graph);
+        ReachabilityIndex dagSearch = ReachabilityIndex.build(graph, 0);
+        assertTrue(closure.hasClosure());
+        assertFalse(dagSearch.hasClosure());
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        for (int source = 0; source < graph.vertexCount(); source += 3) {
+            ShortestPathTree tree = engine.shortestPathTree(source);
+            for (int target = 0; target < graph.vertexCount(); target++) {
+                boolean expected = source == target || tree.isReachable(target);
+                assertEquals(expected, closure.canReach(source, target));
+                assertEquals(expected, dagSearch.canReach(source, target));
+            }
+        }
+        // 分量间的边总是指向编号更小的分量
+        for (int u = 0; u < graph.vertexCount(); u++) {
+            for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                assertTrue(closure.component(u) >= closure.component(graph.target(e)));
+            }
+        }
+    }
+
+    @Test
+    void testComponents() {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("x", "a", "b", "c", "a", "d")));
+        ReachabilityIndex index = ReachabilityIndex.build(graph);
+        assertEquals(3, index.componentCount());
+        int cycle = index.component(graph.idOf("a"));
+        assertEquals(cycle, index.largestComponent());
+        assertEquals(Arrays.asList("a", "b", "c"), index.memberWords(cycle));
+        assertArrayEquals(new int[] {index.component(graph.idOf("d"))}, index.successors(cycle));
+        assertTrue(index.canReach("x", "d"));
+        assertFalse(index.canReach("d", "a"));
+        assertFalse(index.canReach("a", "x"));
+        assertFalse(index.canReach("a", "missing"));
+
+        assertEquals("\"b\" is in a strongly connected component of 3 words (3 components in the graph): a, b, c",
+                DirectedGraph.describeComponent(index, "b", 20));
+        assertEquals("\"b\" is in a strongly connected component of 3 words (3 components in the graph): a, ...",
+                DirectedGraph.describeComponent(index, "b", 1));
+        GraphSnapshot snapshot = new GraphSnapshot(1, graph);
+        assertEquals("\"d\" is in a strongly connected component of 1 word (3 components in the graph): d",
+                QueryCommands.execute(snapshot, "component d"));
+        assertEquals("No path from \"d\" to \"a\"!", snapshot.calcShortestPath("d", "a"));
+    }
+
+    @Test
+    void testLongChainDoesNotOverflow() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 200000; i++) {
+            words.add("w" + i);
+        }
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(words));
+        ReachabilityIndex index = ReachabilityIndex.build(graph);
+        assertEquals(200000, index.componentCount());
+        // 20 万个分量的闭包超过默认上限，改为在 DAG 上搜索
+        assertFalse(index.hasClosure());
+        assertTrue(index.canReach("w0", "w199999"));
+        assertFalse(index.canReach("w199999", "w0"));
+    }
+
+    @Test
+    void testRejectsUnreachableWithoutSearching() {
+        GraphMetrics.reset();
+        GraphMetrics.setEnabled(true);
+        try {
+            DirectedGraph.setGraph(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c", "b")));
+            WordGraph graph = DirectedGraph.compactGraph();
+            assertEquals("No path from \"c\" to \"a\"!", DirectedGraph.calcShortestPath(graph, "c", "a"));
+            assertEquals(0, GraphMetrics.dijkstraSearches());
+            assertEquals("Shortest path from \"a\" to \"c\" is: a -> b -> c, the length is 2.0",
+                    DirectedGraph.calcShortestPath(graph, "a", "c"));
+            assertEquals(1, GraphMetrics.dijkstraSearches());
+        } finally {
+            GraphMetrics.setEnabled(false);
+            GraphMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ShortestPathCacheTest {
+
+    private final CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(3, 40, 300));
+    private final DijkstraEngine engine = new DijkstraEngine(graph);
+
+    @Test
+    void testPathsMatchEngineAndCountHits() {
+        ShortestPathCache cache = new ShortestPathCache(4);
+        for (int round = 0; round < 3; round++) {
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                ShortestPath expected = engine.shortestPath(0, v);
+                ShortestPath actual = cache.path(engine, 0, v);
+                assertEquals(expected == null, actual == null);
+                if (expected != null) {
+                    assertEquals(expected.length(), actual.length(), 1e-9);
+                }
+            }
+        }
+        assertEquals(2, cache.misses());
+        assertEquals(3L * graph.vertexCount() - 2, cache.hits());
+    }
+
+    @Test
+    void testEvictionPolicies() {
+        ShortestPathCache lru = new ShortestPathCache(2, ShortestPathCache.Policy.LRU, 1);
+        lru.tree(engine, 0);
+        lru.tree(engine, 1);
+        lru.tree(engine, 0);
+        lru.tree(engine, 2);
+        assertEquals(1, lru.evictions());
+        long misses = lru.misses();
+        lru.tree(engine, 0);
+        assertEquals(misses, lru.misses());
+
+        ShortestPathCache lfu = new ShortestPathCache(2, ShortestPathCache.Policy.LFU, 1);
+        lfu.tree(engine, 0);
+        lfu.tree(engine, 0);
+        lfu.tree(engine, 1);
+        lfu.tree(engine, 2);
+        misses = lfu.misses();
+        lfu.tree(engine, 0);
+        assertEquals(misses, lfu.misses());
+        assertEquals(2, lfu.size());
+    }
+
+    @Test
+    void testInvalidatedByNewGraph() {
+        ShortestPathCache cache = new ShortestPathCache(4);
+        ShortestPathTree tree = cache.tree(engine, 0);
+        assertSame(tree, cache.tree(engine, 0));
+        CompactGraph rebuilt = CompactGraph.of(graph.toGraph());
+        ShortestPathTree other = cache.tree(new DijkstraEngine(rebuilt), 0);
+        assertNotSame(tree, other);
+        assertSame(rebuilt, other.graph());
+        assertEquals(1, cache.size());
+    }
+}
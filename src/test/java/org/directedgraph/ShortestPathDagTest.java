@@ -0,0 +1,100 @@
+package org.directedgraph;
+
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShortestPathDagTest {
+
+    /**
+     * 串联 k 个菱形：x_i 分别经 y_i 和 z_i 到 x_{i+1}，共 2^k 条最短路径。
+     */
+    private static CompactGraph diamonds(int k) {
+        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> graph = new DefaultDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int i = 0; i <= k; i++) {
+            graph.addVertex("x" + i);
+        }
+        for (int i = 0; i < k; i++) {
+            for (String middle : new String[]{"y" + i, "z" + i}) {
+                graph.addVertex(middle);
+                graph.setEdgeWeight(graph.addEdge("x" + i, middle), 1.0);
+                graph.setEdgeWeight(graph.addEdge(middle, "x" + (i + 1)), 1.0);
+            }
+        }
+        // 一条更长的捷径不应出现在结果中
+        graph.setEdgeWeight(graph.addEdge("x0", "x" + k), 2.0 * k + 1);
+        return CompactGraph.of(graph);
+    }
+
+    @Test
+    void testEnumeratesEveryPathOnce() {
+        CompactGraph graph = diamonds(10);
+        ShortestPathDag dag = new DijkstraEngine(graph).shortestPathDag(graph.idOf("x0"), graph.idOf("x10"));
+        assertEquals(20.0, dag.length());
+        assertEquals(BigInteger.valueOf(1024), dag.countPaths());
+        assertEquals(10 * 4, dag.edges().length);
+
+        Set<String> seen = new HashSet<>();
+        for (Iterator<ShortestPath> it = dag.paths(); it.hasNext(); ) {
+            ShortestPath path = it.next();
+            assertEquals(21, path.vertices().length);
+            assertEquals("x0", graph.word(path.vertices()[0]));
+            assertEquals("x10", graph.word(path.vertices()[20]));
+            assertTrue(seen.add(Arrays.toString(path.vertices())));
+        }
+        assertEquals(1024, seen.size());
+    }
+
+    @Test
+    void testCountsWithoutEnumerating() {
+        CompactGraph graph = diamonds(80);
+        ShortestPathDag dag = new DijkstraEngine(graph).shortestPathDag(graph.idOf("x0"), graph.idOf("x80"));
+        assertEquals(BigInteger.ONE.shiftLeft(80), dag.countPaths());
+        assertTrue(dag.paths().hasNext());
+    }
+
+    @Test
+    void testMatchesCountOnRandomGraph() {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(17, 150, 2000));
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        for (int target = 0; target < graph.vertexCount(); target += 7) {
+            ShortestPathDag dag = engine.shortestPathDag(0, target);
+            double expected = engine.shortestPathTree(0).distance(target);
+            if (!dag.isReachable()) {
+                assertEquals(Double.POSITIVE_INFINITY, expected);
+                assertFalse(dag.paths().hasNext());
+                continue;
+            }
+            long count = 0;
+            for (Iterator<ShortestPath> it = dag.paths(); it.hasNext(); count++) {
+                int[] vertices = it.next().vertices();
+                double length = 0;
+                for (int i = 0; i + 1 < vertices.length; i++) {
+                    length += graph.weight(graph.edgeIndex(vertices[i], vertices[i + 1]));
+                }
+                assertEquals(expected, length, 1e-9);
+            }
+            assertEquals(BigInteger.valueOf(count), dag.countPaths());
+        }
+    }
+
+    @Test
+    void testDescribesEqualPaths() {
+        CompactGraph graph = diamonds(1);
+        String result = DirectedGraph.calcEqualShortestPaths(graph, "x0", "x1", 1);
+        assertTrue(result.startsWith("There are 2 shortest paths from \"x0\" to \"x1\", the length is 2.0:"));
+        assertTrue(result.endsWith("\n..."));
+        assertEquals("No \"q\" in the graph!", DirectedGraph.calcEqualShortestPaths(graph, "x0", "q", 5));
+        assertEquals("No path from \"x1\" to \"x0\"!", DirectedGraph.calcEqualShortestPaths(graph, "x1", "x0", 5));
+    }
+}
@@ -0,0 +1,61 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ShortestPathTreeTest {
+
+    @Test
+    void testWritePathsMatchesPathTo() throws IOException {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(23, 300, 4000));
+        ShortestPathTree tree = new DijkstraEngine(graph).shortestPathTree(5);
+        StringBuilder expected = new StringBuilder();
+        int count = 0;
+        for (int target = 0; target < graph.vertexCount(); target++) {
+            if (target != 5 && tree.isReachable(target)) {
+                expected.append("从 ").append(graph.word(5)).append(" 到 ").append(graph.word(target)).append(" 的最短路径：")
+                        .append(String.join("->", tree.pathTo(target).words(graph))).append("\n");
+                count++;
+            }
+        }
+        StringWriter out = new StringWriter();
+        assertEquals(count, tree.writePaths(out));
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    void testLongChain() throws IOException {
+        // 一条很长的链，路径深度远超初始缓冲区
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            words.add("w" + i);
+        }
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(words));
+        ShortestPathTree tree = new DijkstraEngine(graph).shortestPathTree(graph.idOf("w0"));
+        assertEquals(2999, tree.writePaths(new StringWriter()));
+        assertEquals(3000, tree.pathTo(graph.idOf("w2999")).vertices().length);
+    }
+
+    @Test
+    void testStreamsCurrentGraph() throws IOException {
+        DirectedGraph.setGraph(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c", "b")));
+        StringWriter out = new StringWriter();
+        DirectedGraph.calcAllShortestPathsFrom("a", out);
+        assertEquals(DirectedGraph.calcAllShortestPathsFrom("a"), out.toString());
+        assertEquals("从 a 到 b 的最短路径：a->b\n从 a 到 c 的最短路径：a->b->c\n", out.toString());
+
+        out = new StringWriter();
+        DirectedGraph.calcAllShortestPathsFrom("c", out);
+        assertEquals("从 c 到 b 的最短路径：c->b\n", out.toString());
+        assertEquals("No path from x to other words!", DirectedGraph.calcAllShortestPathsFrom("x"));
+        assertNull(DirectedGraph.shortestPathTree("x"));
+    }
+}
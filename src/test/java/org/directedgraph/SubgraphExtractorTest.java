@@ -0,0 +1,104 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubgraphExtractorTest {
+
+    private static CompactGraph graphOf(String... words) {
+        return CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList(words)));
+    }
+
+    @Test
+    void testNeighborhoodFollowsBothDirections() {
+        CompactGraph graph = graphOf("a", "b", "c", "d", "e");
+        CompactGraph view = new SubgraphExtractor(1, 0, 0, 100).around(graph, Collections.singletonList("c"));
+        assertEquals(3, view.vertexCount());
+        assertTrue(view.containsEdge(view.idOf("b"), view.idOf("c")));
+        assertTrue(view.containsEdge(view.idOf("c"), view.idOf("d")));
+        assertFalse(view.containsWord("a"));
+
+        CompactGraph twoHops = new SubgraphExtractor(2, 0, 0, 100).around(graph, Collections.singletonList("c"));
+        assertEquals(5, twoHops.vertexCount());
+    }
+
+    @Test
+    void testWeightThresholdAndCap() {
+        // hub -> x 三次, hub -> y 两次, hub -> z 一次
+        CompactGraph graph = graphOf("hub", "x", "hub", "x", "hub", "x", "hub", "y", "hub", "y", "hub", "z");
+        CompactGraph pruned = new SubgraphExtractor(1, 2, 0, 100).around(graph, Collections.singletonList("hub"));
+        assertTrue(pruned.containsWord("y"));
+        assertFalse(pruned.containsWord("z"));
+
+        CompactGraph capped = new SubgraphExtractor(1, 0, 0, 2).around(graph, Collections.singletonList("hub"));
+        assertEquals(2, capped.vertexCount());
+        assertTrue(capped.containsWord("x"));
+    }
+
+    @Test
+    void testCollapsesLeaves() {
+        CompactGraph graph = graphOf("hub", "a", "hub", "b", "hub", "c", "hub", "d", "d", "hub");
+        CompactGraph view = new SubgraphExtractor(1, 0, 2, 100).around(graph, Collections.singletonList("hub"));
+        // a、b、c 各有两条边，被折叠；d 还有自环，保留
+        assertEquals(3, view.vertexCount());
+        assertTrue(view.containsWord("d"));
+        int group = view.idOf("[hub +3]");
+        assertEquals(3.0, view.weight(view.edgeIndex(view.idOf("hub"), group)));
+        assertEquals(3.0, view.weight(view.edgeIndex(group, view.idOf("hub"))));
+
+        CompactGraph lone = new SubgraphExtractor(1, 0, 1, 100).around(graphOf("hub", "a"), Collections.singletonList("hub"));
+        assertTrue(lone.containsWord("a"));
+    }
+
+    @Test
+    void testPathViewKeepsPathEdges() throws IOException {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraphFromFile("input.txt"));
+        List<String> path = Arrays.asList("hurt", "deer", "owl");
+        CompactGraph view = new SubgraphExtractor(1, 2, 1, 10).aroundPath(graph, path);
+        assertTrue(view.vertexCount() <= 10);
+        assertTrue(view.containsEdge(view.idOf("hurt"), view.idOf("deer")));
+        assertTrue(view.containsEdge(view.idOf("deer"), view.idOf("owl")));
+    }
+
+    @Test
+    void testViewOfLargeGraphIsBounded() {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(3, 2000, 50000));
+        CompactGraph view = new SubgraphExtractor(3, 0, 1, 150).around(graph, Collections.singletonList(graph.word(0)));
+        assertTrue(view.vertexCount() <= 150);
+        assertTrue(view.containsWord(graph.word(0)));
+    }
+
+    @Test
+    void testLargeCurrentGraphIsShownAsNeighborhood() throws IOException {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            words.add("hub");
+            words.add("w" + i);
+        }
+        DirectedGraph.setGraph(DirectedGraph.buildGraph(words));
+        DirectedGraph.setRenderVertexLimit(20);
+        try {
+            // 没有指定中心词时，以出边权重最大的词为中心
+            assertEquals(Collections.singletonList("hub"), DirectedGraph.viewCenter(Collections.<String>emptyList()));
+            assertEquals(Arrays.asList("w7"), DirectedGraph.viewCenter(Arrays.asList("w7")));
+            CompactGraph view = DirectedGraph.neighborhoodExtractor().around(DirectedGraph.compactGraph(),
+                    DirectedGraph.viewCenter(Collections.<String>emptyList()));
+            assertTrue(view.vertexCount() <= 20);
+            assertTrue(view.containsWord("hub"));
+            DirectedGraph.setGuiEnabled(false);
+            DirectedGraph.showGraph(Collections.<String>emptyList());
+        } finally {
+            DirectedGraph.setGuiEnabled(true);
+            DirectedGraph.setRenderVertexLimit(500);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextGeneratorTest {
+
+    private static String generate(TextGenerator generator, String text, long seed, int threads) throws IOException {
+        StringWriter out = new StringWriter();
+        generator.generate(new StringReader(text), out, seed, threads);
+        return out.toString();
+    }
+
+    @Test
+    void testMatchesGenerateNewTextWithUniqueBridges() throws IOException {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(DirectedGraph.readWordsFromFile("input.txt")));
+        String[] samples = {
+            "Deep woods too hurt owl seeks",
+            "  hurt\nowl, alex, tall trees",
+            "",
+        };
+        for (String sample : samples) {
+            for (int batchWords : new int[] {1, 2, 5, 100}) {
+                TextGenerator generator = new TextGenerator(graph::findBridgeWords, batchWords);
+                assertEquals(DirectedGraph.generateNewText(graph, sample), generate(generator, sample, 1, 1));
+            }
+        }
+    }
+
+    @Test
+    void testParallelIsReproducible() throws IOException {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(5, 30, 2000));
+        Random random = new Random(9);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append(graph.word(random.nextInt(graph.vertexCount()))).append(i % 17 == 0 ? ".\n" : " ");
+        }
+        TextGenerator generator = new TextGenerator(BridgeWordIndex.build(graph)::findBridgeWords, 64);
+        String sequential = generate(generator, text.toString(), 42, 1);
+        assertEquals(sequential, generate(generator, text.toString(), 42, 4));
+        assertEquals(sequential, generate(generator, text.toString(), 42, 3));
+    }
+}
@@ -0,0 +1,115 @@
+package org.directedgraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WordCentralityTest {
+
+    /**
+     * 逐个顶点推送的朴素实现，作为对照。
+     */
+    private static double[] naivePageRank(WordGraph graph, double damping, int rounds) {
+        int n = graph.vertexCount();
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int round = 0; round < rounds; round++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                double strength = 0;
+                for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                    strength += graph.weight(e);
+                }
+                if (strength == 0) {
+                    dangling += rank[u];
+                }
+                for (int e = graph.outStart(u); e < graph.outEnd(u); e++) {
+                    next[graph.target(e)] += damping * rank[u] * graph.weight(e) / strength;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] += (1 - damping + damping * dangling) / n;
+            }
+            rank = next;
+        }
+        return rank;
+    }
+
+    @Test
+    void testMatchesNaiveIteration() {
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(7, 200, 3000));
+        WordCentrality.Ranking ranking = new WordCentrality(graph).pageRank();
+        assertTrue(ranking.converged());
+        double[] expected = naivePageRank(graph, WordCentrality.DEFAULT_DAMPING, 300);
+        double sum = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            assertEquals(expected[v], ranking.score(v), 1e-9);
+            sum += ranking.score(v);
+        }
+        assertEquals(1.0, sum, 1e-9);
+    }
+
+    @Test
+    void testIndependentOfThreadCount() {
+        // 词汇量超过一个分块，让各分块在不同线程上计算
+        CompactGraph graph = CompactGraph.of(DijkstraEngineTest.randomGraph(11, 20000, 60000));
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(4);
+        try {
+            WordCentrality.Ranking a = new WordCentrality(graph, single).pageRank();
+            WordCentrality.Ranking b = new WordCentrality(graph, several).pageRank();
+            assertEquals(a.iterations(), b.iterations());
+            assertArrayEquals(a.top(50), b.top(50));
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                assertEquals(a.score(v), b.score(v));
+            }
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    void testDanglingWordKeepsRankInGraph() {
+        // c 没有出边，它的排名平均分给所有词
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "c")));
+        WordCentrality.Ranking ranking = new WordCentrality(graph).pageRank();
+        assertEquals(1.0, ranking.score("a") + ranking.score("b") + ranking.score("c"), 1e-12);
+        assertEquals(Arrays.asList("c", "b", "a"), ranking.topWords(3));
+        assertTrue(Double.isNaN(ranking.score("x")));
+    }
+
+    @Test
+    void testStrengthAndTopK() {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "a", "c", "a", "b", "d")));
+        WordCentrality centrality = new WordCentrality(graph);
+        WordCentrality.Ranking out = centrality.outStrength();
+        assertEquals(3.0, out.score("a"));
+        assertEquals(Arrays.asList("a", "b"), out.topWords(2));
+        WordCentrality.Ranking in = centrality.inStrength();
+        assertEquals(2.0, in.score("a"));
+        assertEquals(2.0, in.score("b"));
+        // 分数相同时按顶点编号排序
+        assertEquals(Arrays.asList("a", "b", "c", "d"), in.topWords(10));
+        assertEquals(0, in.top(0).length);
+        assertThrows(IllegalArgumentException.class, () -> in.top(-1));
+    }
+
+    @Test
+    void testRankWordsMessage() {
+        CompactGraph graph = CompactGraph.of(DirectedGraph.buildGraph(Arrays.asList("a", "b", "a", "c", "a", "b", "d")));
+        assertEquals("Top 2 words by out-strength:\n1. a 3.000000\n2. b 2.000000",
+                DirectedGraph.rankWords(graph, WordCentrality.Measure.OUT_STRENGTH, 2));
+        GraphSnapshot snapshot = new GraphSnapshot(1, graph);
+        assertEquals(snapshot.rankWords(WordCentrality.Measure.PAGE_RANK, 3), QueryCommands.execute(snapshot, "rank pagerank 3"));
+        assertEquals(DirectedGraph.rankWords(graph, WordCentrality.Measure.PAGE_RANK, 10), QueryCommands.execute(snapshot, "rank"));
+        assertThrows(IllegalArgumentException.class, () -> QueryCommands.execute(snapshot, "rank degree"));
+    }
+}
@@ -0,0 +1,88 @@
+package org.directedgraph;
+
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WordTokenizerTest {
+
+    private static List<String> regexTokens(String text) throws IOException {
+        List<String> words = new ArrayList<>();
+        BufferedReader br = new BufferedReader(new StringReader(text));
+        String line;
+        while ((line = br.readLine()) != null) {
+            words.addAll(Arrays.asList(line.replaceAll("[^a-zA-Z ]", " ").toLowerCase().split("\\s+")));
+        }
+        return words;
+    }
+
+    private static List<String> streamedTokens(String text) throws IOException {
+        Path file = Files.createTempFile("tokens", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            List<String> words = new ArrayList<>();
+            WordTokenizer.tokenize(file, words::add);
+            return words;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testMatchesRegexSemantics() throws IOException {
+        String[] samples = {
+            "",
+            "hello world hello",
+            "Alex]walks.deep woods too hurt//\nDeer, owl",
+            "  leading space\n\nafter empty line\r\nwindows\rmac\n",
+            "---\n...x\ntrailing  ",
+            "wat2er café naïve 中文 ok",
+            "\n\n",
+        };
+        for (String sample : samples) {
+            assertEquals(regexTokens(sample), streamedTokens(sample), sample);
+        }
+    }
+
+    @Test
+    void testReaderMatchesChannel() throws IOException {
+        String text = "Finally, sparkling wat2er, loud and#clear.\r\n Alex smiles";
+        List<String> words = new ArrayList<>();
+        WordTokenizer tokenizer = new WordTokenizer(words::add);
+        tokenizer.feed(new StringReader(text)).finish();
+        assertEquals(streamedTokens(text), words);
+    }
+
+    @Test
+    void testRepeatedWordsShareInstance() {
+        List<String> words = new ArrayList<>();
+        new WordTokenizer(words::add).feed("the cat THE dog").finish();
+        assertSame(words.get(0), words.get(2));
+    }
+
+    @Test
+    void testBuildGraphFromFileMatchesBuildGraph() throws IOException {
+        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> expected =
+                DirectedGraph.buildGraph(DirectedGraph.readWordsFromFile("input.txt"));
+        DefaultDirectedWeightedGraph<String, DefaultWeightedEdge> actual = DirectedGraph.buildGraphFromFile("input.txt");
+        assertEquals(new ArrayList<>(expected.vertexSet()), new ArrayList<>(actual.vertexSet()));
+        assertEquals(expected.edgeSet().size(), actual.edgeSet().size());
+        for (DefaultWeightedEdge edge : expected.edgeSet()) {
+            DefaultWeightedEdge other = actual.getEdge(expected.getEdgeSource(edge), expected.getEdgeTarget(edge));
+            assertEquals(expected.getEdgeWeight(edge), actual.getEdgeWeight(other));
+        }
+    }
+}